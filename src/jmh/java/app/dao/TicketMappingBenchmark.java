@@ -0,0 +1,96 @@
+package app.dao;
+
+import app.model.Ticket;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResultSet to Ticket mapping of the tickets/vehicles join (mapTicketWithVehicle), per row.
+ * Rows come from an in-memory CachedRowSet, so column lookup by label is the JDK's,
+ * not the PostgreSQL driver's; the database round trip is not included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TicketMappingBenchmark {
+
+    private static final String[] COLUMNS = {
+        "id", "folio", "vehicle_id", "operator_id", "subscription_id", "entry_datetime", 
+        "exit_datetime", "ticket_type", "status", "parking_duration_minutes", "qr_code_data", 
+        "license_plate", "vehicle_type"
+    };
+    private static final int[] TYPES = {
+        Types.INTEGER, Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.TIMESTAMP, 
+        Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, 
+        Types.VARCHAR, Types.VARCHAR
+    };
+    private static final int ROWS = 1000;
+
+    private CachedRowSet rows;
+
+    @Setup
+    public void setUp() throws SQLException {
+        rows = RowSetProvider.newFactory().createCachedRowSet();
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(COLUMNS.length);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            metaData.setColumnName(i + 1, COLUMNS[i]);
+            metaData.setColumnLabel(i + 1, COLUMNS[i]);
+            metaData.setColumnType(i + 1, TYPES[i]);
+        }
+        rows.setMetaData(metaData);
+        
+        long entryMillis = 1_704_110_400_000L;
+        for (int id = 1; id <= ROWS; id++) {
+            boolean closed = id % 2 == 0;
+            rows.moveToInsertRow();
+            rows.updateInt("id", id);
+            rows.updateString("folio", String.format("F-%06d", id));
+            rows.updateInt("vehicle_id", id);
+            rows.updateInt("operator_id", 1);
+            if (id % 10 == 0) {
+                rows.updateInt("subscription_id", id / 10);
+            } else {
+                rows.updateNull("subscription_id");
+            }
+            rows.updateTimestamp("entry_datetime", new Timestamp(entryMillis));
+            if (closed) {
+                rows.updateTimestamp("exit_datetime", new Timestamp(entryMillis + 95 * 60_000L));
+                rows.updateInt("parking_duration_minutes", 95);
+            } else {
+                rows.updateNull("exit_datetime");
+                rows.updateNull("parking_duration_minutes");
+            }
+            rows.updateString("ticket_type", id % 10 == 0 ? "Monthly" : "Guest");
+            rows.updateString("status", closed ? "CLOSED" : "OPEN");
+            rows.updateString("qr_code_data", String.format("TICKET:%06d|PLATE:ABC%03d|TS:%d", 
+                                                            id, id % 1000, entryMillis / 1000));
+            rows.updateString("license_plate", String.format("ABC%03d", id % 1000));
+            rows.updateString("vehicle_type", "Car");
+            rows.insertRow();
+        }
+        rows.moveToCurrentRow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int mapTicketWithVehicle() throws SQLException {
+        int checksum = 0;
+        rows.beforeFirst();
+        while (rows.next()) {
+            Ticket ticket = TicketDAO.mapTicketWithVehicle(rows);
+            checksum += ticket.getId();
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,86 @@
+package app.database;
+
+import app.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of JdbcInstrumentation per statement: bind a plate, execute the query and read
+ * every row, once on the statement itself (raw) and once through the wrappers a DAO gets
+ * from an instrumented connection (instrumented). The statement does nothing
+ * (StubPreparedStatement) and the rows come from an in-memory CachedRowSet, so the
+ * difference between the two is the instrumentation alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JdbcInstrumentationBenchmark {
+
+    private static final String SQL = "SELECT id, license_plate, vehicle_type FROM vehicles WHERE license_plate = ?";
+
+    @Param({"1", "20"})
+    public int rowCount;
+
+    private JdbcInstrumentation instrumentation;
+    private PreparedStatement statement;
+
+    @Setup
+    public void setUp() throws SQLException {
+        CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(3);
+        metaData.setColumnType(1, Types.INTEGER);
+        metaData.setColumnType(2, Types.VARCHAR);
+        metaData.setColumnType(3, Types.VARCHAR);
+        rows.setMetaData(metaData);
+        for (int id = 1; id <= rowCount; id++) {
+            rows.moveToInsertRow();
+            rows.updateInt(1, id);
+            rows.updateString(2, String.format("ABC%03d", id));
+            rows.updateString(3, "Car");
+            rows.insertRow();
+        }
+        rows.moveToCurrentRow();
+        statement = new StubPreparedStatement(rows);
+
+        Properties config = new Properties();
+        config.setProperty("metrics.jmx", "false");
+        instrumentation = new JdbcInstrumentation(new MetricsRegistry(config), 0);
+    }
+
+    @Benchmark
+    public int raw() throws SQLException {
+        return query(statement);
+    }
+
+    @Benchmark
+    public int instrumented() throws SQLException {
+        // A DAO prepares its statement per call, so the wrapper is created per call too
+        // (no connection: the query never asks for it)
+        return query(instrumentation.instrument(null, statement, SQL, 0));
+    }
+
+    private static int query(PreparedStatement stmt) throws SQLException {
+        int checksum = 0;
+        stmt.setString(1, "ABC001");
+        // Not closed: closing would release the shared rows
+        ResultSet rs = stmt.executeQuery();
+        while (rs.next()) {
+            checksum += rs.getInt(1) + rs.getString(2).length() + rs.getString(3).length();
+        }
+        stmt.close();
+        return checksum;
+    }
+}
@@ -0,0 +1,61 @@
+package app.pricing;
+
+import app.model.Rate;
+import app.model.RateWindow;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tariff evaluation cost across stay lengths. The flat tariff should not grow with
+ * the duration (closed form); the windowed schedule grows with the number of
+ * window boundaries and 24h cap windows crossed, not with minutes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TariffBenchmark {
+
+    /** 30 minutes, 10 hours, 10 days, 1 year */
+    @Param({"30", "600", "14400", "525600"})
+    private long durationMinutes;
+
+    private Tariff tariff;
+    private TariffSchedule schedule;
+    private long entryMillis;
+
+    @Setup
+    public void setUp() {
+        tariff = new Tariff(1, "Standard Car Rate", 500, 250, 5000, 15);
+        
+        Rate rate = new Rate();
+        rate.setHourlyRate(5.00);
+        rate.setFractionRate(2.50);
+        rate.setDailyCap(50.00);
+        rate.setGracePeriodMinutes(15);
+        RateWindow night = new RateWindow();
+        night.setDaysOfWeek(127);
+        night.setStartMinute(22 * 60);
+        night.setEndMinute(6 * 60);
+        night.setHourlyRate(2.00);
+        night.setFractionRate(1.00);
+        rate.setWindows(List.of(night));
+        schedule = TariffSchedule.compile(rate);
+        entryMillis = 1_704_110_400_000L; // Monday 2024-01-01 12:00 UTC
+    }
+
+    @Benchmark
+    public long costCents() {
+        return tariff.costCents(durationMinutes);
+    }
+
+    @Benchmark
+    public long scheduleCostCents() {
+        return schedule.costCents(entryMillis, durationMinutes, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,107 @@
+package app.service;
+
+import app.dao.*;
+import app.database.DatabaseConnection;
+import app.util.QRBackupPipeline;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Burst of entries: one processEntries call against a loop of processEntry, per batch.
+ * Needs the database from database.properties and an operator with ID operatorId,
+ * so the jmh profile leaves it out unless it is named in jmh.args.
+ * Every plate is new so no entry is rejected; the tickets opened by an iteration
+ * are closed again in the teardown.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EntryBatchBenchmark {
+
+    @Param({"10", "50"})
+    private int batchSize;
+
+    @Param({"1"})
+    private int operatorId;
+
+    private ParkingService parkingService;
+    private QRBackupPipeline qrBackupPipeline;
+    private final List<Integer> openedTicketIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        qrBackupPipeline = new QRBackupPipeline(Files.createTempDirectory("qr-bench"),
+                                                QRBackupPipeline.DEFAULT_CAPACITY, 1,
+                                                QRBackupPipeline.DEFAULT_BATCH_SIZE);
+        parkingService = new ParkingService(new VehicleDAO(), new TicketDAO(), new SubscriptionDAO(),
+                                            new RateDAO(), new PaymentDAO(), qrBackupPipeline);
+        parkingService.loadOpenTickets();
+    }
+
+    @Benchmark
+    public int loopProcessEntry() throws Exception {
+        for (String licensePlate : newPlates()) {
+            openedTicketIds.add(parkingService.processEntry(licensePlate, operatorId).getId());
+        }
+        return batchSize;
+    }
+
+    @Benchmark
+    public int processEntries() throws Exception {
+        int created = 0;
+        for (ParkingService.EntryBatchResult result : parkingService.processEntries(newPlates(), operatorId)) {
+            if (result.isCreated()) {
+                openedTicketIds.add(result.getTicket().getId());
+                created++;
+            }
+        }
+        return created;
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeOpenedTickets() throws Exception {
+        if (openedTicketIds.isEmpty()) {
+            return;
+        }
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "UPDATE tickets SET status = 'CLOSED', exit_datetime = NOW(), updated_at = NOW() " +
+                 "WHERE id = ANY(?)")) {
+            stmt.setArray(1, conn.createArrayOf("integer", openedTicketIds.toArray()));
+            stmt.executeUpdate();
+        }
+        openedTicketIds.clear();
+        parkingService.loadOpenTickets();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        qrBackupPipeline.shutdown(5_000);
+    }
+
+    /**
+     * Random car plates (3 letters + 3 digits), distinct within the batch
+     */
+    private List<String> newPlates() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> plates = new ArrayList<>(batchSize);
+        while (plates.size() < batchSize) {
+            String plate = "" + (char) ('A' + random.nextInt(26)) + (char) ('A' + random.nextInt(26))
+                         + (char) ('A' + random.nextInt(26)) + String.format("%03d", random.nextInt(1000));
+            if (!plates.contains(plate)) {
+                plates.add(plate);
+            }
+        }
+        return plates;
+    }
+}
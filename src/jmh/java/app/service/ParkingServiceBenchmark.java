@@ -0,0 +1,34 @@
+package app.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plate validation and vehicle type detection, run before every entry.
+ * Needs no database: the DAOs are never called.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParkingServiceBenchmark {
+
+    /** Car, motorcycle, lower case with spaces, invalid */
+    @Param({"ABC123", "ABC12D", " abc123 ", "AB-1234"})
+    private String licensePlate;
+
+    private ParkingService parkingService;
+
+    @Setup
+    public void setUp() {
+        parkingService = new ParkingService(null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public String detectVehicleType() {
+        return parkingService.detectVehicleType(licensePlate);
+    }
+}
@@ -0,0 +1,96 @@
+package app.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of log calls below the current level and of message formatting.
+ * Run with -prof gc: the disabled-level benchmarks should report
+ * gc.alloc.rate.norm of about 0 B/op. A primitive argument outside the
+ * Integer cache is boxed by the caller before Logger is reached (up to 16 B/op,
+ * depending on whether the JIT eliminates the box); disabledDebugGuarded shows
+ * the isDebugEnabled() guard for such call sites.
+ * enabledInfo is a complete log() call: the console is discarded, the file line goes
+ * through the async appender into logs/ of the working directory (target/ with -Pjmh).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LoggerBenchmark {
+
+    private static final Logger logger = Logger.getLogger(LoggerBenchmark.class);
+
+    private Integer ticketId;
+    private String licensePlate;
+    private Long durationMinutes;
+    private int primitiveTicketId;
+    private StringBuilder sb;
+    private Object[] args;
+    private LogFields fields;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() {
+        Logger.setLevel(Logger.Level.INFO);
+        ticketId = 123456;
+        licensePlate = "ABC123";
+        durationMinutes = 95L;
+        primitiveTicketId = 123456;
+        sb = new StringBuilder(256);
+        args = new Object[] {ticketId, licensePlate, durationMinutes};
+        fields = LogFields.ticket(ticketId).licensePlate(licensePlate).durationMinutes(durationMinutes);
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public void disabledDebugTwoArgs() {
+        logger.debug("Ticket closed: {} - {}", ticketId, licensePlate);
+    }
+
+    @Benchmark
+    public void disabledDebugThreeArgs() {
+        logger.debug("Ticket closed: {} - {} ({} min)", ticketId, licensePlate, durationMinutes);
+    }
+
+    @Benchmark
+    public void disabledDebugSupplier() {
+        logger.debug(() -> "Ticket closed: " + ticketId + " - " + licensePlate);
+    }
+
+    @Benchmark
+    public void disabledDebugGuarded() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Ticket closed: {} - {}", primitiveTicketId, licensePlate);
+        }
+    }
+
+    @Benchmark
+    public int formatThreeArgs() {
+        sb.setLength(0);
+        Logger.appendFormatted(sb, "Ticket closed: {} - {} ({} min)", args);
+        return sb.length();
+    }
+
+    @Benchmark
+    public String formatJson() {
+        return Logger.formatJson("2024-01-01 12:00:00", "main", Logger.Level.INFO, "TicketDAO",
+                                 "Ticket closed: 123456 - ABC123 (95 min)", fields, null);
+    }
+
+    @Benchmark
+    public void enabledInfo() {
+        logger.info(fields, "Ticket closed: {} - {} ({} min)", ticketId, licensePlate, durationMinutes);
+    }
+}
@@ -0,0 +1,49 @@
+package app.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * QR code of a ticket as PNG bytes (entry) and as a backup file (QRBackupPipeline).
+ * The file is overwritten on every call, so saveToFile includes one file write.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class QRCodeBenchmark {
+
+    private String content;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        content = QRCodeGenerator.formatTicketQRContent(123456, "ABC123", 1_704_110_400L);
+        directory = Files.createTempDirectory("qr-bench");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public byte[] generateBytes() throws Exception {
+        return QRCodeGenerator.generateQRCodeBytes(content);
+    }
+
+    @Benchmark
+    public String saveToFile() throws Exception {
+        return QRCodeGenerator.saveQRCodeToFile(content, 123456, directory);
+    }
+}
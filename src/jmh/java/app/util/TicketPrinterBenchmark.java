@@ -0,0 +1,68 @@
+package app.util;
+
+import app.model.Ticket;
+import app.service.ParkingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.print.PageFormat;
+import java.awt.print.Printable;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of an entry ticket and an exit receipt, as the printer would call it,
+ * into an in-memory image of the 58mm page. The entry ticket includes its QR code.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class TicketPrinterBenchmark {
+
+    private PageFormat pageFormat;
+    private BufferedImage page;
+    private Printable entryTicket;
+    private Printable exitReceipt;
+
+    @Setup
+    public void setUp() {
+        pageFormat = TicketPrinter.thermalPageFormat(new PageFormat());
+        page = new BufferedImage((int) pageFormat.getWidth(), (int) pageFormat.getHeight(), 
+                                 BufferedImage.TYPE_INT_RGB);
+        
+        Ticket ticket = new Ticket();
+        ticket.setId(123456);
+        ticket.setFolio("F-000123");
+        ticket.setLicensePlate("ABC123");
+        ticket.setVehicleType("Car");
+        ticket.setTicketType("Guest");
+        ticket.setEntryDatetime(new Timestamp(1_704_110_400_000L));
+        ticket.setQrCodeData(QRCodeGenerator.formatTicketQRContent(123456, "ABC123", 1_704_110_400L));
+        entryTicket = new TicketPrinter.EntryTicketPrintable(ticket);
+        exitReceipt = new TicketPrinter.ExitTicketPrintable(new ParkingService.ExitResult(
+            ticket, new Timestamp(1_704_110_400_000L + 95 * 60_000L), 95, 1000, false, null));
+    }
+
+    @Benchmark
+    public int renderEntryTicket() throws Exception {
+        return render(entryTicket);
+    }
+
+    @Benchmark
+    public int renderExitReceipt() throws Exception {
+        return render(exitReceipt);
+    }
+
+    private int render(Printable printable) throws Exception {
+        Graphics2D graphics = page.createGraphics();
+        try {
+            return printable.print(graphics, pageFormat, 0);
+        } finally {
+            graphics.dispose();
+        }
+    }
+}
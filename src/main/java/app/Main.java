@@ -7,11 +7,16 @@ import app.controller.SwingVehicleEntryController;
 import app.controller.SwingVehicleExitController;
 import app.dao.*;
 import app.database.DatabaseConnection;
+import app.metrics.MetricsRegistry;
 import app.model.Operator;
 import app.service.AuthService;
 import app.service.ParkingService;
+import app.util.QRBackupPipeline;
 
 import javax.swing.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main application - Parking System with dependency injection
@@ -26,6 +31,13 @@ public class Main {
     private static RateDAO rateDAO;
     private static PaymentDAO paymentDAO;
     
+    // Background workers
+    private static QRBackupPipeline qrBackupPipeline;
+    private static ScheduledExecutorService maintenanceScheduler;
+    private static final long RECONCILE_INTERVAL_SECONDS = 60;
+    private static final long SUBSCRIPTION_REFRESH_INTERVAL_SECONDS = 30;
+    private static final long RATE_REFRESH_INTERVAL_SECONDS = 60;
+    
     // Services
     private static AuthService authService;
     private static ParkingService parkingService;
@@ -51,9 +63,17 @@ public class Main {
             // Initialize dependencies
             initializeDependencies();
             
+            // Load in-memory state and schedule its background maintenance
+            startMaintenance();
+            
+            // Export latency metrics (JMX, Prometheus endpoint and file, see metrics.properties)
+            MetricsRegistry.getDefault().startExporters();
+            
             // Add shutdown hook to close connection pool gracefully
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 System.out.println("\n[INFO] Shutting down application...");
+                MetricsRegistry.getDefault().stopExporters();
+                qrBackupPipeline.shutdown(5000);
                 DatabaseConnection.closePool();
             }));
             
@@ -66,7 +86,13 @@ public class Main {
                 "Error", 
                 JOptionPane.ERROR_MESSAGE);
         } finally {
-            // Ensure pool is closed
+            // Ensure pending QR backups are written and pool is closed
+            if (maintenanceScheduler != null) {
+                maintenanceScheduler.shutdownNow();
+            }
+            if (qrBackupPipeline != null) {
+                qrBackupPipeline.shutdown(5000);
+            }
             DatabaseConnection.closePool();
             System.exit(0);
         }
@@ -84,10 +110,14 @@ public class Main {
         rateDAO = new RateDAO();
         paymentDAO = new PaymentDAO();
         
+        // Initialize background workers
+        qrBackupPipeline = new QRBackupPipeline();
+        
         // Initialize Services (inject DAOs)
         authService = new AuthService(operatorDAO);
         parkingService = new ParkingService(vehicleDAO, ticketDAO, subscriptionDAO, 
-                                           rateDAO, paymentDAO);
+                                           rateDAO, paymentDAO, qrBackupPipeline);
+        parkingService.setEntryMode(entryModeSetting());
         
         // Initialize Controllers (inject Services)
         authController = new AuthController(authService);
@@ -102,6 +132,73 @@ public class Main {
         swingMainMenuView = new app.view.swing.MainMenuView();
     }
 
+    /**
+     * Entry mode from db.entry.mode in database.properties (SINGLE_ROUND_TRIP needs
+     * fn_vehicle_entry from DDL.sql)
+     */
+    private static ParkingService.EntryMode entryModeSetting() {
+        String value = DatabaseConnection.getSetting("db.entry.mode", ParkingService.EntryMode.STANDARD.name());
+        try {
+            return ParkingService.EntryMode.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Warning: Unknown db.entry.mode '" + value + "', using STANDARD");
+            return ParkingService.EntryMode.STANDARD;
+        }
+    }
+
+    /**
+     * Load the open ticket index, subscription entitlements and rate table, and schedule their
+     * periodic refresh from the database (picks up changes made by other terminals
+     * and by subscription administration)
+     */
+    private static void startMaintenance() {
+        try {
+            parkingService.loadOpenTickets();
+        } catch (Exception e) {
+            // Not fatal: lookups fall back to the database until reconciliation succeeds
+            System.err.println("Warning: Could not load open tickets: " + e.getMessage());
+        }
+        try {
+            subscriptionDAO.refreshEntitlements();
+        } catch (Exception e) {
+            // Not fatal: subscription lookups query the database until a refresh succeeds
+            System.err.println("Warning: Could not load subscriptions: " + e.getMessage());
+        }
+        try {
+            rateDAO.refreshRates();
+        } catch (Exception e) {
+            // Not fatal: rates are queried per exit until a refresh succeeds
+            System.err.println("Warning: Could not load rates: " + e.getMessage());
+        }
+        
+        maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenanceScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                parkingService.reconcileOpenTickets();
+            } catch (Exception e) {
+                System.err.println("Warning: Open ticket reconciliation failed: " + e.getMessage());
+            }
+        }, RECONCILE_INTERVAL_SECONDS, RECONCILE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        maintenanceScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                subscriptionDAO.refreshEntitlements();
+            } catch (Exception e) {
+                System.err.println("Warning: Subscription refresh failed: " + e.getMessage());
+            }
+        }, SUBSCRIPTION_REFRESH_INTERVAL_SECONDS, SUBSCRIPTION_REFRESH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        maintenanceScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rateDAO.refreshRates();
+            } catch (Exception e) {
+                System.err.println("Warning: Rate refresh failed: " + e.getMessage());
+            }
+        }, RATE_REFRESH_INTERVAL_SECONDS, RATE_REFRESH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
     /**
      * Run application
      */
@@ -0,0 +1,135 @@
+package app.cache;
+
+import app.model.Ticket;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the tickets that are currently open, keyed by license plate
+ * and by ticket ID. Loaded from the database at startup and kept up to date by
+ * ParkingService after each committed entry and exit, so exit lookups do not need
+ * a query. Another terminal may have closed an indexed ticket since the last
+ * reconciliation, so a hit is never used to reject an entry, and an exit that finds
+ * its ticket already closed evicts it.
+ * Reads are lock-free; writes are serialized so both maps always describe the same
+ * set of tickets.
+ * Tickets are copied on the way in and out, callers never share an instance.
+ */
+public class OpenTicketIndex {
+    private final Map<String, Ticket> byPlate = new ConcurrentHashMap<>();
+    private final Map<Integer, Ticket> byId = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile long version;
+
+    /**
+     * Replace the index contents with the given open tickets (startup or reconciliation)
+     * @param openTickets Tickets currently open in the database, with vehicle data
+     */
+    public synchronized void load(Collection<Ticket> openTickets) {
+        byPlate.clear();
+        byId.clear();
+        for (Ticket ticket : openTickets) {
+            put(ticket);
+        }
+        loaded = true;
+        version++;
+    }
+
+    /**
+     * Replace the index contents only if no entry or exit was recorded since
+     * {@code expectedVersion} was read, so a snapshot taken before a local commit
+     * cannot undo it
+     * @return true if the snapshot was applied
+     */
+    public synchronized boolean load(Collection<Ticket> openTickets, long expectedVersion) {
+        if (version != expectedVersion) {
+            return false;
+        }
+        load(openTickets);
+        return true;
+    }
+
+    /**
+     * @return Counter that changes on every modification of the index
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return true once the index has been loaded from the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Find the open ticket for a license plate
+     * @return Copy of the open ticket, or null if the index does not know one
+     */
+    public Ticket findByPlate(String licensePlate) {
+        Ticket ticket = byPlate.get(normalize(licensePlate));
+        return ticket != null ? new Ticket(ticket) : null;
+    }
+
+    /**
+     * Find an open ticket by ID
+     * @return Copy of the open ticket, or null if the index does not know it
+     */
+    public Ticket findById(int ticketId) {
+        Ticket ticket = byId.get(ticketId);
+        return ticket != null ? new Ticket(ticket) : null;
+    }
+
+    /**
+     * @return true if the index knows an open ticket for the license plate
+     */
+    public boolean hasOpenTicket(String licensePlate) {
+        return byPlate.containsKey(normalize(licensePlate));
+    }
+
+    /**
+     * Record a ticket that was opened (after the entry transaction committed)
+     */
+    public synchronized void opened(Ticket ticket) {
+        put(ticket);
+        version++;
+    }
+
+    /**
+     * Remove a ticket that was closed (after the exit transaction committed),
+     * or that turned out not to be open anymore
+     */
+    public synchronized void closed(int ticketId) {
+        Ticket ticket = byId.remove(ticketId);
+        if (ticket != null) {
+            byPlate.remove(normalize(ticket.getLicensePlate()), ticket);
+        }
+        version++;
+    }
+
+    /**
+     * @return Number of open tickets in the index
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    private void put(Ticket ticket) {
+        if (ticket.getLicensePlate() == null) {
+            return;
+        }
+        Ticket copy = new Ticket(ticket);
+        Ticket previous = byPlate.put(normalize(copy.getLicensePlate()), copy);
+        if (previous != null && previous.getId() != copy.getId()) {
+            byId.remove(previous.getId());
+        }
+        byId.put(copy.getId(), copy);
+    }
+
+    private static String normalize(String licensePlate) {
+        return licensePlate.toUpperCase().trim();
+    }
+}
@@ -0,0 +1,188 @@
+package app.cache;
+
+import app.model.Rate;
+import app.model.RateWindow;
+import app.pricing.TariffSchedule;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the active rates, including future-dated ones.
+ * Rates are grouped by vehicle type and sorted by effective_from, so the rate in
+ * effect at a given time is found with a binary search and no I/O. Each rate is
+ * compiled into its TariffSchedule once, when the snapshot is built.
+ * A new snapshot (with the next version number) replaces the old one on refresh
+ * when the rates changed; an unchanged snapshot is kept, version included, so exit
+ * quotes issued against it stay valid.
+ */
+public final class RateTable {
+    private final long version;
+    private final Map<String, Rate[]> ratesByType;
+    private final Map<String, TariffSchedule[]> schedulesByType;
+    private final Map<String, long[]> effectiveFromByType;
+
+    public RateTable(long version, Collection<Rate> rates) {
+        this.version = version;
+        
+        Map<String, Rate[]> byType = new HashMap<>();
+        Map<String, TariffSchedule[]> schedules = new HashMap<>();
+        Map<String, long[]> effectiveFrom = new HashMap<>();
+        for (Map.Entry<String, List<Rate>> entry : groupByType(rates).entrySet()) {
+            List<Rate> sorted = entry.getValue();
+            long[] millis = new long[sorted.size()];
+            TariffSchedule[] compiled = new TariffSchedule[sorted.size()];
+            for (int i = 0; i < millis.length; i++) {
+                millis[i] = effectiveMillis(sorted.get(i));
+                compiled[i] = TariffSchedule.compile(sorted.get(i));
+            }
+            byType.put(entry.getKey(), sorted.toArray(new Rate[0]));
+            schedules.put(entry.getKey(), compiled);
+            effectiveFrom.put(entry.getKey(), millis);
+        }
+        this.ratesByType = Collections.unmodifiableMap(byType);
+        this.schedulesByType = Collections.unmodifiableMap(schedules);
+        this.effectiveFromByType = Collections.unmodifiableMap(effectiveFrom);
+    }
+
+    /**
+     * @return Snapshot version, increases with every refresh that changed the rates
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Find the rate in effect for a vehicle type at a point in time
+     * (the latest one whose effective_from is not after that time)
+     * @param vehicleType Type of vehicle (Car, Motorcycle)
+     * @param atMillis Time to price at (epoch millis)
+     * @return Copy of the rate, or null if none is in effect
+     */
+    public Rate findActiveRate(String vehicleType, long atMillis) {
+        int found = indexOfActive(vehicleType, atMillis);
+        return found >= 0 ? new Rate(ratesByType.get(vehicleType)[found]) : null;
+    }
+
+    /**
+     * Find the compiled schedule of the rate in effect for a vehicle type at a point in time
+     * @return Shared, immutable schedule, or null if no rate is in effect
+     */
+    public TariffSchedule findActiveSchedule(String vehicleType, long atMillis) {
+        int found = indexOfActive(vehicleType, atMillis);
+        return found >= 0 ? schedulesByType.get(vehicleType)[found] : null;
+    }
+
+    /**
+     * @return Index of the last rate of the type with effective_from <= atMillis, or -1
+     */
+    private int indexOfActive(String vehicleType, long atMillis) {
+        long[] effectiveFrom = effectiveFromByType.get(vehicleType);
+        if (effectiveFrom == null) {
+            return -1;
+        }
+        
+        int low = 0;
+        int high = effectiveFrom.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (effectiveFrom[mid] <= atMillis) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @param rates Freshly loaded active rates
+     * @return true if they are the rates of this snapshot, windows included
+     */
+    public boolean hasSameRates(Collection<Rate> rates) {
+        Map<String, List<Rate>> grouped = groupByType(rates);
+        if (!grouped.keySet().equals(ratesByType.keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, List<Rate>> entry : grouped.entrySet()) {
+            Rate[] current = ratesByType.get(entry.getKey());
+            List<Rate> loaded = entry.getValue();
+            if (current.length != loaded.size()) {
+                return false;
+            }
+            for (int i = 0; i < current.length; i++) {
+                if (!sameRate(current[i], loaded.get(i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Number of rates in the snapshot
+     */
+    public int size() {
+        int size = 0;
+        for (Rate[] rates : ratesByType.values()) {
+            size += rates.length;
+        }
+        return size;
+    }
+
+    /**
+     * Copies of the rates grouped by vehicle type, each group sorted by effective_from (then ID)
+     */
+    private static Map<String, List<Rate>> groupByType(Collection<Rate> rates) {
+        Map<String, List<Rate>> grouped = new HashMap<>();
+        for (Rate rate : rates) {
+            grouped.computeIfAbsent(rate.getVehicleType(), type -> new ArrayList<>()).add(new Rate(rate));
+        }
+        for (List<Rate> group : grouped.values()) {
+            group.sort(Comparator.comparingLong(RateTable::effectiveMillis).thenComparingInt(Rate::getId));
+        }
+        return grouped;
+    }
+
+    private static boolean sameRate(Rate a, Rate b) {
+        if (a.getId() != b.getId()
+                || Double.compare(a.getHourlyRate(), b.getHourlyRate()) != 0
+                || Double.compare(a.getFractionRate(), b.getFractionRate()) != 0
+                || !Objects.equals(a.getDailyCap(), b.getDailyCap())
+                || a.getGracePeriodMinutes() != b.getGracePeriodMinutes()
+                || effectiveMillis(a) != effectiveMillis(b)
+                || a.isActive() != b.isActive()
+                || !Objects.equals(a.getRateName(), b.getRateName())
+                || a.getWindows().size() != b.getWindows().size()) {
+            return false;
+        }
+        for (int i = 0; i < a.getWindows().size(); i++) {
+            if (!sameWindow(a.getWindows().get(i), b.getWindows().get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameWindow(RateWindow a, RateWindow b) {
+        return a.getId() == b.getId()
+            && a.getDaysOfWeek() == b.getDaysOfWeek()
+            && a.getStartMinute() == b.getStartMinute()
+            && a.getEndMinute() == b.getEndMinute()
+            && Double.compare(a.getHourlyRate(), b.getHourlyRate()) == 0
+            && Double.compare(a.getFractionRate(), b.getFractionRate()) == 0
+            && a.getPriority() == b.getPriority();
+    }
+
+    private static long effectiveMillis(Rate rate) {
+        return rate.getEffectiveFrom() != null ? rate.getEffectiveFrom().getTime() : Long.MIN_VALUE;
+    }
+}
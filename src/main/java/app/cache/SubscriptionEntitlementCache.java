@@ -0,0 +1,117 @@
+package app.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of monthly subscription entitlements keyed by vehicle ID.
+ * Holds an immutable snapshot of every active subscription that has not ended yet,
+ * each with its validity interval, so "does this vehicle have a subscription right now"
+ * is answered by comparing the entry time against the cached intervals.
+ * A subscription stops matching once its end date passes, without a reload.
+ * The snapshot is replaced as a whole when the subscription tables change.
+ */
+public class SubscriptionEntitlementCache {
+
+    /**
+     * One subscription's validity window for a vehicle
+     */
+    public static final class Entitlement {
+        private final int subscriptionId;
+        private final long startMillis;
+        private final long endMillis;
+
+        public Entitlement(int subscriptionId, long startMillis, long endMillis) {
+            this.subscriptionId = subscriptionId;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+
+        public int getSubscriptionId() {
+            return subscriptionId;
+        }
+
+        /**
+         * @return true if the subscription is valid at the given time (bounds inclusive)
+         */
+        public boolean isValidAt(long atMillis) {
+            return startMillis <= atMillis && atMillis <= endMillis;
+        }
+    }
+
+    private static final class Snapshot {
+        private final Map<Integer, List<Entitlement>> byVehicle;
+        private final String changeMarker;
+
+        Snapshot(Map<Integer, List<Entitlement>> byVehicle, String changeMarker) {
+            this.byVehicle = byVehicle;
+            this.changeMarker = changeMarker;
+        }
+    }
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Replace the cached entitlements
+     * @param entitlementsByVehicle Active, not yet ended subscriptions per vehicle ID
+     * @param changeMarker Value describing the state of the subscription tables at load time
+     */
+    public void load(Map<Integer, List<Entitlement>> entitlementsByVehicle, String changeMarker) {
+        Map<Integer, List<Entitlement>> copy = new HashMap<>();
+        for (Map.Entry<Integer, List<Entitlement>> entry : entitlementsByVehicle.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        snapshot = new Snapshot(Collections.unmodifiableMap(copy), changeMarker);
+    }
+
+    /**
+     * @return true once entitlements have been loaded
+     */
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * @return Change marker of the loaded snapshot, null if not loaded
+     */
+    public String getChangeMarker() {
+        Snapshot current = snapshot;
+        return current != null ? current.changeMarker : null;
+    }
+
+    /**
+     * Find the subscription that covers a vehicle at a point in time
+     * @param vehicleId Vehicle ID
+     * @param atMillis Time to check (epoch millis)
+     * @return Subscription ID, or null if no cached subscription is valid at that time
+     * @throws IllegalStateException if the cache has not been loaded
+     */
+    public Integer findActiveSubscription(int vehicleId, long atMillis) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Subscription entitlements not loaded");
+        }
+
+        List<Entitlement> entitlements = current.byVehicle.get(vehicleId);
+        if (entitlements == null) {
+            return null;
+        }
+        for (Entitlement entitlement : entitlements) {
+            if (entitlement.isValidAt(atMillis)) {
+                return entitlement.getSubscriptionId();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Number of vehicles with at least one cached entitlement
+     */
+    public int size() {
+        Snapshot current = snapshot;
+        return current != null ? current.byVehicle.size() : 0;
+    }
+}
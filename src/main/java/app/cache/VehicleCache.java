@@ -0,0 +1,128 @@
+package app.cache;
+
+import app.model.Vehicle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded license plate -> Vehicle cache with LRU eviction.
+ * A plate's vehicle ID and type never change once the row exists, so positive
+ * entries do not expire. Plates that were looked up and not found are remembered
+ * for a short TTL (negative cache) and forgotten as soon as the vehicle is created.
+ */
+public class VehicleCache {
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final long DEFAULT_NEGATIVE_TTL_MILLIS = 30_000;
+
+    private final Map<String, Vehicle> entries;
+    private final Map<String, Long> missingUntil = new ConcurrentHashMap<>();
+    private final long negativeTtlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VehicleCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_NEGATIVE_TTL_MILLIS);
+    }
+
+    public VehicleCache(int maxEntries, long negativeTtlMillis) {
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Vehicle> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Look up a cached vehicle
+     * @return Copy of the cached vehicle, or null if not cached
+     */
+    public Vehicle get(String licensePlate) {
+        Vehicle vehicle;
+        synchronized (entries) {
+            vehicle = entries.get(licensePlate);
+        }
+        if (vehicle == null) {
+            return null;
+        }
+        hits.increment();
+        return copy(vehicle);
+    }
+
+    /**
+     * @return true if the plate was recently looked up and did not exist
+     */
+    public boolean isKnownMissing(String licensePlate) {
+        Long expiresAt = missingUntil.get(licensePlate);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiresAt >= 0) {
+            missingUntil.remove(licensePlate, expiresAt);
+            return false;
+        }
+        negativeHits.increment();
+        return true;
+    }
+
+    /**
+     * Record a lookup that had to go to the database
+     */
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Cache a vehicle read from the database
+     */
+    public void put(Vehicle vehicle) {
+        missingUntil.remove(vehicle.getLicensePlate());
+        synchronized (entries) {
+            entries.put(vehicle.getLicensePlate(), copy(vehicle));
+        }
+    }
+
+    /**
+     * Remember that a plate does not exist (for the negative TTL)
+     */
+    public void putMissing(String licensePlate) {
+        missingUntil.put(licensePlate, System.nanoTime() + negativeTtlNanos);
+    }
+
+    /**
+     * Forget the negative entry for a plate (the vehicle was just created)
+     */
+    public void invalidateMissing(String licensePlate) {
+        missingUntil.remove(licensePlate);
+    }
+
+    // Metrics
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getNegativeHitCount() {
+        return negativeHits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static Vehicle copy(Vehicle vehicle) {
+        return new Vehicle(vehicle.getId(), vehicle.getLicensePlate(), vehicle.getVehicleType());
+    }
+}
@@ -6,6 +6,9 @@ import app.exception.NotFoundException;
 import app.model.Ticket;
 import app.service.ParkingService;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Parking controller
  */
@@ -51,6 +54,40 @@ public class ParkingController {
         }
     }
 
+    /**
+     * Process a burst of vehicle entries - returns one EntryResult per plate, in order
+     */
+    public List<EntryResult> processEntries(List<String> licensePlates, int operatorId) {
+        List<EntryResult> results = new ArrayList<>();
+        if (operatorId <= 0) {
+            for (int i = 0; i < licensePlates.size(); i++) {
+                results.add(EntryResult.validationError("Invalid operator ID"));
+            }
+            return results;
+        }
+        
+        try {
+            for (ParkingService.EntryBatchResult result : parkingService.processEntries(licensePlates, operatorId)) {
+                switch (result.getStatus()) {
+                    case CREATED:
+                        results.add(EntryResult.success(result.getTicket()));
+                        break;
+                    case INVALID_PLATE:
+                        results.add(EntryResult.validationError(result.getMessage()));
+                        break;
+                    default:
+                        results.add(EntryResult.businessError(result.getMessage()));
+                }
+            }
+        } catch (Exception e) {
+            results.clear();
+            for (int i = 0; i < licensePlates.size(); i++) {
+                results.add(EntryResult.dataAccessError("Error processing vehicle entries: " + e.getMessage()));
+            }
+        }
+        return results;
+    }
+
     /**
      * Process vehicle exit - returns ExitResult instead of throwing exceptions
      * Controller handles all exceptions and converts them to result objects
@@ -140,6 +177,14 @@ public class ParkingController {
      * Process vehicle exit by ticket ID with payment method
      */
     public ExitResult processExitWithPayment(int ticketId, int operatorId, String paymentMethod) {
+        return processExitWithPayment(ticketId, operatorId, paymentMethod, null);
+    }
+
+    /**
+     * Process vehicle exit with custom payment method, reusing a previewed price
+     * @param quoteToken Quote token from the preview result, may be null
+     */
+    public ExitResult processExitWithPayment(int ticketId, int operatorId, String paymentMethod, String quoteToken) {
         try {
             // Validate ticket ID
             if (ticketId <= 0) {
@@ -157,7 +202,9 @@ public class ParkingController {
             }
             
             // Call service
-            ParkingService.ExitResult result = parkingService.processExitWithPayment(ticketId, operatorId, paymentMethod);
+            ParkingService.ExitResult result = quoteToken != null
+                ? parkingService.processExitWithPayment(ticketId, operatorId, paymentMethod, quoteToken)
+                : parkingService.processExitWithPayment(ticketId, operatorId, paymentMethod);
             return ExitResult.success(result);
             
         } catch (NotFoundException e) {
@@ -171,6 +218,41 @@ public class ParkingController {
         }
     }
 
+    /**
+     * Settle many exits at once - returns one ExitResult per ticket ID, in order
+     */
+    public List<ExitResult> processExits(List<Integer> ticketIds, int operatorId, String paymentMethod) {
+        List<ExitResult> results = new ArrayList<>();
+        if (operatorId <= 0 || paymentMethod == null || paymentMethod.trim().isEmpty()) {
+            String message = operatorId <= 0 ? "Invalid operator ID" : "Payment method cannot be empty";
+            for (int i = 0; i < ticketIds.size(); i++) {
+                results.add(ExitResult.validationError(message));
+            }
+            return results;
+        }
+        
+        try {
+            for (ParkingService.ExitBatchResult result : parkingService.processExits(ticketIds, operatorId, paymentMethod)) {
+                switch (result.getStatus()) {
+                    case CLOSED:
+                        results.add(ExitResult.success(result.getExitResult()));
+                        break;
+                    case NOT_FOUND:
+                        results.add(ExitResult.notFoundError(result.getMessage()));
+                        break;
+                    default:
+                        results.add(ExitResult.businessError(result.getMessage()));
+                }
+            }
+        } catch (Exception e) {
+            results.clear();
+            for (int i = 0; i < ticketIds.size(); i++) {
+                results.add(ExitResult.dataAccessError("Error processing vehicle exits: " + e.getMessage()));
+            }
+        }
+        return results;
+    }
+
     /**
      * Preview exit by plate (find ticket and calculate amount, but don't process yet)
      */
@@ -37,9 +37,19 @@ public class SwingVehicleExitController {
      * Process vehicle exit with custom payment method
      */
     public ExitResult processExitWithPayment(int ticketId, String paymentMethod) {
+        return processExitWithPayment(ticketId, paymentMethod, null);
+    }
+
+    /**
+     * Process vehicle exit with custom payment method, charging the previewed price
+     * while its quote token is valid
+     */
+    public ExitResult processExitWithPayment(int ticketId, String paymentMethod, String quoteToken) {
         logger.info("Processing vehicle exit: Ticket {} with {} (Operator ID: {})", 
                    ticketId, paymentMethod, operatorId);
-        ExitResult result = parkingController.processExitWithPayment(ticketId, operatorId, paymentMethod);
+        ExitResult result = quoteToken != null
+            ? parkingController.processExitWithPayment(ticketId, operatorId, paymentMethod, quoteToken)
+            : parkingController.processExitWithPayment(ticketId, operatorId, paymentMethod);
         
         if (result.isSuccess()) {
             logger.info("Exit successful - Amount: ${}, Method: {}", 
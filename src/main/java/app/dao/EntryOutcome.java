@@ -0,0 +1,64 @@
+package app.dao;
+
+import app.model.Ticket;
+
+/**
+ * Result of a single-round-trip vehicle entry (see ITicketDAO.createEntry)
+ */
+public class EntryOutcome {
+
+    /**
+     * Outcome of the entry statement
+     */
+    public enum Status {
+        CREATED,                // Ticket created
+        DUPLICATE_OPEN_TICKET   // Vehicle already has an open ticket, nothing was inserted
+    }
+
+    private final Status status;
+    private final Ticket ticket;
+    private final int openTicketId;
+
+    private EntryOutcome(Status status, Ticket ticket, int openTicketId) {
+        this.status = status;
+        this.ticket = ticket;
+        this.openTicketId = openTicketId;
+    }
+
+    /**
+     * Create an outcome for a newly created ticket
+     */
+    public static EntryOutcome created(Ticket ticket) {
+        return new EntryOutcome(Status.CREATED, ticket, ticket.getId());
+    }
+
+    /**
+     * Create an outcome for a vehicle that already has an open ticket
+     */
+    public static EntryOutcome duplicateOpenTicket(int openTicketId) {
+        return new EntryOutcome(Status.DUPLICATE_OPEN_TICKET, null, openTicketId);
+    }
+
+    // Getters
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isCreated() {
+        return status == Status.CREATED;
+    }
+
+    /**
+     * @return Created ticket, null for a duplicate
+     */
+    public Ticket getTicket() {
+        return ticket;
+    }
+
+    /**
+     * @return ID of the created ticket, or of the ticket that was already open
+     */
+    public int getOpenTicketId() {
+        return openTicketId;
+    }
+}
@@ -0,0 +1,60 @@
+package app.dao;
+
+import app.model.Ticket;
+
+/**
+ * Result of closing a ticket in one conditional update (see ITicketDAO.closeTicket)
+ */
+public class ExitOutcome {
+
+    /**
+     * Outcome of the close statement
+     */
+    public enum Status {
+        CLOSED,          // Ticket was open and is now closed
+        NOT_FOUND,       // No ticket with that ID
+        ALREADY_CLOSED   // Ticket exists but was not open, nothing was updated
+    }
+
+    private static final ExitOutcome NOT_FOUND = new ExitOutcome(Status.NOT_FOUND, null);
+    private static final ExitOutcome ALREADY_CLOSED = new ExitOutcome(Status.ALREADY_CLOSED, null);
+
+    private final Status status;
+    private final Ticket ticket;
+
+    private ExitOutcome(Status status, Ticket ticket) {
+        this.status = status;
+        this.ticket = ticket;
+    }
+
+    /**
+     * Create an outcome for a ticket that was closed
+     */
+    public static ExitOutcome closed(Ticket ticket) {
+        return new ExitOutcome(Status.CLOSED, ticket);
+    }
+
+    public static ExitOutcome notFound() {
+        return NOT_FOUND;
+    }
+
+    public static ExitOutcome alreadyClosed() {
+        return ALREADY_CLOSED;
+    }
+
+    // Getters
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isClosed() {
+        return status == Status.CLOSED;
+    }
+
+    /**
+     * @return Closed ticket with vehicle data, exit time and duration; null unless closed
+     */
+    public Ticket getTicket() {
+        return ticket;
+    }
+}
@@ -0,0 +1,81 @@
+package app.dao;
+
+import app.exception.DataAccessException;
+import app.util.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Allocates ticket folios from the ticket_folio_seq database sequence.
+ * The sequence is incremented in blocks (INCREMENT BY the block size), so a
+ * single nextval reserves a whole range of folios for this JVM and the next
+ * block is only requested once the current one is used up. Folio generation
+ * therefore costs no table scan and two terminals can never draw the same folio.
+ */
+public class FolioAllocator {
+    private static final Logger logger = Logger.getLogger(FolioAllocator.class);
+
+    /** Must match the INCREMENT BY of ticket_folio_seq (see DDL.sql) */
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+    public static final String FOLIO_PREFIX = "TKT";
+
+    private final String sequenceName;
+    private final int blockSize;
+
+    // Current block: next folio to hand out and the first number past the block
+    private long nextValue;
+    private long blockLimit;
+
+    public FolioAllocator() {
+        this("ticket_folio_seq", DEFAULT_BLOCK_SIZE);
+    }
+
+    public FolioAllocator(String sequenceName, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be greater than 0");
+        }
+        this.sequenceName = sequenceName;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Get the next folio, reserving a new block from the sequence when needed
+     * @param conn Database connection (only used when a new block is reserved)
+     * @return Folio in TKT%06d format
+     * @throws DataAccessException if the sequence cannot be read
+     */
+    public synchronized String nextFolio(Connection conn) throws DataAccessException {
+        if (nextValue >= blockLimit) {
+            long blockStart = reserveBlock(conn);
+            nextValue = blockStart;
+            blockLimit = blockStart + blockSize;
+            logger.debug("Reserved folio block {} - {}", blockStart, blockLimit - 1);
+        }
+        return formatFolio(nextValue++);
+    }
+
+    /**
+     * Format a folio number using the ticket folio convention
+     */
+    public static String formatFolio(long number) {
+        return String.format(FOLIO_PREFIX + "%06d", number);
+    }
+
+    private long reserveBlock(Connection conn) throws DataAccessException {
+        String sql = "SELECT nextval('" + sequenceName + "')";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+            throw new DataAccessException("Folio sequence returned no value");
+        } catch (SQLException e) {
+            logger.error("Error reserving folio block from {}: {}", sequenceName, e.getMessage());
+            throw new DataAccessException("Error generating folio", e);
+        }
+    }
+}
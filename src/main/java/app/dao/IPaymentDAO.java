@@ -4,6 +4,7 @@ import app.exception.DataAccessException;
 import app.model.Payment;
 
 import java.sql.Connection;
+import java.util.Map;
 
 /**
  * Interface for Payment Data Access Object
@@ -15,12 +16,23 @@ public interface IPaymentDAO {
      * @param conn Database connection (transaction managed externally)
      * @param ticketId ID of the ticket
      * @param operatorId ID of the operator processing the payment
-     * @param amount Amount paid
+     * @param amountCents Amount paid in cents
      * @param paymentMethod Payment method (e.g., "Cash")
      * @return The created Payment with generated ID
      * @throws DataAccessException if database error occurs
      */
-    Payment create(Connection conn, int ticketId, int operatorId, double amount, String paymentMethod) 
+    Payment create(Connection conn, int ticketId, int operatorId, long amountCents, String paymentMethod) 
+            throws DataAccessException;
+    
+    /**
+     * Create payment records for many tickets in one JDBC batch
+     * @param conn Database connection (transaction managed externally)
+     * @param operatorId ID of the operator processing the payments
+     * @param amountCentsByTicketId Amount paid in cents per ticket ID
+     * @param paymentMethod Payment method (e.g., "Cash")
+     * @throws DataAccessException if database error occurs
+     */
+    void createAll(Connection conn, int operatorId, Map<Integer, Long> amountCentsByTicketId, String paymentMethod) 
             throws DataAccessException;
     
     /**
@@ -2,8 +2,10 @@ package app.dao;
 
 import app.exception.DataAccessException;
 import app.model.Rate;
+import app.pricing.TariffSchedule;
 
 import java.sql.Connection;
+import java.util.List;
 
 /**
  * Interface for Rate Data Access Object
@@ -18,4 +20,21 @@ public interface IRateDAO {
      * @throws DataAccessException if database error occurs
      */
     Rate findActiveRateByVehicleType(String vehicleType, Connection conn) throws DataAccessException;
+    
+    /**
+     * Find the compiled schedule of the active rate for a vehicle type
+     * @param vehicleType Type of vehicle (Car, Motorcycle)
+     * @param conn Database connection
+     * @return Schedule of the active rate if found, null otherwise
+     * @throws DataAccessException if database error occurs
+     */
+    TariffSchedule findActiveSchedule(String vehicleType, Connection conn) throws DataAccessException;
+    
+    /**
+     * Find all active rates, including future-dated ones, with their active windows
+     * @param conn Database connection
+     * @return Active rates of every vehicle type
+     * @throws DataAccessException if database error occurs
+     */
+    List<Rate> findAllActiveRates(Connection conn) throws DataAccessException;
 }
@@ -1,8 +1,11 @@
 package app.dao;
 
+import app.cache.SubscriptionEntitlementCache.Entitlement;
 import app.exception.DataAccessException;
 
 import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Interface for Subscription Data Access Object
@@ -17,4 +20,20 @@ public interface ISubscriptionDAO {
      * @throws DataAccessException if database error occurs
      */
     Integer findActiveSubscriptionByVehicleId(Connection conn, int vehicleId) throws DataAccessException;
+    
+    /**
+     * Read a cheap value that changes whenever subscription or subscription vehicle rows change
+     * @param conn Database connection
+     * @return Change marker
+     * @throws DataAccessException if database error occurs
+     */
+    String findChangeMarker(Connection conn) throws DataAccessException;
+    
+    /**
+     * Load the validity windows of all active subscriptions that have not ended yet
+     * @param conn Database connection
+     * @return Entitlements keyed by vehicle ID
+     * @throws DataAccessException if database error occurs
+     */
+    Map<Integer, List<Entitlement>> findCurrentEntitlements(Connection conn) throws DataAccessException;
 }
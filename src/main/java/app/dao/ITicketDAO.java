@@ -5,6 +5,10 @@ import app.model.Ticket;
 
 import java.sql.Connection;
 import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Interface for Ticket Data Access Object
@@ -21,13 +25,27 @@ public interface ITicketDAO {
     boolean hasOpenTicket(Connection conn, int vehicleId) throws DataAccessException;
     
     /**
-     * Generate next folio number
-     * @param conn Database connection
+     * Generate next folio number from the folio sequence
+     * @param conn Database connection (used only when a new folio block is reserved)
      * @return Next folio number
      * @throws DataAccessException if database error occurs
      */
     String generateNextFolio(Connection conn) throws DataAccessException;
     
+    /**
+     * Reserve a ticket ID before the ticket is inserted
+     * @param conn Database connection (used only when a new batch of IDs is reserved)
+     * @return Ticket ID to pass to create or createEntry
+     * @throws DataAccessException if database error occurs
+     */
+    int reserveTicketId(Connection conn) throws DataAccessException;
+    
+    /**
+     * Give back a reserved ticket ID that was not inserted
+     * @param ticketId Ticket ID obtained from reserveTicketId
+     */
+    void releaseTicketId(int ticketId);
+    
     /**
      * Create a new ticket
      * @param conn Database connection
@@ -43,6 +61,38 @@ public interface ITicketDAO {
     Ticket create(Connection conn, String folio, int vehicleId, int operatorId,
                   Integer subscriptionId, String ticketType, String qrCodeData) throws DataAccessException;
     
+    /**
+     * Create a new ticket with a previously reserved ID
+     * @param conn Database connection
+     * @param ticketId Ticket ID obtained from reserveTicketId
+     * @param folio Ticket folio
+     * @param vehicleId Vehicle ID
+     * @param operatorId Operator ID
+     * @param subscriptionId Subscription ID (null for regular tickets)
+     * @param ticketType Ticket type (Regular, Monthly)
+     * @param qrCodeData Final QR code data
+     * @return Created ticket
+     * @throws DataAccessException if database error occurs
+     */
+    Ticket create(Connection conn, int ticketId, String folio, int vehicleId, int operatorId,
+                  Integer subscriptionId, String ticketType, String qrCodeData) throws DataAccessException;
+    
+    /**
+     * Register a vehicle entry in a single round trip (fn_vehicle_entry): vehicle upsert,
+     * open ticket check, subscription resolution and ticket insert
+     * @param conn Database connection
+     * @param ticketId Ticket ID obtained from reserveTicketId
+     * @param licensePlate Vehicle license plate
+     * @param vehicleType Type of vehicle (Car, Motorcycle)
+     * @param operatorId Operator ID
+     * @param folio Ticket folio
+     * @param qrCodeData Final QR code data
+     * @return Outcome with the created ticket, or the open ticket ID for a duplicate entry
+     * @throws DataAccessException if database error occurs
+     */
+    EntryOutcome createEntry(Connection conn, int ticketId, String licensePlate, String vehicleType,
+                             int operatorId, String folio, String qrCodeData) throws DataAccessException;
+    
     /**
      * Find ticket by ID with vehicle information
      * @param ticketId Ticket ID
@@ -60,6 +110,34 @@ public interface ITicketDAO {
      */
     Ticket findOpenTicketByPlate(Connection conn, String licensePlate) throws DataAccessException;
     
+    /**
+     * Find which of the given vehicles have an open ticket, in one query
+     * @param conn Database connection
+     * @param vehicleIds Vehicle IDs to check
+     * @return IDs of the vehicles that have an open ticket
+     * @throws DataAccessException if database error occurs
+     */
+    Set<Integer> findVehiclesWithOpenTickets(Connection conn, Collection<Integer> vehicleIds) 
+            throws DataAccessException;
+    
+    /**
+     * Insert many tickets with reserved IDs in one JDBC batch
+     * @param conn Database connection (transaction managed externally)
+     * @param tickets Tickets to insert (ID, folio, vehicle, operator, subscription, type and QR set);
+     *                entry time and status are filled in
+     * @return The same tickets
+     * @throws DataAccessException if database error occurs
+     */
+    List<Ticket> createAll(Connection conn, List<Ticket> tickets) throws DataAccessException;
+    
+    /**
+     * Find all open tickets with vehicle information
+     * @param conn Database connection
+     * @return Open tickets
+     * @throws DataAccessException if database error occurs
+     */
+    List<Ticket> findOpenTickets(Connection conn) throws DataAccessException;
+    
     /**
      * Update ticket QR code
      * @param conn Database connection
@@ -69,6 +147,29 @@ public interface ITicketDAO {
      */
     void updateQRCode(Connection conn, int ticketId, String qrCodeData) throws DataAccessException;
     
+    /**
+     * Close an open ticket and return it with its vehicle data in one statement.
+     * The update only applies while the ticket is OPEN, so two operators can never
+     * both close the same ticket.
+     * @param conn Database connection (transaction managed externally)
+     * @param ticketId Ticket ID
+     * @param exitTime Exit timestamp (the duration is computed from it)
+     * @return Closed ticket, or NOT_FOUND / ALREADY_CLOSED with nothing updated
+     * @throws DataAccessException if database error occurs
+     */
+    ExitOutcome closeTicket(Connection conn, int ticketId, Timestamp exitTime) throws DataAccessException;
+    
+    /**
+     * Close many tickets with one set-based UPDATE, only those that are still open
+     * @param conn Database connection (transaction managed externally)
+     * @param ticketIds IDs of the tickets to close
+     * @param exitTime Exit timestamp
+     * @return Outcome for every requested ticket ID
+     * @throws DataAccessException if database error occurs
+     */
+    Map<Integer, ExitOutcome> closeTickets(Connection conn, Collection<Integer> ticketIds, Timestamp exitTime) 
+            throws DataAccessException;
+    
     /**
      * Update ticket exit information
      * @param conn Database connection
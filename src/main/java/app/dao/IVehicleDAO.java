@@ -4,6 +4,7 @@ import app.exception.DataAccessException;
 import app.model.Vehicle;
 
 import java.sql.Connection;
+import java.util.Map;
 
 /**
  * Interface for Vehicle Data Access Object
@@ -19,7 +20,16 @@ public interface IVehicleDAO {
     Vehicle findByLicensePlate(String licensePlate) throws DataAccessException;
     
     /**
-     * Create a new vehicle
+     * Find vehicle by license plate using an existing connection
+     * @param conn Database connection (only used on a cache miss)
+     * @param licensePlate Vehicle license plate
+     * @return Vehicle if found, null otherwise
+     * @throws DataAccessException if database error occurs
+     */
+    Vehicle findByLicensePlate(Connection conn, String licensePlate) throws DataAccessException;
+    
+    /**
+     * Create a new vehicle (returns the existing vehicle if the plate was registered concurrently)
      * @param conn Database connection
      * @param licensePlate Vehicle license plate
      * @param vehicleType Type of vehicle (Car, Motorcycle)
@@ -37,4 +47,15 @@ public interface IVehicleDAO {
      * @throws DataAccessException if database error occurs
      */
     Vehicle findOrCreate(Connection conn, String licensePlate, String vehicleType) throws DataAccessException;
+    
+    /**
+     * Find or create many vehicles at once: missing vehicles are inserted in one JDBC batch
+     * and all of them are read back with one query
+     * @param conn Database connection
+     * @param vehicleTypesByPlate Vehicle type for each license plate
+     * @return Vehicle for each license plate
+     * @throws DataAccessException if database error occurs
+     */
+    Map<String, Vehicle> findOrCreateAll(Connection conn, Map<String, String> vehicleTypesByPlate) 
+            throws DataAccessException;
 }
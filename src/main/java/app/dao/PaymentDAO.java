@@ -6,6 +6,7 @@ import app.model.Payment;
 
 import java.math.BigDecimal;
 import java.sql.*;
+import java.util.Map;
 
 /**
  * Implementation of IPaymentDAO
@@ -13,21 +14,24 @@ import java.sql.*;
 public class PaymentDAO implements IPaymentDAO {
 
     @Override
-    public Payment create(Connection conn, int ticketId, int operatorId, double amount, String paymentMethod) 
+    public Payment create(Connection conn, int ticketId, int operatorId, long amountCents, String paymentMethod) 
             throws DataAccessException {
         String sql = "INSERT INTO payments (ticket_id, operator_id, amount, payment_method, " +
                      "payment_datetime, created_at) VALUES (?, ?, ?, ?, NOW(), NOW()) RETURNING id, payment_datetime, created_at";
         
+        // numeric(10,2) column: bind the exact decimal, never a double
+        BigDecimal amount = BigDecimal.valueOf(amountCents, 2);
+        
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, ticketId);
             stmt.setInt(2, operatorId);
-            stmt.setDouble(3, amount);
+            stmt.setBigDecimal(3, amount);
             stmt.setString(4, paymentMethod);
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Payment payment = new Payment(ticketId, BigDecimal.valueOf(amount), rs.getTimestamp("payment_datetime"), paymentMethod);
+                    Payment payment = new Payment(ticketId, amount, rs.getTimestamp("payment_datetime"), paymentMethod);
                     payment.setId(rs.getInt("id"));
                     payment.setCreatedAt(rs.getTimestamp("created_at"));
                     return payment;
@@ -41,6 +45,27 @@ public class PaymentDAO implements IPaymentDAO {
         throw new DataAccessException("Failed to create payment record", null);
     }
 
+    @Override
+    public void createAll(Connection conn, int operatorId, Map<Integer, Long> amountCentsByTicketId, 
+                          String paymentMethod) throws DataAccessException {
+        String sql = "INSERT INTO payments (ticket_id, operator_id, amount, payment_method, " +
+                     "payment_datetime, created_at) VALUES (?, ?, ?, ?, NOW(), NOW())";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Long> entry : amountCentsByTicketId.entrySet()) {
+                stmt.setInt(1, entry.getKey());
+                stmt.setInt(2, operatorId);
+                stmt.setBigDecimal(3, BigDecimal.valueOf(entry.getValue(), 2));
+                stmt.setString(4, paymentMethod);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error creating payment records", e);
+        }
+    }
+
     @Override
     public Payment findByTicketId(int ticketId) throws DataAccessException {
         String sql = "SELECT * FROM payments WHERE ticket_id = ?";
@@ -1,26 +1,55 @@
 package app.dao;
 
+import app.cache.RateTable;
+import app.database.DatabaseConnection;
 import app.exception.DataAccessException;
 import app.model.Rate;
+import app.model.RateWindow;
+import app.pricing.TariffSchedule;
 import app.util.Logger;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Implementation of IRateDAO
+ * Once loaded, rates are resolved from an in-memory RateTable snapshot
  */
 public class RateDAO implements IRateDAO {
     private static final Logger logger = Logger.getLogger(RateDAO.class);
 
+    /**
+     * Active windows of the rate, aggregated into one column so a rate and its
+     * windows come back in the same row: "id:days:start:end:hourly:fraction:priority;..."
+     */
+    private static final String WINDOWS_COLUMN =
+        "(SELECT string_agg(concat_ws(':', w.id, w.days_of_week, w.start_minute, w.end_minute, " +
+        "w.hourly_rate, w.fraction_rate, w.priority), ';' ORDER BY w.id) " +
+        "FROM rate_windows w WHERE w.rate_id = rates.id AND w.is_active = true) AS windows";
+
+    private final AtomicReference<RateTable> rateTable = new AtomicReference<>();
+
     @Override
     public Rate findActiveRateByVehicleType(String vehicleType, Connection conn) throws DataAccessException {
+        RateTable table = rateTable.get();
+        if (table != null) {
+            Rate rate = table.findActiveRate(vehicleType, System.currentTimeMillis());
+            if (rate == null) {
+                logger.warn("No active rate found for vehicle type: {}", vehicleType);
+            }
+            return rate;
+        }
+        
         logger.debug("Finding active rate for vehicle type: {}", vehicleType);
         String sql = "SELECT id, rate_name, hourly_rate, fraction_rate, daily_cap, " +
-                     "grace_period_minutes, effective_from, is_active, vehicle_type " +
+                     "grace_period_minutes, effective_from, is_active, vehicle_type, " + WINDOWS_COLUMN + " " +
                      "FROM rates WHERE is_active = true AND vehicle_type = ? " +
+                     "AND effective_from <= NOW() " +
                      "ORDER BY effective_from DESC LIMIT 1";
         
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -28,22 +57,10 @@ public class RateDAO implements IRateDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                Rate rate = new Rate();
-                rate.setId(rs.getInt("id"));
-                rate.setRateName(rs.getString("rate_name"));
-                rate.setHourlyRate(rs.getDouble("hourly_rate"));
-                rate.setFractionRate(rs.getDouble("fraction_rate"));
-                
-                Double dailyCap = rs.getObject("daily_cap") != null ? 
-                                 rs.getDouble("daily_cap") : null;
-                rate.setDailyCap(dailyCap);
-                
-                rate.setGracePeriodMinutes(rs.getInt("grace_period_minutes"));
-                rate.setEffectiveFrom(rs.getTimestamp("effective_from"));
-                rate.setActive(rs.getBoolean("is_active"));
-                rate.setVehicleType(rs.getString("vehicle_type"));
-                logger.info("Active rate found for {}: {} - ${}/hr (Grace: {} min)", 
-                           vehicleType, rate.getRateName(), rate.getHourlyRate(), rate.getGracePeriodMinutes());
+                Rate rate = mapRate(rs);
+                logger.debug(() -> "Active rate found for " + vehicleType + ": " + rate.getRateName() 
+                                   + " - $" + rate.getHourlyRate() + "/hr (Grace: " 
+                                   + rate.getGracePeriodMinutes() + " min)");
                 return rate;
             }
             
@@ -55,4 +72,118 @@ public class RateDAO implements IRateDAO {
             throw new DataAccessException("Error accessing rate data for vehicle type: " + vehicleType, e);
         }
     }
+
+    @Override
+    public TariffSchedule findActiveSchedule(String vehicleType, Connection conn) throws DataAccessException {
+        RateTable table = rateTable.get();
+        if (table != null) {
+            TariffSchedule schedule = table.findActiveSchedule(vehicleType, System.currentTimeMillis());
+            if (schedule == null) {
+                logger.warn("No active rate found for vehicle type: {}", vehicleType);
+            }
+            return schedule;
+        }
+        
+        // Rates not loaded yet: compile the rate read from the database
+        Rate rate = findActiveRateByVehicleType(vehicleType, conn);
+        return rate != null ? TariffSchedule.compile(rate) : null;
+    }
+
+    @Override
+    public List<Rate> findAllActiveRates(Connection conn) throws DataAccessException {
+        String sql = "SELECT id, rate_name, hourly_rate, fraction_rate, daily_cap, " +
+                     "grace_period_minutes, effective_from, is_active, vehicle_type, " + WINDOWS_COLUMN + " " +
+                     "FROM rates WHERE is_active = true";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            List<Rate> rates = new ArrayList<>();
+            while (rs.next()) {
+                rates.add(mapRate(rs));
+            }
+            return rates;
+        } catch (SQLException e) {
+            logger.error("Error loading rates: {}", e.getMessage());
+            throw new DataAccessException("Error loading rates", e);
+        }
+    }
+
+    /**
+     * Load all active rates and atomically replace the rate table if they changed
+     * (an unchanged table keeps its version, so pending exit quotes stay valid)
+     * @param conn Database connection
+     * @return The current rate table
+     * @throws DataAccessException if database error occurs
+     */
+    public RateTable loadRates(Connection conn) throws DataAccessException {
+        List<Rate> rates = findAllActiveRates(conn);
+        RateTable previous = rateTable.get();
+        if (previous != null && previous.hasSameRates(rates)) {
+            logger.debug("Rate table v{} unchanged", previous.getVersion());
+            return previous;
+        }
+        RateTable table = new RateTable(previous != null ? previous.getVersion() + 1 : 1, rates);
+        rateTable.set(table);
+        logger.debug("Rate table v{} loaded: {} rates", table.getVersion(), table.size());
+        return table;
+    }
+
+    /**
+     * Reload the rate table using a connection from the pool
+     * @throws DataAccessException if database error occurs
+     */
+    public void refreshRates() throws DataAccessException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            loadRates(conn);
+        } catch (SQLException e) {
+            throw new DataAccessException("Database connection error", e);
+        }
+    }
+
+    /**
+     * @return Current rate table, or null if rates have not been loaded
+     */
+    public RateTable getRateTable() {
+        return rateTable.get();
+    }
+
+    private static Rate mapRate(ResultSet rs) throws SQLException {
+        Rate rate = new Rate();
+        rate.setId(rs.getInt("id"));
+        rate.setRateName(rs.getString("rate_name"));
+        rate.setHourlyRate(rs.getDouble("hourly_rate"));
+        rate.setFractionRate(rs.getDouble("fraction_rate"));
+        
+        Double dailyCap = rs.getObject("daily_cap") != null ? 
+                         rs.getDouble("daily_cap") : null;
+        rate.setDailyCap(dailyCap);
+        
+        rate.setGracePeriodMinutes(rs.getInt("grace_period_minutes"));
+        rate.setEffectiveFrom(rs.getTimestamp("effective_from"));
+        rate.setActive(rs.getBoolean("is_active"));
+        rate.setVehicleType(rs.getString("vehicle_type"));
+        rate.setWindows(parseWindows(rate.getId(), rs.getString("windows")));
+        return rate;
+    }
+
+    private static List<RateWindow> parseWindows(int rateId, String aggregated) {
+        List<RateWindow> windows = new ArrayList<>();
+        if (aggregated == null || aggregated.isEmpty()) {
+            return windows;
+        }
+        for (String entry : aggregated.split(";")) {
+            String[] fields = entry.split(":");
+            RateWindow window = new RateWindow();
+            window.setId(Integer.parseInt(fields[0]));
+            window.setRateId(rateId);
+            window.setDaysOfWeek(Integer.parseInt(fields[1]));
+            window.setStartMinute(Integer.parseInt(fields[2]));
+            window.setEndMinute(Integer.parseInt(fields[3]));
+            window.setHourlyRate(Double.parseDouble(fields[4]));
+            window.setFractionRate(Double.parseDouble(fields[5]));
+            window.setPriority(Integer.parseInt(fields[6]));
+            windows.add(window);
+        }
+        return windows;
+    }
 }
@@ -1,20 +1,44 @@
 package app.dao;
 
+import app.cache.SubscriptionEntitlementCache;
+import app.cache.SubscriptionEntitlementCache.Entitlement;
+import app.database.DatabaseConnection;
 import app.exception.DataAccessException;
+import app.util.Logger;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of ISubscriptionDAO
+ * Once entitlements are loaded, lookups are answered from a SubscriptionEntitlementCache
  */
 public class SubscriptionDAO implements ISubscriptionDAO {
+    private static final Logger logger = Logger.getLogger(SubscriptionDAO.class);
+
+    private final SubscriptionEntitlementCache cache;
+
+    public SubscriptionDAO() {
+        this(new SubscriptionEntitlementCache());
+    }
+
+    public SubscriptionDAO(SubscriptionEntitlementCache cache) {
+        this.cache = cache;
+    }
 
     @Override
     public Integer findActiveSubscriptionByVehicleId(Connection conn, int vehicleId) 
             throws DataAccessException {
+        if (cache.isLoaded()) {
+            return cache.findActiveSubscription(vehicleId, System.currentTimeMillis());
+        }
+        
         String sql = "SELECT ms.id FROM monthly_subscriptions ms " +
                      "INNER JOIN subscription_vehicles sv ON ms.id = sv.subscription_id " +
                      "WHERE sv.vehicle_id = ? AND ms.is_active = true " +
@@ -28,4 +52,70 @@ public class SubscriptionDAO implements ISubscriptionDAO {
             throw new DataAccessException("Error finding active subscription", e);
         }
     }
+
+    @Override
+    public String findChangeMarker(Connection conn) throws DataAccessException {
+        String sql = "SELECT (SELECT COUNT(*) || ':' || COALESCE(MAX(updated_at)::text, '') " +
+                     "FROM monthly_subscriptions) || '|' || " +
+                     "(SELECT COUNT(*) || ':' || COALESCE(MAX(id), 0) FROM subscription_vehicles)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getString(1) : null;
+        } catch (SQLException e) {
+            throw new DataAccessException("Error reading subscription change marker", e);
+        }
+    }
+
+    @Override
+    public Map<Integer, List<Entitlement>> findCurrentEntitlements(Connection conn) 
+            throws DataAccessException {
+        // Future-dated subscriptions are included, they start matching on their own
+        String sql = "SELECT sv.vehicle_id, ms.id, ms.start_date, ms.end_date " +
+                     "FROM monthly_subscriptions ms " +
+                     "INNER JOIN subscription_vehicles sv ON ms.id = sv.subscription_id " +
+                     "WHERE ms.is_active = true AND ms.end_date >= NOW()";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            Map<Integer, List<Entitlement>> entitlements = new HashMap<>();
+            while (rs.next()) {
+                entitlements.computeIfAbsent(rs.getInt("vehicle_id"), id -> new ArrayList<>())
+                    .add(new Entitlement(rs.getInt("id"),
+                                         rs.getTimestamp("start_date").getTime(),
+                                         rs.getTimestamp("end_date").getTime()));
+            }
+            return entitlements;
+        } catch (SQLException e) {
+            throw new DataAccessException("Error loading subscription entitlements", e);
+        }
+    }
+
+    /**
+     * Reload the entitlement cache if the subscription tables changed since the last load
+     * (always loads the first time)
+     * @return true if the cache was reloaded
+     * @throws DataAccessException if database error occurs
+     */
+    public boolean refreshEntitlements() throws DataAccessException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            String marker = findChangeMarker(conn);
+            if (cache.isLoaded() && marker != null && marker.equals(cache.getChangeMarker())) {
+                return false;
+            }
+            
+            cache.load(findCurrentEntitlements(conn), marker);
+            logger.info("Subscription entitlements loaded: {} vehicles", cache.size());
+            return true;
+        } catch (SQLException e) {
+            throw new DataAccessException("Database connection error", e);
+        }
+    }
+
+    /**
+     * @return Entitlement cache
+     */
+    public SubscriptionEntitlementCache getCache() {
+        return cache;
+    }
 }
@@ -3,9 +3,17 @@ package app.dao;
 import app.database.DatabaseConnection;
 import app.exception.DataAccessException;
 import app.model.Ticket;
+import app.util.LogFields;
 import app.util.Logger;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Implementation of ITicketDAO
@@ -13,6 +21,18 @@ import java.sql.*;
 public class TicketDAO implements ITicketDAO {
     private static final Logger logger = Logger.getLogger(TicketDAO.class);
 
+    private final FolioAllocator folioAllocator;
+    private final TicketIdAllocator ticketIdAllocator;
+
+    public TicketDAO() {
+        this(new FolioAllocator(), new TicketIdAllocator());
+    }
+
+    public TicketDAO(FolioAllocator folioAllocator, TicketIdAllocator ticketIdAllocator) {
+        this.folioAllocator = folioAllocator;
+        this.ticketIdAllocator = ticketIdAllocator;
+    }
+
     @Override
     public boolean hasOpenTicket(Connection conn, int vehicleId) throws DataAccessException {
         logger.debug("Checking open tickets for vehicle ID: {}", vehicleId);
@@ -32,39 +52,66 @@ public class TicketDAO implements ITicketDAO {
 
     @Override
     public String generateNextFolio(Connection conn) throws DataAccessException {
-        String sql = "SELECT MAX(CAST(SUBSTRING(folio FROM 4) AS INTEGER)) " +
-                     "FROM tickets WHERE folio LIKE 'TKT%'";
-        
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            int nextNumber = rs.next() ? rs.getInt(1) + 1 : 1;
-            return String.format("TKT%06d", nextNumber);
-        } catch (SQLException e) {
-            throw new DataAccessException("Error generating folio", e);
-        }
+        return folioAllocator.nextFolio(conn);
+    }
+
+    @Override
+    public int reserveTicketId(Connection conn) throws DataAccessException {
+        return ticketIdAllocator.nextId(conn);
+    }
+
+    @Override
+    public void releaseTicketId(int ticketId) {
+        ticketIdAllocator.release(ticketId);
     }
 
     @Override
     public Ticket create(Connection conn, String folio, int vehicleId, int operatorId,
                         Integer subscriptionId, String ticketType, String qrCodeData) 
             throws DataAccessException {
+        return insertTicket(conn, null, folio, vehicleId, operatorId, subscriptionId, ticketType, qrCodeData);
+    }
+
+    @Override
+    public Ticket create(Connection conn, int ticketId, String folio, int vehicleId, int operatorId,
+                        Integer subscriptionId, String ticketType, String qrCodeData) 
+            throws DataAccessException {
+        return insertTicket(conn, ticketId, folio, vehicleId, operatorId, subscriptionId, ticketType, qrCodeData);
+    }
+
+    /**
+     * Insert a ticket, using the given ID when it was reserved in advance
+     * or the identity default otherwise
+     */
+    private Ticket insertTicket(Connection conn, Integer ticketId, String folio, int vehicleId, int operatorId,
+                                Integer subscriptionId, String ticketType, String qrCodeData) 
+            throws DataAccessException {
         logger.info("Creating ticket: {} for vehicle ID {} (Type: {})", folio, vehicleId, ticketType);
-        String sql = "INSERT INTO tickets (folio, vehicle_id, operator_id, subscription_id, " +
-                     "entry_datetime, ticket_type, status, qr_code_data, created_at, updated_at) " +
-                     "VALUES (?, ?, ?, ?, NOW(), ?, 'OPEN', ?, NOW(), NOW()) " +
-                     "RETURNING id, entry_datetime";
+        String sql = ticketId != null
+            ? "INSERT INTO tickets (id, folio, vehicle_id, operator_id, subscription_id, " +
+              "entry_datetime, ticket_type, status, qr_code_data, created_at, updated_at) " +
+              "VALUES (?, ?, ?, ?, ?, NOW(), ?, 'OPEN', ?, NOW(), NOW()) " +
+              "RETURNING id, entry_datetime"
+            : "INSERT INTO tickets (folio, vehicle_id, operator_id, subscription_id, " +
+              "entry_datetime, ticket_type, status, qr_code_data, created_at, updated_at) " +
+              "VALUES (?, ?, ?, ?, NOW(), ?, 'OPEN', ?, NOW(), NOW()) " +
+              "RETURNING id, entry_datetime";
         
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, folio);
-            stmt.setInt(2, vehicleId);
-            stmt.setInt(3, operatorId);
+            int index = 1;
+            if (ticketId != null) {
+                stmt.setInt(index++, ticketId);
+            }
+            stmt.setString(index++, folio);
+            stmt.setInt(index++, vehicleId);
+            stmt.setInt(index++, operatorId);
             if (subscriptionId != null) {
-                stmt.setInt(4, subscriptionId);
+                stmt.setInt(index++, subscriptionId);
             } else {
-                stmt.setNull(4, Types.INTEGER);
+                stmt.setNull(index++, Types.INTEGER);
             }
-            stmt.setString(5, ticketType);
-            stmt.setString(6, qrCodeData);
+            stmt.setString(index++, ticketType);
+            stmt.setString(index, qrCodeData);
             
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -73,11 +120,13 @@ public class TicketDAO implements ITicketDAO {
                 ticket.setFolio(folio);
                 ticket.setVehicleId(vehicleId);
                 ticket.setOperatorId(operatorId);
+                ticket.setSubscriptionId(subscriptionId);
                 ticket.setEntryDatetime(rs.getTimestamp(2));
                 ticket.setTicketType(ticketType);
                 ticket.setStatus("OPEN");
                 ticket.setQrCodeData(qrCodeData);
-                logger.info("Ticket created successfully: ID {} - {}", ticket.getId(), folio);
+                logger.info(LogFields.ticket(ticket.getId()).operatorId(operatorId),
+                            "Ticket created successfully: ID {} - {}", ticket.getId(), folio);
                 return ticket;
             }
             
@@ -90,6 +139,59 @@ public class TicketDAO implements ITicketDAO {
         }
     }
 
+    @Override
+    public EntryOutcome createEntry(Connection conn, int ticketId, String licensePlate, String vehicleType,
+                                    int operatorId, String folio, String qrCodeData) throws DataAccessException {
+        logger.debug("Registering entry in one round trip: {} (Folio: {})", licensePlate, folio);
+        String sql = "SELECT outcome, ticket_id, vehicle_id, subscription_id, ticket_type, " +
+                     "entry_datetime, qr_code_data FROM fn_vehicle_entry(?, ?, ?, ?, ?, ?)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, ticketId);
+            stmt.setString(2, licensePlate);
+            stmt.setString(3, vehicleType);
+            stmt.setInt(4, operatorId);
+            stmt.setString(5, folio);
+            stmt.setString(6, qrCodeData);
+            
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                logger.error("Entry function returned no row for {}", licensePlate);
+                throw new DataAccessException("Failed to create ticket");
+            }
+            
+            if (EntryOutcome.Status.DUPLICATE_OPEN_TICKET.name().equals(rs.getString("outcome"))) {
+                int openTicketId = rs.getInt("ticket_id");
+                logger.debug("Vehicle {} already has open ticket: ID {}", licensePlate, openTicketId);
+                return EntryOutcome.duplicateOpenTicket(openTicketId);
+            }
+            
+            Ticket ticket = new Ticket();
+            ticket.setId(rs.getInt("ticket_id"));
+            ticket.setFolio(folio);
+            ticket.setVehicleId(rs.getInt("vehicle_id"));
+            ticket.setOperatorId(operatorId);
+            
+            Integer subId = rs.getObject("subscription_id") != null ? 
+                           rs.getInt("subscription_id") : null;
+            ticket.setSubscriptionId(subId);
+            
+            ticket.setEntryDatetime(rs.getTimestamp("entry_datetime"));
+            ticket.setTicketType(rs.getString("ticket_type"));
+            ticket.setStatus("OPEN");
+            ticket.setQrCodeData(rs.getString("qr_code_data"));
+            ticket.setLicensePlate(licensePlate);
+            ticket.setVehicleType(vehicleType);
+            logger.info(LogFields.ticket(ticket.getId()).licensePlate(licensePlate).operatorId(operatorId),
+                        "Ticket created successfully: ID {} - {}", ticket.getId(), folio);
+            return EntryOutcome.created(ticket);
+            
+        } catch (SQLException e) {
+            logger.error("SQL error registering entry for {}: {}", licensePlate, e.getMessage());
+            throw new DataAccessException("Error creating ticket", e);
+        }
+    }
+
     @Override
     public Ticket findByIdWithVehicle(int ticketId) throws DataAccessException {
         logger.debug("Finding ticket by ID: {}", ticketId);
@@ -108,25 +210,7 @@ public class TicketDAO implements ITicketDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                Ticket ticket = new Ticket();
-                ticket.setId(rs.getInt("id"));
-                ticket.setFolio(rs.getString("folio"));
-                ticket.setVehicleId(rs.getInt("vehicle_id"));
-                ticket.setOperatorId(rs.getInt("operator_id"));
-                
-                Integer subId = rs.getObject("subscription_id") != null ? 
-                               rs.getInt("subscription_id") : null;
-                ticket.setSubscriptionId(subId);
-                
-                ticket.setEntryDatetime(rs.getTimestamp("entry_datetime"));
-                ticket.setExitDatetime(rs.getTimestamp("exit_datetime"));
-                ticket.setTicketType(rs.getString("ticket_type"));
-                ticket.setStatus(rs.getString("status"));
-                ticket.setParkingDurationMinutes(rs.getObject("parking_duration_minutes") != null ?
-                                                rs.getInt("parking_duration_minutes") : null);
-                ticket.setQrCodeData(rs.getString("qr_code_data"));
-                ticket.setLicensePlate(rs.getString("license_plate"));
-                ticket.setVehicleType(rs.getString("vehicle_type"));
+                Ticket ticket = mapTicketWithVehicle(rs);
                 logger.debug("Ticket found: {} - {} ({})", ticketId, ticket.getFolio(), ticket.getStatus());
                 return ticket;
             }
@@ -157,25 +241,7 @@ public class TicketDAO implements ITicketDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                Ticket ticket = new Ticket();
-                ticket.setId(rs.getInt("id"));
-                ticket.setFolio(rs.getString("folio"));
-                ticket.setVehicleId(rs.getInt("vehicle_id"));
-                ticket.setOperatorId(rs.getInt("operator_id"));
-                
-                Integer subId = rs.getObject("subscription_id") != null ? 
-                               rs.getInt("subscription_id") : null;
-                ticket.setSubscriptionId(subId);
-                
-                ticket.setEntryDatetime(rs.getTimestamp("entry_datetime"));
-                ticket.setExitDatetime(rs.getTimestamp("exit_datetime"));
-                ticket.setTicketType(rs.getString("ticket_type"));
-                ticket.setStatus(rs.getString("status"));
-                ticket.setParkingDurationMinutes(rs.getObject("parking_duration_minutes") != null ?
-                                                rs.getInt("parking_duration_minutes") : null);
-                ticket.setQrCodeData(rs.getString("qr_code_data"));
-                ticket.setLicensePlate(rs.getString("license_plate"));
-                ticket.setVehicleType(rs.getString("vehicle_type"));
+                Ticket ticket = mapTicketWithVehicle(rs);
                 logger.debug("Open ticket found for {}: ID {}", licensePlate, ticket.getId());
                 return ticket;
             }
@@ -189,6 +255,92 @@ public class TicketDAO implements ITicketDAO {
         }
     }
 
+    @Override
+    public Set<Integer> findVehiclesWithOpenTickets(Connection conn, Collection<Integer> vehicleIds)
+            throws DataAccessException {
+        String sql = "SELECT DISTINCT vehicle_id FROM tickets WHERE status = 'OPEN' AND vehicle_id = ANY(?)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("integer", vehicleIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            Set<Integer> withOpenTicket = new HashSet<>();
+            while (rs.next()) {
+                withOpenTicket.add(rs.getInt("vehicle_id"));
+            }
+            return withOpenTicket;
+            
+        } catch (SQLException e) {
+            logger.error("Error checking open tickets for {} vehicles: {}", vehicleIds.size(), e.getMessage());
+            throw new DataAccessException("Error checking open tickets", e);
+        }
+    }
+
+    @Override
+    public List<Ticket> createAll(Connection conn, List<Ticket> tickets) throws DataAccessException {
+        logger.info("Creating {} tickets in one batch", tickets.size());
+        String sql = "INSERT INTO tickets (id, folio, vehicle_id, operator_id, subscription_id, " +
+                     "entry_datetime, ticket_type, status, qr_code_data, created_at, updated_at) " +
+                     "VALUES (?, ?, ?, ?, ?, NOW(), ?, 'OPEN', ?, NOW(), NOW())";
+        
+        // entry_datetime comes back through the generated keys, one row per batched insert
+        try (PreparedStatement stmt = conn.prepareStatement(sql, new String[] {"entry_datetime"})) {
+            for (Ticket ticket : tickets) {
+                stmt.setInt(1, ticket.getId());
+                stmt.setString(2, ticket.getFolio());
+                stmt.setInt(3, ticket.getVehicleId());
+                stmt.setInt(4, ticket.getOperatorId());
+                if (ticket.getSubscriptionId() != null) {
+                    stmt.setInt(5, ticket.getSubscriptionId());
+                } else {
+                    stmt.setNull(5, Types.INTEGER);
+                }
+                stmt.setString(6, ticket.getTicketType());
+                stmt.setString(7, ticket.getQrCodeData());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            
+            ResultSet keys = stmt.getGeneratedKeys();
+            for (Ticket ticket : tickets) {
+                if (!keys.next()) {
+                    throw new DataAccessException("Failed to create tickets");
+                }
+                ticket.setEntryDatetime(keys.getTimestamp(1));
+                ticket.setStatus("OPEN");
+            }
+            return tickets;
+            
+        } catch (SQLException e) {
+            logger.error("SQL error creating {} tickets: {}", tickets.size(), e.getMessage());
+            throw new DataAccessException("Error creating tickets", e);
+        }
+    }
+
+    @Override
+    public List<Ticket> findOpenTickets(Connection conn) throws DataAccessException {
+        String sql = "SELECT t.id, t.folio, t.vehicle_id, t.operator_id, t.subscription_id, " +
+                     "t.entry_datetime, t.exit_datetime, t.ticket_type, t.status, " +
+                     "t.parking_duration_minutes, t.qr_code_data, " +
+                     "v.license_plate, v.vehicle_type " +
+                     "FROM tickets t " +
+                     "INNER JOIN vehicles v ON t.vehicle_id = v.id " +
+                     "WHERE t.status = 'OPEN'";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            List<Ticket> tickets = new ArrayList<>();
+            while (rs.next()) {
+                tickets.add(mapTicketWithVehicle(rs));
+            }
+            logger.debug("Loaded {} open tickets", tickets.size());
+            return tickets;
+            
+        } catch (SQLException e) {
+            logger.error("Error loading open tickets: {}", e.getMessage());
+            throw new DataAccessException("Error loading open tickets", e);
+        }
+    }
+
     @Override
     public void updateQRCode(Connection conn, int ticketId, String qrCodeData) 
             throws DataAccessException {
@@ -212,7 +364,7 @@ public class TicketDAO implements ITicketDAO {
     public void updateExit(Connection conn, int ticketId, Timestamp exitTime, int durationMinutes)
             throws DataAccessException {
         String sql = "UPDATE tickets SET exit_datetime = ?, parking_duration_minutes = ?, " +
-                     "status = 'CLOSED', updated_at = NOW() WHERE id = ?";
+                     "status = 'CLOSED', updated_at = NOW() WHERE id = ? AND status = 'OPEN'";
         
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setTimestamp(1, exitTime);
@@ -228,4 +380,117 @@ public class TicketDAO implements ITicketDAO {
             throw new DataAccessException("Error updating ticket exit", e);
         }
     }
+
+    @Override
+    public ExitOutcome closeTicket(Connection conn, int ticketId, Timestamp exitTime)
+            throws DataAccessException {
+        // target tells "no such ticket" (no row) apart from "not open" (row, nothing closed)
+        String sql = "WITH target AS (SELECT id FROM tickets WHERE id = ?), " +
+                     "closed AS (" +
+                     "UPDATE tickets t SET exit_datetime = ?, " +
+                     "parking_duration_minutes = " +
+                     "FLOOR(EXTRACT(EPOCH FROM (CAST(? AS timestamptz) - t.entry_datetime)) / 60)::int, " +
+                     "status = 'CLOSED', updated_at = NOW() " +
+                     "FROM vehicles v " +
+                     "WHERE t.id = (SELECT id FROM target) AND t.status = 'OPEN' AND v.id = t.vehicle_id " +
+                     "RETURNING t.id, t.folio, t.vehicle_id, t.operator_id, t.subscription_id, " +
+                     "t.entry_datetime, t.exit_datetime, t.ticket_type, t.status, " +
+                     "t.parking_duration_minutes, t.qr_code_data, " +
+                     "v.license_plate, v.vehicle_type) " +
+                     "SELECT closed.* FROM target LEFT JOIN closed ON true";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, ticketId);
+            stmt.setTimestamp(2, exitTime);
+            stmt.setTimestamp(3, exitTime);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (!rs.next()) {
+                logger.warn("Ticket not found: {}", ticketId);
+                return ExitOutcome.notFound();
+            }
+            if (rs.getObject("id") == null) {
+                logger.warn("Ticket {} is not open", ticketId);
+                return ExitOutcome.alreadyClosed();
+            }
+            
+            Ticket ticket = mapTicketWithVehicle(rs);
+            logger.debug("Ticket closed: {} - {} ({} min)", ticketId, ticket.getLicensePlate(), 
+                        ticket.getParkingDurationMinutes());
+            return ExitOutcome.closed(ticket);
+            
+        } catch (SQLException e) {
+            logger.error("Error closing ticket {}: {}", ticketId, e.getMessage());
+            throw new DataAccessException("Error updating ticket exit", e);
+        }
+    }
+
+    @Override
+    public Map<Integer, ExitOutcome> closeTickets(Connection conn, Collection<Integer> ticketIds, Timestamp exitTime)
+            throws DataAccessException {
+        // Rows are locked in ID order so concurrent batches cannot deadlock on each other
+        String sql = "WITH target AS (SELECT id FROM tickets WHERE id = ANY(?) ORDER BY id FOR UPDATE), " +
+                     "closed AS (" +
+                     "UPDATE tickets t SET exit_datetime = ?, " +
+                     "parking_duration_minutes = " +
+                     "FLOOR(EXTRACT(EPOCH FROM (CAST(? AS timestamptz) - t.entry_datetime)) / 60)::int, " +
+                     "status = 'CLOSED', updated_at = NOW() " +
+                     "FROM vehicles v " +
+                     "WHERE t.id IN (SELECT id FROM target) AND t.status = 'OPEN' AND v.id = t.vehicle_id " +
+                     "RETURNING t.id, t.folio, t.vehicle_id, t.operator_id, t.subscription_id, " +
+                     "t.entry_datetime, t.exit_datetime, t.ticket_type, t.status, " +
+                     "t.parking_duration_minutes, t.qr_code_data, " +
+                     "v.license_plate, v.vehicle_type) " +
+                     "SELECT target.id AS target_id, closed.* FROM target LEFT JOIN closed ON closed.id = target.id";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("integer", ticketIds.toArray()));
+            stmt.setTimestamp(2, exitTime);
+            stmt.setTimestamp(3, exitTime);
+            ResultSet rs = stmt.executeQuery();
+            
+            Map<Integer, ExitOutcome> outcomes = new HashMap<>();
+            while (rs.next()) {
+                int ticketId = rs.getInt("target_id");
+                outcomes.put(ticketId, rs.getObject("id") != null 
+                    ? ExitOutcome.closed(mapTicketWithVehicle(rs)) 
+                    : ExitOutcome.alreadyClosed());
+            }
+            for (Integer ticketId : ticketIds) {
+                outcomes.putIfAbsent(ticketId, ExitOutcome.notFound());
+            }
+            logger.debug("Closed tickets in batch: {} requested", ticketIds.size());
+            return outcomes;
+            
+        } catch (SQLException e) {
+            logger.error("Error closing {} tickets: {}", ticketIds.size(), e.getMessage());
+            throw new DataAccessException("Error updating ticket exits", e);
+        }
+    }
+
+    /**
+     * Map the current row of a tickets/vehicles join to a Ticket
+     */
+    static Ticket mapTicketWithVehicle(ResultSet rs) throws SQLException {
+        Ticket ticket = new Ticket();
+        ticket.setId(rs.getInt("id"));
+        ticket.setFolio(rs.getString("folio"));
+        ticket.setVehicleId(rs.getInt("vehicle_id"));
+        ticket.setOperatorId(rs.getInt("operator_id"));
+        
+        Integer subId = rs.getObject("subscription_id") != null ? 
+                       rs.getInt("subscription_id") : null;
+        ticket.setSubscriptionId(subId);
+        
+        ticket.setEntryDatetime(rs.getTimestamp("entry_datetime"));
+        ticket.setExitDatetime(rs.getTimestamp("exit_datetime"));
+        ticket.setTicketType(rs.getString("ticket_type"));
+        ticket.setStatus(rs.getString("status"));
+        ticket.setParkingDurationMinutes(rs.getObject("parking_duration_minutes") != null ?
+                                        rs.getInt("parking_duration_minutes") : null);
+        ticket.setQrCodeData(rs.getString("qr_code_data"));
+        ticket.setLicensePlate(rs.getString("license_plate"));
+        ticket.setVehicleType(rs.getString("vehicle_type"));
+        return ticket;
+    }
 }
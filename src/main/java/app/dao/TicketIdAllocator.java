@@ -0,0 +1,85 @@
+package app.dao;
+
+import app.exception.DataAccessException;
+import app.util.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+
+/**
+ * Reserves ticket IDs ahead of the INSERT by drawing batches of values from the
+ * identity sequence of the tickets table. Knowing the ID before the row is written
+ * lets the final QR payload go into the INSERT itself instead of a follow-up UPDATE.
+ */
+public class TicketIdAllocator {
+    private static final Logger logger = Logger.getLogger(TicketIdAllocator.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 20;
+
+    private final int batchSize;
+    private final ArrayDeque<Integer> reservedIds = new ArrayDeque<>();
+
+    public TicketIdAllocator() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public TicketIdAllocator(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Take the next reserved ticket ID, reserving a new batch when none are left
+     * @param conn Database connection (only used when a new batch is reserved)
+     * @return Ticket ID that no other insert will use
+     * @throws DataAccessException if the sequence cannot be read
+     */
+    public synchronized int nextId(Connection conn) throws DataAccessException {
+        if (reservedIds.isEmpty()) {
+            reserveBatch(conn);
+        }
+        return reservedIds.pollFirst();
+    }
+
+    /**
+     * Return an ID that was taken but never inserted, so the next entry reuses it
+     * @param ticketId ID previously obtained from nextId
+     */
+    public synchronized void release(int ticketId) {
+        reservedIds.addFirst(ticketId);
+    }
+
+    /**
+     * @return Number of IDs currently reserved and not yet used
+     */
+    public synchronized int getReservedCount() {
+        return reservedIds.size();
+    }
+
+    private void reserveBatch(Connection conn) throws DataAccessException {
+        String sql = "SELECT nextval(pg_get_serial_sequence('public.tickets', 'id')) " +
+                     "FROM generate_series(1, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, batchSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reservedIds.addLast(rs.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error reserving ticket IDs: {}", e.getMessage());
+            throw new DataAccessException("Error reserving ticket IDs", e);
+        }
+
+        if (reservedIds.isEmpty()) {
+            throw new DataAccessException("Ticket ID sequence returned no values");
+        }
+        logger.debug("Reserved {} ticket IDs starting at {}", reservedIds.size(), reservedIds.peekFirst());
+    }
+}
@@ -1,26 +1,70 @@
 package app.dao;
 
+import app.cache.VehicleCache;
 import app.database.DatabaseConnection;
 import app.exception.DataAccessException;
 import app.model.Vehicle;
 import app.util.Logger;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Implementation of IVehicleDAO
+ * Plate lookups are answered from a VehicleCache when possible
  */
 public class VehicleDAO implements IVehicleDAO {
     private static final Logger logger = Logger.getLogger(VehicleDAO.class);
 
+    private final VehicleCache cache;
+
+    public VehicleDAO() {
+        this(new VehicleCache());
+    }
+
+    public VehicleDAO(VehicleCache cache) {
+        this.cache = cache;
+    }
+
     @Override
     public Vehicle findByLicensePlate(String licensePlate) throws DataAccessException {
+        Vehicle cached = cache.get(licensePlate);
+        if (cached != null || cache.isKnownMissing(licensePlate)) {
+            return cached;
+        }
+        
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return queryByLicensePlate(conn, licensePlate);
+        } catch (SQLException e) {
+            logger.error("Error finding vehicle {}: {}", licensePlate, e.getMessage());
+            throw new DataAccessException("Error accessing vehicle data", e);
+        }
+    }
+
+    @Override
+    public Vehicle findByLicensePlate(Connection conn, String licensePlate) throws DataAccessException {
+        Vehicle cached = cache.get(licensePlate);
+        if (cached != null || cache.isKnownMissing(licensePlate)) {
+            return cached;
+        }
+        return queryByLicensePlate(conn, licensePlate);
+    }
+
+    /**
+     * Read a vehicle from the database and record the result in the cache
+     */
+    private Vehicle queryByLicensePlate(Connection conn, String licensePlate) throws DataAccessException {
         logger.debug("Finding vehicle by license plate: {}", licensePlate);
+        cache.recordMiss();
         String sql = "SELECT id, license_plate, vehicle_type, created_at, updated_at " +
                      "FROM vehicles WHERE license_plate = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, licensePlate);
             ResultSet rs = stmt.executeQuery();
@@ -31,12 +75,14 @@ public class VehicleDAO implements IVehicleDAO {
                 vehicle.setLicensePlate(rs.getString("license_plate"));
                 vehicle.setVehicleType(rs.getString("vehicle_type"));
                 logger.debug("Vehicle found: {} - {} (ID: {})", licensePlate, vehicle.getVehicleType(), vehicle.getId());
+                cache.put(vehicle);
                 return vehicle;
             }
             
             logger.debug("Vehicle not found: {}", licensePlate);
+            cache.putMissing(licensePlate);
             return null;
-            
+        
         } catch (SQLException e) {
             logger.error("Error finding vehicle {}: {}", licensePlate, e.getMessage());
             throw new DataAccessException("Error accessing vehicle data", e);
@@ -44,11 +90,15 @@ public class VehicleDAO implements IVehicleDAO {
     }
 
     @Override
-    public Vehicle create(Connection conn, String licensePlate, String vehicleType) 
+    public Vehicle create(Connection conn, String licensePlate, String vehicleType)
             throws DataAccessException {
         logger.info("Creating new vehicle: {} (Type: {})", licensePlate, vehicleType);
         String sql = "INSERT INTO vehicles (license_plate, vehicle_type, created_at, updated_at) " +
-                     "VALUES (?, ?::text, NOW(), NOW()) RETURNING id";
+                     "VALUES (?, ?::text, NOW(), NOW()) " +
+                     "ON CONFLICT (license_plate) DO NOTHING RETURNING id";
+        
+        // Drop the negative entry whatever happens: the plate exists (or is about to)
+        cache.invalidateMissing(licensePlate);
         
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, licensePlate);
@@ -64,9 +114,16 @@ public class VehicleDAO implements IVehicleDAO {
                 return vehicle;
             }
             
+            // Registered concurrently (e.g. by another terminal) since the lookup
+            Vehicle existing = queryByLicensePlate(conn, licensePlate);
+            if (existing != null) {
+                logger.debug("Vehicle {} already registered: ID {}", licensePlate, existing.getId());
+                return existing;
+            }
+            
             logger.error("Failed to create vehicle: {}", licensePlate);
             throw new DataAccessException("Failed to create vehicle");
-            
+        
         } catch (SQLException e) {
             logger.error("SQL error creating vehicle {}: {}", licensePlate, e.getMessage());
             throw new DataAccessException("Error creating vehicle", e);
@@ -74,12 +131,83 @@ public class VehicleDAO implements IVehicleDAO {
     }
 
     @Override
-    public Vehicle findOrCreate(Connection conn, String licensePlate, String vehicleType) 
+    public Vehicle findOrCreate(Connection conn, String licensePlate, String vehicleType)
             throws DataAccessException {
-        Vehicle vehicle = findByLicensePlate(licensePlate);
+        Vehicle vehicle = findByLicensePlate(conn, licensePlate);
         if (vehicle != null) {
             return vehicle;
         }
         return create(conn, licensePlate, vehicleType);
     }
+
+    @Override
+    public Map<String, Vehicle> findOrCreateAll(Connection conn, Map<String, String> vehicleTypesByPlate)
+            throws DataAccessException {
+        Map<String, Vehicle> vehicles = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        for (String licensePlate : vehicleTypesByPlate.keySet()) {
+            Vehicle cached = cache.get(licensePlate);
+            if (cached != null) {
+                vehicles.put(licensePlate, cached);
+            } else {
+                uncached.add(licensePlate);
+            }
+        }
+        if (uncached.isEmpty()) {
+            return vehicles;
+        }
+        
+        logger.debug("Upserting {} vehicles in one batch", uncached.size());
+        String insertSql = "INSERT INTO vehicles (license_plate, vehicle_type, created_at, updated_at) " +
+                           "VALUES (?, ?::text, NOW(), NOW()) ON CONFLICT (license_plate) DO NOTHING";
+        String selectSql = "SELECT id, license_plate, vehicle_type FROM vehicles WHERE license_plate = ANY(?)";
+        
+        try (PreparedStatement insert = conn.prepareStatement(insertSql);
+             PreparedStatement select = conn.prepareStatement(selectSql)) {
+            for (String licensePlate : uncached) {
+                cache.invalidateMissing(licensePlate);
+                insert.setString(1, licensePlate);
+                insert.setString(2, vehicleTypesByPlate.get(licensePlate));
+                insert.addBatch();
+            }
+            int[] inserted = insert.executeBatch();
+            
+            // Only rows that already existed (no row inserted) are committed; rows inserted
+            // here disappear if the caller rolls back, so they are not cached (as in create())
+            Set<String> existing = new HashSet<>();
+            for (int i = 0; i < inserted.length && i < uncached.size(); i++) {
+                if (inserted[i] == 0) {
+                    existing.add(uncached.get(i));
+                }
+            }
+            
+            cache.recordMiss();
+            select.setArray(1, conn.createArrayOf("varchar", uncached.toArray()));
+            ResultSet rs = select.executeQuery();
+            while (rs.next()) {
+                Vehicle vehicle = new Vehicle(rs.getInt("id"), rs.getString("license_plate"), 
+                                              rs.getString("vehicle_type"));
+                if (existing.contains(vehicle.getLicensePlate())) {
+                    cache.put(vehicle);
+                }
+                vehicles.put(vehicle.getLicensePlate(), vehicle);
+            }
+            
+            if (vehicles.size() != vehicleTypesByPlate.size()) {
+                throw new DataAccessException("Failed to create vehicles");
+            }
+            return vehicles;
+            
+        } catch (SQLException e) {
+            logger.error("SQL error upserting {} vehicles: {}", uncached.size(), e.getMessage());
+            throw new DataAccessException("Error creating vehicles", e);
+        }
+    }
+
+    /**
+     * @return Plate cache (for hit/miss statistics)
+     */
+    public VehicleCache getCache() {
+        return cache;
+    }
 }
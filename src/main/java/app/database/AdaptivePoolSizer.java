@@ -0,0 +1,119 @@
+package app.database;
+
+import app.metrics.LatencyHistogram;
+import app.metrics.OperationMetrics;
+import app.util.Logger;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resizes the connection pool within [minSize, maxSize] from what was observed since the
+ * previous adjustment:
+ * - threads waiting, or a mean connection wait above the target: grow by a quarter
+ *   (at least one), unless statements are already slower than maxQueryMillis, in which
+ *   case the database is the bottleneck and more connections would only add load;
+ * - no waiting, a mean wait under a quarter of the target and more than half of the
+ *   connections idle for SHRINK_AFTER_ROUNDS rounds in a row: shrink by one.
+ * Called periodically by DatabaseConnection when db.pool.adaptive=true.
+ */
+class AdaptivePoolSizer {
+    private static final Logger logger = Logger.getLogger(AdaptivePoolSizer.class);
+    static final int SHRINK_AFTER_ROUNDS = 3;
+
+    private final HikariPoolMXBean pool;
+    private final HikariConfigMXBean config;
+    private final int minSize;
+    private final int maxSize;
+    private final long targetWaitNanos;
+    private final long maxQueryNanos;
+    private final OperationMetrics acquire;
+    private final OperationMetrics statements;
+
+    private long lastAcquireCount;
+    private long lastAcquireNanos;
+    private long lastStatementCount;
+    private long lastStatementNanos;
+    private int calmRounds;
+
+    /**
+     * @param acquire Connection borrow times
+     * @param statements Execution times of all statements
+     */
+    AdaptivePoolSizer(HikariPoolMXBean pool, HikariConfigMXBean config, int minSize, int maxSize,
+                      long targetWaitMillis, long maxQueryMillis, OperationMetrics acquire, OperationMetrics statements) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid pool size bounds: " + minSize + "-" + maxSize);
+        }
+        this.pool = pool;
+        this.config = config;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetWaitNanos = TimeUnit.MILLISECONDS.toNanos(targetWaitMillis);
+        this.maxQueryNanos = TimeUnit.MILLISECONDS.toNanos(maxQueryMillis);
+        this.acquire = acquire;
+        this.statements = statements;
+        LatencyHistogram.Snapshot acquired = acquire.getLatency();
+        LatencyHistogram.Snapshot executed = statements.getLatency();
+        this.lastAcquireCount = acquired.getCount();
+        this.lastAcquireNanos = acquired.getSumNanos();
+        this.lastStatementCount = executed.getCount();
+        this.lastStatementNanos = executed.getSumNanos();
+    }
+
+    /**
+     * Look at the last round and resize the pool if needed
+     * @return Maximum pool size after the adjustment
+     */
+    synchronized int adjust() {
+        LatencyHistogram.Snapshot acquired = acquire.getLatency();
+        LatencyHistogram.Snapshot executed = statements.getLatency();
+        long meanWait = mean(acquired.getSumNanos() - lastAcquireNanos, acquired.getCount() - lastAcquireCount);
+        long meanQuery = mean(executed.getSumNanos() - lastStatementNanos, executed.getCount() - lastStatementCount);
+        lastAcquireCount = acquired.getCount();
+        lastAcquireNanos = acquired.getSumNanos();
+        lastStatementCount = executed.getCount();
+        lastStatementNanos = executed.getSumNanos();
+
+        int size = config.getMaximumPoolSize();
+        int waiting = pool.getThreadsAwaitingConnection();
+        if (waiting > 0 || meanWait > targetWaitNanos) {
+            calmRounds = 0;
+            if (size >= maxSize) {
+                return size;
+            }
+            if (meanQuery > maxQueryNanos) {
+                logger.warn("Pool at {} with {} waiting, not growing: statements average {} ms",
+                            size, waiting, TimeUnit.NANOSECONDS.toMillis(meanQuery));
+                return size;
+            }
+            return resize(size, Math.min(maxSize, size + Math.max(1, size / 4)), waiting, meanWait);
+        }
+
+        boolean mostlyIdle = pool.getIdleConnections() * 2 > size;
+        if (meanWait <= targetWaitNanos / 4 && mostlyIdle && size > minSize) {
+            if (++calmRounds >= SHRINK_AFTER_ROUNDS) {
+                calmRounds = 0;
+                return resize(size, size - 1, waiting, meanWait);
+            }
+        } else {
+            calmRounds = 0;
+        }
+        return size;
+    }
+
+    private int resize(int from, int to, int waiting, long meanWaitNanos) {
+        config.setMaximumPoolSize(to);
+        if (config.getMinimumIdle() > to) {
+            config.setMinimumIdle(to);
+        }
+        logger.info("Pool resized from {} to {} (waiting: {}, mean wait: {} us)",
+                    from, to, waiting, TimeUnit.NANOSECONDS.toMicros(meanWaitNanos));
+        return to;
+    }
+
+    private static long mean(long nanos, long count) {
+        return count > 0 ? nanos / count : 0;
+    }
+}
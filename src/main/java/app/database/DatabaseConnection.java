@@ -1,19 +1,39 @@
 package app.database;
 
+import app.metrics.MetricsRegistry;
+import app.metrics.OperationMetrics;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Manages database connections using HikariCP connection pool
  * HikariCP uses JDBC internally for all database operations
+ * Borrowed connections are wrapped by JdbcInstrumentation to time every statement
+ * Pool sizes and timeouts come from db.pool.* in database.properties; pool state is
+ * exported as gauges, and db.pool.adaptive=true lets AdaptivePoolSizer resize the pool
  */
 public class DatabaseConnection {
+    private static final String POOL_NAME = "ParkingDB-Pool";
+    private static final MetricsRegistry metrics = MetricsRegistry.getDefault();
+    private static final JdbcInstrumentation instrumentation = JdbcInstrumentation.fromConfig(metrics);
+    private static final OperationMetrics connectionAcquire = metrics.operation("db.connection.acquire");
+    private static final LongAdder acquireTimeouts = metrics.counter(
+        "crudpark_db_pool_acquire_timeouts_total", "Connection borrows that timed out", "pool", POOL_NAME);
+    
     private static HikariDataSource dataSource;
+    private static Properties settings = new Properties();
+    private static ScheduledExecutorService poolSizer;
 
     static {
         loadProperties();
@@ -24,12 +44,13 @@ public class DatabaseConnection {
                 .getResourceAsStream("database.properties")) {
             Properties prop = new Properties();
             prop.load(input);
+            settings = prop;
             
             String url = prop.getProperty("db.url");
             String username = prop.getProperty("db.username");
             String password = prop.getProperty("db.password");
             
-            initializeDataSource(url, username, password);
+            initializeDataSource(url, username, password, prop);
             
         } catch (Exception e) {
             System.err.println("Error loading database properties: " + e.getMessage());
@@ -37,7 +58,8 @@ public class DatabaseConnection {
             initializeDataSource(
                 "jdbc:postgresql://localhost:5432/crudpark",
                 "postgres",
-                "postgres"
+                "postgres",
+                new Properties()
             );
         }
     }
@@ -45,7 +67,7 @@ public class DatabaseConnection {
     /**
      * Initialize HikariCP DataSource with connection pool configuration
      */
-    private static void initializeDataSource(String url, String username, String password) {
+    private static void initializeDataSource(String url, String username, String password, Properties prop) {
         HikariConfig config = new HikariConfig();
         
         // JDBC connection settings
@@ -54,44 +76,138 @@ public class DatabaseConnection {
         config.setPassword(password);
         
         // Connection pool settings
-        config.setMaximumPoolSize(10);              // Maximum connections in pool
-        config.setMinimumIdle(2);                   // Minimum idle connections
-        config.setConnectionTimeout(30000);         // 30 seconds
-        config.setIdleTimeout(600000);              // 10 minutes
-        config.setMaxLifetime(1800000);             // 30 minutes
+        int maxSize = intSetting(prop, "db.pool.max.size", 10);           // Maximum connections in pool
+        int minIdle = intSetting(prop, "db.pool.min.idle", 2);            // Minimum idle connections
+        config.setMaximumPoolSize(maxSize);
+        config.setMinimumIdle(Math.min(minIdle, maxSize));
+        config.setConnectionTimeout(intSetting(prop, "db.pool.connection.timeout.ms", 30000));  // 30 seconds
+        config.setIdleTimeout(intSetting(prop, "db.pool.idle.timeout.ms", 600000));             // 10 minutes
+        config.setMaxLifetime(intSetting(prop, "db.pool.max.lifetime.ms", 1800000));            // 30 minutes
         
         // Performance settings
         config.setAutoCommit(false);                // Manual transaction control
         config.setConnectionTestQuery("SELECT 1");  // Test query for PostgreSQL
         
         // Pool name for logging
-        config.setPoolName("ParkingDB-Pool");
+        config.setPoolName(POOL_NAME);
         
         dataSource = new HikariDataSource(config);
+        registerPoolGauges();
         
         System.out.println("[INFO] HikariCP Connection Pool initialized successfully");
         System.out.println("  - JDBC URL: " + url);
-        System.out.println("  - Pool Size: 2-10 connections");
+        System.out.println("  - Pool Size: " + config.getMinimumIdle() + "-" + maxSize + " connections");
+        
+        if (Boolean.parseBoolean(prop.getProperty("db.pool.adaptive", "false").trim())) {
+            startPoolSizer(prop, maxSize);
+        }
+    }
+    
+    private static int intSetting(Properties prop, String key, int defaultValue) {
+        String value = prop.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+    
+    /**
+     * Export the pool state as gauges (read from HikariCP on every export)
+     */
+    private static void registerPoolGauges() {
+        HikariDataSource pool = dataSource;
+        metrics.gauge("crudpark_db_pool_active_connections", "Connections in use", 
+                      () -> pool.getHikariPoolMXBean().getActiveConnections());
+        metrics.gauge("crudpark_db_pool_idle_connections", "Idle connections", 
+                      () -> pool.getHikariPoolMXBean().getIdleConnections());
+        metrics.gauge("crudpark_db_pool_total_connections", "Open connections", 
+                      () -> pool.getHikariPoolMXBean().getTotalConnections());
+        metrics.gauge("crudpark_db_pool_waiting_threads", "Threads waiting for a connection", 
+                      () -> pool.getHikariPoolMXBean().getThreadsAwaitingConnection());
+        metrics.gauge("crudpark_db_pool_max_connections", "Current maximum pool size", 
+                      () -> pool.getHikariConfigMXBean().getMaximumPoolSize());
+    }
+    
+    /**
+     * Resize the pool every db.pool.adaptive.interval.seconds within
+     * db.pool.adaptive.min.size..db.pool.adaptive.max.size
+     */
+    private static void startPoolSizer(Properties prop, int maxSize) {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(
+            dataSource.getHikariPoolMXBean(),
+            dataSource.getHikariConfigMXBean(),
+            intSetting(prop, "db.pool.adaptive.min.size", 2),
+            intSetting(prop, "db.pool.adaptive.max.size", Math.max(maxSize, 20)),
+            intSetting(prop, "db.pool.adaptive.target.wait.ms", 5),
+            intSetting(prop, "db.pool.adaptive.max.query.ms", 50),
+            connectionAcquire,
+            metrics.operation("db.statement"));
+        long interval = intSetting(prop, "db.pool.adaptive.interval.seconds", 10);
+        poolSizer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pool-sizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poolSizer.scheduleWithFixedDelay(() -> {
+            try {
+                sizer.adjust();
+            } catch (RuntimeException e) {
+                System.err.println("Warning: Pool resize failed: " + e.getMessage());
+            }
+        }, interval, interval, TimeUnit.SECONDS);
     }
 
     /**
      * Get a connection from the pool
      * This connection uses JDBC internally and should be used with try-with-resources
+     * Inside a UnitOfWork, returns the unit of work's connection instead of borrowing another
      * 
      * @return JDBC Connection from the pool
      * @throws SQLException if connection cannot be obtained
      */
     public static Connection getConnection() throws SQLException {
+        Connection current = UnitOfWork.currentConnection();
+        if (current != null) {
+            return current;
+        }
+        return getPooledConnection();
+    }
+
+    /**
+     * Borrow a connection from the pool, ignoring any unit of work
+     */
+    static Connection getPooledConnection() throws SQLException {
         if (dataSource == null) {
             throw new SQLException("DataSource not initialized");
         }
-        return dataSource.getConnection();
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            connectionAcquire.failure(start, e);
+            if (e instanceof SQLTransientConnectionException) {
+                acquireTimeouts.increment();
+            }
+            throw e;
+        }
+        connectionAcquire.success(start);
+        return instrumentation != null ? instrumentation.wrap(connection, System.nanoTime() - start) : connection;
+    }
+
+    /**
+     * Setting from database.properties (for options that depend on the schema)
+     * @return The trimmed value, or defaultValue if it is not set
+     */
+    public static String getSetting(String key, String defaultValue) {
+        String value = settings.getProperty(key);
+        return value != null ? value.trim() : defaultValue;
     }
 
     /**
      * Close the connection pool (call on application shutdown)
      */
     public static void closePool() {
+        if (poolSizer != null) {
+            poolSizer.shutdownNow();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             System.out.println("[INFO] HikariCP Connection Pool closed");
@@ -100,17 +216,28 @@ public class DatabaseConnection {
 
     /**
      * Get pool statistics (for monitoring)
+     * @return Pool state, or null if the pool is not initialized
      */
-    public static String getPoolStats() {
-        if (dataSource != null) {
-            return String.format(
-                "Pool Stats - Active: %d, Idle: %d, Total: %d, Waiting: %d",
-                dataSource.getHikariPoolMXBean().getActiveConnections(),
-                dataSource.getHikariPoolMXBean().getIdleConnections(),
-                dataSource.getHikariPoolMXBean().getTotalConnections(),
-                dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection()
-            );
+    public static PoolStats getPoolSnapshot() {
+        if (dataSource == null) {
+            return null;
         }
-        return "Pool not initialized";
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return new PoolStats(
+            pool.getActiveConnections(),
+            pool.getIdleConnections(),
+            pool.getTotalConnections(),
+            pool.getThreadsAwaitingConnection(),
+            dataSource.getHikariConfigMXBean().getMaximumPoolSize(),
+            acquireTimeouts.sum()
+        );
+    }
+
+    /**
+     * Get pool statistics as text (for logs)
+     */
+    public static String getPoolStats() {
+        PoolStats stats = getPoolSnapshot();
+        return stats != null ? stats.toString() : "Pool not initialized";
     }
 }
@@ -0,0 +1,957 @@
+package app.database;
+
+import app.metrics.DaoCallEvent;
+import app.metrics.OperationMetrics;
+import app.metrics.Outcome;
+import app.util.Logger;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prepared statement handed out by an instrumented connection. Every call goes straight
+ * to the driver's statement; executions are also timed (sql.&lt;name&gt; and db.statement)
+ * and recorded as DaoCallEvents, the rows they return or change are counted and bind
+ * parameters are kept for the slow statement log.
+ * Written out as plain delegation so each call costs one extra virtual call, with no
+ * reflection on the hot path.
+ */
+final class InstrumentedPreparedStatement implements PreparedStatement {
+    private static final Logger logger = Logger.getLogger(JdbcInstrumentation.class);
+    private static final int MAX_SQL_CHARS = 200;
+
+    private final Connection connection;
+    private final PreparedStatement target;
+    private final String sql;
+    private final JdbcInstrumentation.StatementStats stats;
+    private final OperationMetrics allStatements;
+    private final long slowNanos;
+    private final long connectionWaitNanos;
+    private Object[] binds = new Object[0];
+    private int batchSize;
+
+    /**
+     * @param connection Instrumented connection that prepared the statement (returned by getConnection())
+     */
+    InstrumentedPreparedStatement(Connection connection, PreparedStatement target, String sql,
+                                  JdbcInstrumentation.StatementStats stats, OperationMetrics allStatements,
+                                  long slowNanos, long connectionWaitNanos) {
+        this.connection = connection;
+        this.target = target;
+        this.sql = sql;
+        this.stats = stats;
+        this.allStatements = allStatements;
+        this.slowNanos = slowNanos;
+        this.connectionWaitNanos = connectionWaitNanos;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        ResultSet resultSet;
+        try {
+            resultSet = target.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        return countingRows(resultSet);
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        int count;
+        try {
+            count = target.executeUpdate();
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        stats.rows.add(count);
+        return count;
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        target.setNull(parameterIndex, sqlType);
+        bind(parameterIndex, null);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        target.setBoolean(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        target.setByte(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        target.setShort(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        target.setInt(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        target.setLong(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        target.setFloat(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        target.setDouble(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        target.setBigDecimal(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        target.setString(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        target.setBytes(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        target.setDate(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        target.setTime(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        target.setTimestamp(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        target.setAsciiStream(parameterIndex, x, length);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    @Deprecated
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        target.setUnicodeStream(parameterIndex, x, length);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        target.setBinaryStream(parameterIndex, x, length);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        target.clearParameters();
+        Arrays.fill(binds, null);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        target.setObject(parameterIndex, x, targetSqlType);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        target.setObject(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        boolean hasResultSet;
+        try {
+            hasResultSet = target.execute();
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        return hasResultSet;
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        target.addBatch();
+        batchSize++;
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+        target.setCharacterStream(parameterIndex, reader, length);
+        bind(parameterIndex, reader);
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        target.setRef(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        target.setBlob(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        target.setClob(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        target.setArray(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return target.getMetaData();
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        target.setDate(parameterIndex, x, cal);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        target.setTime(parameterIndex, x, cal);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        target.setTimestamp(parameterIndex, x, cal);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        target.setNull(parameterIndex, sqlType, typeName);
+        bind(parameterIndex, null);
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        target.setURL(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        return target.getParameterMetaData();
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        target.setRowId(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException {
+        target.setNString(parameterIndex, value);
+        bind(parameterIndex, value);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+        target.setNCharacterStream(parameterIndex, value, length);
+        bind(parameterIndex, value);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob value) throws SQLException {
+        target.setNClob(parameterIndex, value);
+        bind(parameterIndex, value);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        target.setClob(parameterIndex, reader, length);
+        bind(parameterIndex, reader);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+        target.setBlob(parameterIndex, inputStream, length);
+        bind(parameterIndex, inputStream);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        target.setNClob(parameterIndex, reader, length);
+        bind(parameterIndex, reader);
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+        target.setSQLXML(parameterIndex, xmlObject);
+        bind(parameterIndex, xmlObject);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        target.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        target.setAsciiStream(parameterIndex, x, length);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        target.setBinaryStream(parameterIndex, x, length);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+        target.setCharacterStream(parameterIndex, reader, length);
+        bind(parameterIndex, reader);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        target.setAsciiStream(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        target.setBinaryStream(parameterIndex, x);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+        target.setCharacterStream(parameterIndex, reader);
+        bind(parameterIndex, reader);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+        target.setNCharacterStream(parameterIndex, value);
+        bind(parameterIndex, value);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader) throws SQLException {
+        target.setClob(parameterIndex, reader);
+        bind(parameterIndex, reader);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+        target.setBlob(parameterIndex, inputStream);
+        bind(parameterIndex, inputStream);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+        target.setNClob(parameterIndex, reader);
+        bind(parameterIndex, reader);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        target.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+        target.setObject(parameterIndex, x, targetSqlType);
+        bind(parameterIndex, x);
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        long count;
+        try {
+            count = target.executeLargeUpdate();
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        stats.rows.add(count);
+        return count;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        ResultSet resultSet;
+        try {
+            resultSet = target.executeQuery(sql);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        return countingRows(resultSet);
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        int count;
+        try {
+            count = target.executeUpdate(sql);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        stats.rows.add(count);
+        return count;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        target.close();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return target.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        target.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return target.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        target.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        target.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return target.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        target.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        target.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return target.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        target.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        target.setCursorName(name);
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        boolean hasResultSet;
+        try {
+            hasResultSet = target.execute(sql);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        return hasResultSet;
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return countingRows(target.getResultSet());
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return target.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return target.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        target.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return target.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        target.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return target.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return target.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return target.getResultSetType();
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        target.addBatch(sql);
+        batchSize++;
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        target.clearBatch();
+        batchSize = 0;
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        int[] counts;
+        try {
+            counts = target.executeBatch();
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        addBatchRows(counts);
+        return counts;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection;
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return target.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return countingRows(target.getGeneratedKeys());
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        int count;
+        try {
+            count = target.executeUpdate(sql, autoGeneratedKeys);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        stats.rows.add(count);
+        return count;
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        int count;
+        try {
+            count = target.executeUpdate(sql, columnIndexes);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        stats.rows.add(count);
+        return count;
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        int count;
+        try {
+            count = target.executeUpdate(sql, columnNames);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        stats.rows.add(count);
+        return count;
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        boolean hasResultSet;
+        try {
+            hasResultSet = target.execute(sql, autoGeneratedKeys);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        return hasResultSet;
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        boolean hasResultSet;
+        try {
+            hasResultSet = target.execute(sql, columnIndexes);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        return hasResultSet;
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        boolean hasResultSet;
+        try {
+            hasResultSet = target.execute(sql, columnNames);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        return hasResultSet;
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return target.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return target.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        target.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return target.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        target.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return target.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return target.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        target.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return target.getLargeMaxRows();
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        long[] counts;
+        try {
+            counts = target.executeLargeBatch();
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        addBatchRows(counts);
+        return counts;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        long count;
+        try {
+            count = target.executeLargeUpdate(sql);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        stats.rows.add(count);
+        return count;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        long count;
+        try {
+            count = target.executeLargeUpdate(sql, autoGeneratedKeys);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        stats.rows.add(count);
+        return count;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        long count;
+        try {
+            count = target.executeLargeUpdate(sql, columnIndexes);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        stats.rows.add(count);
+        return count;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        DaoCallEvent event = beginDaoCall();
+        long start = System.nanoTime();
+        long count;
+        try {
+            count = target.executeLargeUpdate(sql, columnNames);
+        } catch (SQLException | RuntimeException e) {
+            failed(start, event, e);
+            throw e;
+        }
+        executed(start, event);
+        stats.rows.add(count);
+        return count;
+    }
+
+    @Override
+    public String enquoteLiteral(String val) throws SQLException {
+        return target.enquoteLiteral(val);
+    }
+
+    @Override
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        return target.enquoteIdentifier(identifier, alwaysQuote);
+    }
+
+    @Override
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        return target.isSimpleIdentifier(identifier);
+    }
+
+    @Override
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        return target.enquoteNCharLiteral(val);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return target.isWrapperFor(iface);
+    }
+
+    private DaoCallEvent beginDaoCall() {
+        DaoCallEvent event = new DaoCallEvent();
+        event.setOperation(stats.name);
+        event.begin();
+        return event;
+    }
+
+    private void executed(long start, DaoCallEvent event) {
+        long elapsed = System.nanoTime() - start;
+        event.complete(Outcome.SUCCESS);
+        stats.execution.success(start);
+        allStatements.success(start);
+        logIfSlow(elapsed);
+        batchSize = 0;
+    }
+
+    private void failed(long start, DaoCallEvent event, Exception e) {
+        event.fail(e);
+        stats.execution.failure(start, e);
+        allStatements.failure(start, e);
+        logIfSlow(System.nanoTime() - start);
+    }
+
+    private void addBatchRows(int[] counts) {
+        for (int count : counts) {
+            stats.rows.add(Math.max(0, count));
+        }
+    }
+
+    private void addBatchRows(long[] counts) {
+        for (long count : counts) {
+            stats.rows.add(Math.max(0, count));
+        }
+    }
+
+    private ResultSet countingRows(ResultSet resultSet) {
+        return resultSet == null ? null : new CountingResultSet(resultSet, this, stats.rows);
+    }
+
+    private void bind(int index, Object value) {
+        if (index > binds.length) {
+            binds = Arrays.copyOf(binds, Math.max(index, binds.length * 2));
+        }
+        if (index >= 1) {
+            binds[index - 1] = value;
+        }
+    }
+
+    private void logIfSlow(long elapsedNanos) {
+        if (elapsedNanos < slowNanos) {
+            return;
+        }
+        logger.warn("Slow SQL {}: {} ms (connection wait {} ms){} binds [{}]: {}",
+                    stats.name, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    TimeUnit.NANOSECONDS.toMillis(connectionWaitNanos),
+                    batchSize > 0 ? ", batch of " + batchSize + ", last" : "",
+                    JdbcInstrumentation.bindSummary(binds),
+                    JdbcInstrumentation.abbreviate(sql.replaceAll("\\s+", " ").trim(), MAX_SQL_CHARS));
+    }
+}
@@ -0,0 +1,168 @@
+package app.database;
+
+import app.metrics.MetricsRegistry;
+import app.metrics.OperationMetrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times every prepared statement run through a pooled connection.
+ * Connections are wrapped when they are borrowed (InstrumentedConnection); each statement
+ * they prepare (InstrumentedPreparedStatement) is named after the DAO method that
+ * prepared it (e.g. TicketDAO.closeTicket, found once per SQL string) and records its
+ * execution time and outcome (metric sql.&lt;name&gt;) and the rows it returned or changed
+ * (crudpark_sql_rows_total); db.statement combines all of them. The time spent waiting
+ * for the connection is passed in by DatabaseConnection. Executions slower than
+ * metrics.sql.slow.millis are logged with their bind parameters and the connection wait
+ * of their transaction.
+ */
+public final class JdbcInstrumentation {
+    static final int MAX_STATEMENTS = 512;
+    private static final int MAX_BIND_CHARS = 32;
+    private static final String DAO_PACKAGE = "app.dao.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final MetricsRegistry registry;
+    private final long slowNanos;
+    private final OperationMetrics allStatements;
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+    private final StatementStats otherStatements;
+
+    /**
+     * @param slowMillis Executions at least this slow are logged (0 = none)
+     */
+    public JdbcInstrumentation(MetricsRegistry registry, long slowMillis) {
+        this.registry = registry;
+        this.slowNanos = slowMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(slowMillis) : Long.MAX_VALUE;
+        this.allStatements = registry.operation("db.statement");
+        this.otherStatements = new StatementStats("other", registry);
+    }
+
+    /**
+     * Instrumentation configured from metrics.properties (metrics.sql.enabled, metrics.sql.slow.millis)
+     * @return null if disabled
+     */
+    static JdbcInstrumentation fromConfig(MetricsRegistry registry) {
+        if (!Boolean.parseBoolean(registry.getProperty("metrics.sql.enabled", "true"))) {
+            return null;
+        }
+        return new JdbcInstrumentation(registry, Long.parseLong(registry.getProperty("metrics.sql.slow.millis", "200")));
+    }
+
+    /**
+     * Wrap a borrowed connection so its prepared statements are timed
+     * @param waitNanos Time it took to borrow the connection
+     */
+    public Connection wrap(Connection connection, long waitNanos) {
+        return new InstrumentedConnection(connection, this, waitNanos);
+    }
+
+    /**
+     * Wrap a statement prepared by an instrumented connection so its executions are timed
+     * @param connection The instrumented connection, handed back by the statement's getConnection()
+     */
+    PreparedStatement instrument(Connection connection, PreparedStatement statement, String sql, long waitNanos) {
+        return new InstrumentedPreparedStatement(connection, statement, sql, statsFor(sql), allStatements,
+                                                 slowNanos, waitNanos);
+    }
+
+    /**
+     * Stats of a SQL string, named after the DAO method that first prepared it
+     */
+    private StatementStats statsFor(String sql) {
+        StatementStats stats = statements.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        if (statements.size() >= MAX_STATEMENTS) {
+            // SQL built per call (e.g. varying IN lists) must not grow the map without bound
+            return otherStatements;
+        }
+        return statements.computeIfAbsent(sql, key -> new StatementStats(uniqueName(callerName(key)), registry));
+    }
+
+    private String uniqueName(String name) {
+        String candidate = name;
+        for (int n = 2; !names.add(candidate); n++) {
+            candidate = name + "#" + n;
+        }
+        return candidate;
+    }
+
+    private static String callerName(String sql) {
+        Optional<StackWalker.StackFrame> caller = STACK_WALKER.walk(frames -> frames
+            .filter(frame -> frame.getClassName().startsWith(DAO_PACKAGE))
+            .findFirst());
+        if (caller.isEmpty()) {
+            String[] words = sql.trim().split("\\s+", 3);
+            return words.length >= 2 ? words[0].toUpperCase() + "_" + words[1].toLowerCase() : "statement";
+        }
+        String className = caller.get().getClassName();
+        String methodName = caller.get().getMethodName();
+        if (methodName.startsWith("lambda$")) {
+            // lambda$findOrCreate$0 -> findOrCreate
+            int end = methodName.indexOf('$', "lambda$".length());
+            methodName = methodName.substring("lambda$".length(), end > 0 ? end : methodName.length());
+        }
+        return className.substring(className.lastIndexOf('.') + 1).replace('$', '.') + "." + methodName;
+    }
+
+    /**
+     * Metrics of one named statement
+     */
+    static final class StatementStats {
+        final String name;
+        final OperationMetrics execution;
+        final LongAdder rows;
+
+        StatementStats(String name, MetricsRegistry registry) {
+            this.name = name;
+            this.execution = registry.operation("sql." + name);
+            this.rows = registry.counter("crudpark_sql_rows_total", "Rows returned or changed by SQL statements",
+                                         "statement", name);
+        }
+    }
+
+    /**
+     * "1=123, 2='ABC123', 3=null", with long values shortened
+     */
+    static String bindSummary(Object[] binds) {
+        StringBuilder sb = new StringBuilder();
+        int last = binds.length;
+        while (last > 0 && binds[last - 1] == null) {
+            last--;
+        }
+        for (int i = 0; i < last; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(i + 1).append('=');
+            Object value = binds[i];
+            if (value == null) {
+                sb.append("null");
+            } else if (value instanceof CharSequence) {
+                sb.append('\'').append(abbreviate(value.toString(), MAX_BIND_CHARS)).append('\'');
+            } else if (value instanceof byte[]) {
+                sb.append("byte[").append(((byte[]) value).length).append(']');
+            } else if (value instanceof Object[]) {
+                sb.append(value.getClass().getComponentType().getSimpleName())
+                  .append('[').append(((Object[]) value).length).append(']');
+            } else {
+                sb.append(abbreviate(String.valueOf(value), MAX_BIND_CHARS));
+            }
+        }
+        return sb.toString();
+    }
+
+    static String abbreviate(String text, int maxChars) {
+        return text.length() <= maxChars ? text : text.substring(0, maxChars) + "...";
+    }
+}
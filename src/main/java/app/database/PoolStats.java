@@ -0,0 +1,58 @@
+package app.database;
+
+/**
+ * Point-in-time state of the connection pool
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int waiting;
+    private final int maximumSize;
+    private final long acquireTimeouts;
+
+    public PoolStats(int active, int idle, int total, int waiting, int maximumSize, long acquireTimeouts) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.waiting = waiting;
+        this.maximumSize = maximumSize;
+        this.acquireTimeouts = acquireTimeouts;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return Threads waiting for a connection
+     */
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return Borrow attempts that timed out since startup
+     */
+    public long getAcquireTimeouts() {
+        return acquireTimeouts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Pool Stats - Active: %d, Idle: %d, Total: %d, Waiting: %d, Max: %d, Timeouts: %d",
+                             active, idle, total, waiting, maximumSize, acquireTimeouts);
+    }
+}
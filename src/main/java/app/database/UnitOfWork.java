@@ -0,0 +1,208 @@
+package app.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One pooled connection and one transaction shared by a business operation and
+ * everything it calls on the same thread.
+ * The first begin() on a thread opens it; the connection is only borrowed (and the
+ * transaction started) by the first getConnection() or DatabaseConnection.getConnection(),
+ * so an operation answered from memory never touches the pool. Nested begin() calls
+ * (a service method calling another one) join it.
+ * Only the outermost unit of work commits; a rollback() anywhere, or a nested unit of
+ * work closed without committing, makes the outermost commit roll back instead.
+ * Work that must only happen once the data is committed (cache updates) is
+ * registered with afterCommit().
+ * <pre>
+ * try (UnitOfWork uow = UnitOfWork.begin()) {
+ *     Connection conn = uow.getConnection();
+ *     ...
+ *     uow.commit();
+ * }
+ * </pre>
+ */
+public final class UnitOfWork implements AutoCloseable {
+    private static final ThreadLocal<Transaction> CURRENT = new ThreadLocal<>();
+
+    private final Transaction transaction;
+    private final boolean outermost;
+    private boolean committed;
+    private boolean closed;
+
+    private UnitOfWork(Transaction transaction, boolean outermost) {
+        this.transaction = transaction;
+        this.outermost = outermost;
+    }
+
+    /**
+     * Start a unit of work, or join the one already open on this thread
+     */
+    public static UnitOfWork begin() {
+        return begin(DatabaseConnection::getPooledConnection);
+    }
+
+    /**
+     * @param source Where the outermost unit of work borrows its connection from
+     */
+    static UnitOfWork begin(ConnectionSource source) {
+        Transaction current = CURRENT.get();
+        if (current != null) {
+            return new UnitOfWork(current, false);
+        }
+        
+        Transaction transaction = new Transaction(source);
+        CURRENT.set(transaction);
+        return new UnitOfWork(transaction, true);
+    }
+
+    /**
+     * @return true if a unit of work is open on the current thread
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Connection of the unit of work open on the current thread, borrowed on first use
+     * @return Managed connection, or null if no unit of work is open
+     * @throws SQLException if a connection cannot be obtained
+     */
+    static Connection currentConnection() throws SQLException {
+        Transaction current = CURRENT.get();
+        return current != null ? current.managed() : null;
+    }
+
+    /**
+     * The shared connection, borrowed from the pool on the first call. Closing it,
+     * committing it or changing auto-commit is ignored (the unit of work owns the
+     * transaction); rollback() marks the unit of work rollback-only.
+     * @throws SQLException if a connection cannot be obtained
+     */
+    public Connection getConnection() throws SQLException {
+        return transaction.managed();
+    }
+
+    /**
+     * Run an action once the outermost unit of work has committed
+     * (immediately after its commit, never if it rolls back)
+     */
+    public void afterCommit(Runnable action) {
+        transaction.afterCommit.add(action);
+    }
+
+    /**
+     * Commit the transaction if this is the outermost unit of work
+     * @throws SQLException if the commit fails or the transaction was marked rollback-only
+     */
+    public void commit() throws SQLException {
+        committed = true;
+        if (!outermost) {
+            return;
+        }
+        if (transaction.rollbackOnly) {
+            transaction.rollbackConnection();
+            throw new SQLException("Transaction rolled back: a nested operation failed");
+        }
+        if (transaction.connection != null) {
+            transaction.connection.commit();
+        }
+        
+        List<Runnable> actions = new ArrayList<>(transaction.afterCommit);
+        transaction.afterCommit.clear();
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    /**
+     * Roll back the transaction (marks it rollback-only when nested)
+     */
+    public void rollback() throws SQLException {
+        transaction.rollbackOnly = true;
+        if (outermost) {
+            transaction.rollbackConnection();
+        }
+    }
+
+    /**
+     * End this unit of work. A nested one that was not committed marks the
+     * transaction rollback-only; the outermost one rolls back anything not committed
+     * and returns the connection (if one was borrowed) to the pool.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!outermost) {
+            if (!committed) {
+                transaction.rollbackOnly = true;
+            }
+            return;
+        }
+        
+        CURRENT.remove();
+        if (transaction.connection == null) {
+            return;
+        }
+        try {
+            if (!committed) {
+                transaction.connection.rollback();
+            }
+        } finally {
+            transaction.connection.close();
+        }
+    }
+
+    /**
+     * Supplies the connection of an outermost unit of work
+     */
+    @FunctionalInterface
+    interface ConnectionSource {
+        Connection borrow() throws SQLException;
+    }
+
+    /**
+     * Per-thread transaction state shared by nested units of work
+     */
+    private static final class Transaction {
+        private final ConnectionSource source;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private Connection connection; // null until first borrowed
+        private Connection managed;
+        private boolean rollbackOnly;
+
+        Transaction(ConnectionSource source) {
+            this.source = source;
+        }
+
+        /**
+         * Borrow the connection and start the transaction on first use
+         */
+        Connection managed() throws SQLException {
+            if (managed != null) {
+                return managed;
+            }
+            Connection borrowed = source.borrow();
+            try {
+                borrowed.setAutoCommit(false);
+            } catch (SQLException e) {
+                borrowed.close();
+                throw e;
+            }
+            connection = borrowed;
+            managed = new ManagedConnection(borrowed, () -> rollbackOnly = true);
+            return managed;
+        }
+
+        void rollbackConnection() throws SQLException {
+            if (connection != null) {
+                connection.rollback();
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package app.exception;
+
+/**
+ * Exception thrown when an exit is attempted on a ticket that is already closed
+ */
+public class TicketClosedException extends BusinessException {
+    public TicketClosedException(String message) {
+        super(message);
+    }
+}
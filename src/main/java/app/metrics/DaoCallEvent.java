@@ -0,0 +1,46 @@
+package app.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One execution of a DAO prepared statement, recorded by the JDBC instrumentation for
+ * every statement on a pooled connection. The operation is the DAO method that prepared
+ * it (e.g. TicketDAO.closeTicket).
+ * Unlike the parking events it carries no plate or ticket, which are not known at this
+ * level; the enclosing entry or exit event is found by thread and time.
+ */
+@Name("crudpark.DaoCall")
+@Label("DAO Call")
+@Category({"CrudPark", "Database"})
+public class DaoCallEvent extends Event {
+    @Label("Operation")
+    private String operation;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * End the event and write it if a recording has it enabled
+     */
+    public void complete(Outcome outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome.getLabel();
+            commit();
+        }
+    }
+
+    /**
+     * End the event with the outcome of the exception it failed with
+     */
+    public void fail(Throwable failure) {
+        complete(Outcome.of(failure));
+    }
+}
@@ -0,0 +1,25 @@
+package app.metrics;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * ParkingService.previewExitByPlate and previewExitById
+ */
+@Name("crudpark.ExitPreview")
+@Label("Exit Preview")
+public class ExitPreviewEvent extends ParkingEvent {
+    @Label("Parking Duration (minutes)")
+    private long durationMinutes;
+
+    @Label("Amount (cents)")
+    private long amountCents;
+
+    public void setDurationMinutes(long durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+}
@@ -0,0 +1,311 @@
+package app.metrics;
+
+import app.util.Logger;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * In-process metrics: one OperationMetrics (latency histogram and outcome counters) per
+ * named operation, labelled counters, and gauges read on export.
+ * Operations are registered as MBeans under app.metrics, and the whole registry can be
+ * served as Prometheus text on a loopback HTTP port and/or dumped to a file periodically
+ * (configured in metrics.properties, started with startExporters()).
+ */
+public class MetricsRegistry {
+    private static final Logger logger = Logger.getLogger(MetricsRegistry.class);
+    private static final String JMX_DOMAIN = "app.metrics";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry(loadProperties());
+
+    private final Properties config;
+    private final boolean jmxEnabled;
+    private final Map<String, OperationMetrics> operations = new ConcurrentSkipListMap<>();
+    private final Map<String, CounterFamily> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+    private HttpServer httpServer;
+    private ScheduledExecutorService dumpScheduler;
+
+    /**
+     * @param config metrics.* settings (metrics.jmx, metrics.http.port, metrics.dump.file, metrics.dump.seconds)
+     */
+    public MetricsRegistry(Properties config) {
+        this.config = config;
+        this.jmxEnabled = Boolean.parseBoolean(config.getProperty("metrics.jmx", "true"));
+    }
+
+    /**
+     * Registry shared by the application, configured from metrics.properties
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    private static Properties loadProperties() {
+        Properties prop = new Properties();
+        try (InputStream input = MetricsRegistry.class.getClassLoader().getResourceAsStream("metrics.properties")) {
+            if (input != null) {
+                prop.load(input);
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading metrics properties: " + e.getMessage());
+        }
+        return prop;
+    }
+
+    /**
+     * Metrics of an operation, created on first use
+     * @param name Dotted operation name (e.g. service.processEntry, dao.ticket.close)
+     */
+    public OperationMetrics operation(String name) {
+        OperationMetrics metrics = operations.get(name);
+        if (metrics != null) {
+            return metrics;
+        }
+        OperationMetrics created = new OperationMetrics(name);
+        metrics = operations.putIfAbsent(name, created);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (jmxEnabled) {
+            registerMBean(created, "type=Operation,name=" + name);
+        }
+        return created;
+    }
+
+    /**
+     * Counter with one label, created on first use
+     * @param name Prometheus metric name (e.g. crudpark_sql_rows_total)
+     */
+    public LongAdder counter(String name, String help, String labelName, String labelValue) {
+        CounterFamily family = counters.computeIfAbsent(name, key -> new CounterFamily(help, labelName));
+        return family.values.computeIfAbsent(labelValue, key -> new LongAdder());
+    }
+
+    /**
+     * Setting from the registry's configuration (metrics.properties for the default registry)
+     */
+    public String getProperty(String key, String defaultValue) {
+        return config.getProperty(key, defaultValue).trim();
+    }
+
+    /**
+     * Register a value read on every export (replaces a gauge of the same name)
+     * @param name Prometheus metric name (e.g. crudpark_db_pool_active_connections)
+     */
+    public void gauge(String name, String help, DoubleSupplier value) {
+        gauges.put(name, new Gauge(help, value));
+    }
+
+    public void removeGauge(String name) {
+        gauges.remove(name);
+    }
+
+    private void registerMBean(Object bean, String properties) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":" + properties);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(bean, objectName);
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered concurrently by another registry: keep that one
+        } catch (JMException e) {
+            logger.warn("Could not register MBean {}: {}", properties, e.getMessage());
+        }
+    }
+
+    /**
+     * Current metrics in the Prometheus text exposition format. Latencies are exported
+     * as summaries in seconds, outcomes as counters.
+     */
+    public String toPrometheusText() {
+        StringBuilder sb = new StringBuilder(4096);
+        if (!operations.isEmpty()) {
+            sb.append("# HELP crudpark_operation_duration_seconds Latency of service operations and DAO calls\n");
+            sb.append("# TYPE crudpark_operation_duration_seconds summary\n");
+            for (OperationMetrics metrics : operations.values()) {
+                LatencyHistogram.Snapshot latency = metrics.getLatency();
+                String label = "operation=\"" + escape(metrics.getName()) + "\"";
+                for (double quantile : QUANTILES) {
+                    sb.append("crudpark_operation_duration_seconds{").append(label)
+                      .append(",quantile=\"").append(quantile).append("\"} ")
+                      .append(seconds(latency.getValueAtPercentile(quantile * 100))).append('\n');
+                }
+                sb.append("crudpark_operation_duration_seconds_sum{").append(label).append("} ")
+                  .append(seconds(latency.getSumNanos())).append('\n');
+                sb.append("crudpark_operation_duration_seconds_count{").append(label).append("} ")
+                  .append(latency.getCount()).append('\n');
+            }
+            sb.append("# HELP crudpark_operation_total Completed operations by outcome\n");
+            sb.append("# TYPE crudpark_operation_total counter\n");
+            for (OperationMetrics metrics : operations.values()) {
+                for (Outcome outcome : Outcome.values()) {
+                    sb.append("crudpark_operation_total{operation=\"").append(escape(metrics.getName()))
+                      .append("\",outcome=\"").append(outcome.getLabel()).append("\"} ")
+                      .append(metrics.getCount(outcome)).append('\n');
+                }
+            }
+        }
+        for (Map.Entry<String, CounterFamily> entry : counters.entrySet()) {
+            CounterFamily family = entry.getValue();
+            sb.append("# HELP ").append(entry.getKey()).append(' ').append(family.help).append('\n');
+            sb.append("# TYPE ").append(entry.getKey()).append(" counter\n");
+            for (Map.Entry<String, LongAdder> value : family.values.entrySet()) {
+                sb.append(entry.getKey()).append('{').append(family.labelName).append("=\"")
+                  .append(escape(value.getKey())).append("\"} ").append(value.getValue().sum()).append('\n');
+            }
+        }
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            sb.append("# HELP ").append(entry.getKey()).append(' ').append(entry.getValue().help).append('\n');
+            sb.append("# TYPE ").append(entry.getKey()).append(" gauge\n");
+            sb.append(entry.getKey()).append(' ').append(format(entry.getValue().read())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write the Prometheus text to a file, replacing it atomically
+     */
+    public void dumpTo(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temp, toPrometheusText(), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Start the HTTP endpoint (metrics.http.port, 0 = off) and the periodic file dump
+     * (metrics.dump.file every metrics.dump.seconds, empty file = off)
+     */
+    public synchronized void startExporters() {
+        int port = Integer.parseInt(config.getProperty("metrics.http.port", "0").trim());
+        if (port > 0 && httpServer == null) {
+            try {
+                httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+                httpServer.createContext("/metrics", exchange -> {
+                    byte[] body = toPrometheusText().getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+                httpServer.start();
+                logger.info("Metrics endpoint: http://{}:{}/metrics",
+                            InetAddress.getLoopbackAddress().getHostAddress(), port);
+            } catch (IOException e) {
+                logger.warn("Metrics endpoint unavailable on port {}: {}", port, e.getMessage());
+                httpServer = null;
+            }
+        }
+
+        String dumpFile = config.getProperty("metrics.dump.file", "").trim();
+        long seconds = Long.parseLong(config.getProperty("metrics.dump.seconds", "60").trim());
+        if (!dumpFile.isEmpty() && seconds > 0 && dumpScheduler == null) {
+            Path file = Paths.get(dumpFile);
+            dumpScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumpScheduler.scheduleWithFixedDelay(() -> dump(file), seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stop the exporters, writing the dump file one last time
+     */
+    public synchronized void stopExporters() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (dumpScheduler != null) {
+            dumpScheduler.shutdownNow();
+            dumpScheduler = null;
+            dump(Paths.get(config.getProperty("metrics.dump.file").trim()));
+        }
+    }
+
+    private void dump(Path file) {
+        try {
+            dumpTo(file);
+        } catch (IOException e) {
+            logger.warn("Could not write metrics to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return format(nanos / 1e9);
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return String.valueOf((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class CounterFamily {
+        private final String help;
+        private final String labelName;
+        private final Map<String, LongAdder> values = new ConcurrentSkipListMap<>();
+
+        CounterFamily(String help, String labelName) {
+            this.help = help;
+            this.labelName = labelName;
+        }
+    }
+
+    private static final class Gauge {
+        private final String help;
+        private final DoubleSupplier value;
+
+        Gauge(String help, DoubleSupplier value) {
+            this.help = help;
+            this.value = value;
+        }
+
+        double read() {
+            try {
+                return value.getAsDouble();
+            } catch (RuntimeException e) {
+                return Double.NaN;
+            }
+        }
+    }
+}
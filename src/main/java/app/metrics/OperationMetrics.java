@@ -0,0 +1,135 @@
+package app.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counters of one operation (a service method or a DAO call).
+ * Usage:
+ * <pre>
+ * long start = System.nanoTime();
+ * try {
+ *     ...
+ *     metrics.success(start);
+ * } catch (Exception e) {
+ *     metrics.failure(start, e);
+ *     throw e;
+ * }
+ * </pre>
+ * or {@code metrics.time(() -> dao.find(...))} for a single call.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    /**
+     * A timed call that may throw one checked exception type
+     */
+    @FunctionalInterface
+    public interface TimedCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder[] outcomes = new LongAdder[Outcome.values().length];
+
+    OperationMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record an operation that started at startNanos (System.nanoTime()) and ended now
+     */
+    public void record(long startNanos, Outcome outcome) {
+        latency.record(System.nanoTime() - startNanos);
+        outcomes[outcome.ordinal()].increment();
+    }
+
+    public void success(long startNanos) {
+        record(startNanos, Outcome.SUCCESS);
+    }
+
+    public void failure(long startNanos, Throwable failure) {
+        record(startNanos, Outcome.of(failure));
+    }
+
+    /**
+     * Run and time a call, classifying the exception it throws (if any)
+     */
+    public <T, E extends Exception> T time(TimedCall<T, E> call) throws E {
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            success(start);
+            return result;
+        } catch (Exception e) {
+            failure(start, e);
+            throw e;
+        }
+    }
+
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency.snapshot();
+    }
+
+    public long getCount(Outcome outcome) {
+        return outcomes[outcome.ordinal()].sum();
+    }
+
+    // OperationMetricsMXBean
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        long total = 0;
+        for (LongAdder outcome : outcomes) {
+            total += outcome.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getSuccessCount() {
+        return getCount(Outcome.SUCCESS);
+    }
+
+    @Override
+    public long getBusinessErrorCount() {
+        return getCount(Outcome.BUSINESS_ERROR);
+    }
+
+    @Override
+    public long getDataErrorCount() {
+        return getCount(Outcome.DATA_ERROR);
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.snapshot().getMeanNanos() / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.snapshot().getValueAtPercentileMicros(50);
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.snapshot().getValueAtPercentileMicros(99);
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.snapshot().getValueAtPercentileMicros(99.9);
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.snapshot().getMaxNanos() / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+}
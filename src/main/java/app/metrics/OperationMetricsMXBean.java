@@ -0,0 +1,26 @@
+package app.metrics;
+
+/**
+ * JMX view of one operation (app.metrics:type=Operation,name=...); latencies in microseconds
+ */
+public interface OperationMetricsMXBean {
+    String getName();
+
+    long getCount();
+
+    long getSuccessCount();
+
+    long getBusinessErrorCount();
+
+    long getDataErrorCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
@@ -0,0 +1,43 @@
+package app.metrics;
+
+import app.exception.AuthenticationException;
+import app.exception.BusinessException;
+import app.exception.DataAccessException;
+import app.exception.NotFoundException;
+import app.exception.ValidationException;
+
+/**
+ * How an operation ended
+ */
+public enum Outcome {
+    SUCCESS("success"),
+    BUSINESS_ERROR("business_error"),   // Rejected by a business rule (validation, not found, ...)
+    DATA_ERROR("data_error");           // Database failure or anything unexpected
+
+    private final String label;
+
+    Outcome(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return Name used in exported metrics
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Classify the exception an operation ended with
+     */
+    public static Outcome of(Throwable failure) {
+        if (failure instanceof DataAccessException) {
+            return DATA_ERROR;
+        }
+        if (failure instanceof BusinessException || failure instanceof NotFoundException
+                || failure instanceof ValidationException || failure instanceof AuthenticationException) {
+            return BUSINESS_ERROR;
+        }
+        return DATA_ERROR;
+    }
+}
@@ -0,0 +1,67 @@
+package app.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Java Flight Recorder event of a parking operation, so a recording can be sliced by
+ * business operation instead of by JDBC frame. Usage:
+ * <pre>
+ * VehicleExitEvent event = new VehicleExitEvent();
+ * event.begin();
+ * try {
+ *     ...
+ *     event.complete(Outcome.SUCCESS);
+ * } catch (Exception e) {
+ *     event.fail(e);
+ *     throw e;
+ * }
+ * </pre>
+ * Without a recording, begin/complete only check a flag and nothing is written.
+ * Fields are protected because JFR ignores private fields of a superclass.
+ */
+@Category("CrudPark")
+public abstract class ParkingEvent extends Event {
+    @Label("License Plate")
+    protected String plate;
+
+    @Label("Ticket ID")
+    protected int ticketId;
+
+    @Label("Vehicle Type")
+    protected String vehicleType;
+
+    @Label("Outcome")
+    protected String outcome;
+
+    public void setPlate(String plate) {
+        this.plate = plate;
+    }
+
+    public void setTicketId(int ticketId) {
+        this.ticketId = ticketId;
+    }
+
+    public void setVehicleType(String vehicleType) {
+        this.vehicleType = vehicleType;
+    }
+
+    /**
+     * End the event and write it if a recording has it enabled
+     */
+    public void complete(Outcome outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome.getLabel();
+            commit();
+        }
+    }
+
+    /**
+     * End the event with the outcome of the exception it failed with
+     */
+    public void fail(Throwable failure) {
+        complete(Outcome.of(failure));
+    }
+}
@@ -0,0 +1,27 @@
+package app.metrics;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * QR code generated as PNG bytes or saved to a file
+ */
+@Name("crudpark.QRCode")
+@Label("QR Code Generation")
+public class QRCodeEvent extends ParkingEvent {
+    @Label("Saved To File")
+    private boolean savedToFile;
+
+    @Label("PNG Size")
+    @DataAmount
+    private long bytes;
+
+    public void setSavedToFile(boolean savedToFile) {
+        this.savedToFile = savedToFile;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+}
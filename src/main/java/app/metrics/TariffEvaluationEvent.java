@@ -0,0 +1,39 @@
+package app.metrics;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Pricing of one exit against a compiled tariff schedule
+ */
+@Name("crudpark.TariffEvaluation")
+@Label("Tariff Evaluation")
+public class TariffEvaluationEvent extends ParkingEvent {
+    @Label("Ticket Type")
+    private String ticketType;
+
+    @Label("Parking Duration (minutes)")
+    private long durationMinutes;
+
+    @Label("Amount (cents)")
+    private long amountCents;
+
+    @Label("Free Reason")
+    private String freeReason;
+
+    public void setTicketType(String ticketType) {
+        this.ticketType = ticketType;
+    }
+
+    public void setDurationMinutes(long durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+
+    public void setFreeReason(String freeReason) {
+        this.freeReason = freeReason;
+    }
+}
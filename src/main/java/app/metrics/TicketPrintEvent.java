@@ -0,0 +1,22 @@
+package app.metrics;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Printing (rendering and spooling) of an entry ticket or exit receipt,
+ * after the printer was chosen
+ */
+@Name("crudpark.TicketPrint")
+@Label("Ticket Print")
+public class TicketPrintEvent extends ParkingEvent {
+    @Label("Document")
+    private String document;
+
+    /**
+     * @param document "entry" or "exit"
+     */
+    public void setDocument(String document) {
+        this.document = document;
+    }
+}
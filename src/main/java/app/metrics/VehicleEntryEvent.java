@@ -0,0 +1,18 @@
+package app.metrics;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * ParkingService.processEntry
+ */
+@Name("crudpark.VehicleEntry")
+@Label("Vehicle Entry")
+public class VehicleEntryEvent extends ParkingEvent {
+    @Label("Operator ID")
+    private int operatorId;
+
+    public void setOperatorId(int operatorId) {
+        this.operatorId = operatorId;
+    }
+}
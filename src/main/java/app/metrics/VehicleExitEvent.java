@@ -0,0 +1,32 @@
+package app.metrics;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * ParkingService.processExitWithPayment
+ */
+@Name("crudpark.VehicleExit")
+@Label("Vehicle Exit")
+public class VehicleExitEvent extends ParkingEvent {
+    @Label("Payment Method")
+    private String paymentMethod;
+
+    @Label("Parking Duration (minutes)")
+    private long durationMinutes;
+
+    @Label("Amount (cents)")
+    private long amountCents;
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public void setDurationMinutes(long durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+}
@@ -1,6 +1,7 @@
 package app.model;
 
 import java.sql.Timestamp;
+import java.util.List;
 
 /**
  * Rate entity
@@ -15,9 +16,26 @@ public class Rate {
     private Timestamp effectiveFrom;
     private boolean isActive;
     private String vehicleType;
+    private List<RateWindow> windows = List.of();
 
     public Rate() {}
 
+    /**
+     * Copy constructor
+     */
+    public Rate(Rate other) {
+        this.id = other.id;
+        this.rateName = other.rateName;
+        this.hourlyRate = other.hourlyRate;
+        this.fractionRate = other.fractionRate;
+        this.dailyCap = other.dailyCap;
+        this.gracePeriodMinutes = other.gracePeriodMinutes;
+        this.effectiveFrom = other.effectiveFrom;
+        this.isActive = other.isActive;
+        this.vehicleType = other.vehicleType;
+        this.windows = other.windows;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
@@ -90,4 +108,15 @@ public class Rate {
     public void setVehicleType(String vehicleType) {
         this.vehicleType = vehicleType;
     }
+
+    /**
+     * @return Time-of-day / day-of-week windows of this rate (never null)
+     */
+    public List<RateWindow> getWindows() {
+        return windows;
+    }
+
+    public void setWindows(List<RateWindow> windows) {
+        this.windows = windows != null ? List.copyOf(windows) : List.of();
+    }
 }
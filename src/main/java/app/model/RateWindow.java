@@ -0,0 +1,92 @@
+package app.model;
+
+/**
+ * Rate window entity - a time-of-day / day-of-week price that overrides
+ * the hourly and fraction rate of its rate (night, weekend, event)
+ */
+public class RateWindow {
+    private int id;
+    private int rateId;
+    private int daysOfWeek;
+    private int startMinute;
+    private int endMinute;
+    private double hourlyRate;
+    private double fractionRate;
+    private int priority;
+
+    public RateWindow() {}
+
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getRateId() {
+        return rateId;
+    }
+
+    public void setRateId(int rateId) {
+        this.rateId = rateId;
+    }
+
+    /**
+     * @return Bitmask of the days the window starts on (1 = Monday ... 64 = Sunday)
+     */
+    public int getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public void setDaysOfWeek(int daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+
+    /**
+     * @return Minute of day the window starts (inclusive)
+     */
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    public void setStartMinute(int startMinute) {
+        this.startMinute = startMinute;
+    }
+
+    /**
+     * @return Minute of day the window ends (exclusive), wraps past midnight if not after the start
+     */
+    public int getEndMinute() {
+        return endMinute;
+    }
+
+    public void setEndMinute(int endMinute) {
+        this.endMinute = endMinute;
+    }
+
+    public double getHourlyRate() {
+        return hourlyRate;
+    }
+
+    public void setHourlyRate(double hourlyRate) {
+        this.hourlyRate = hourlyRate;
+    }
+
+    public double getFractionRate() {
+        return fractionRate;
+    }
+
+    public void setFractionRate(double fractionRate) {
+        this.fractionRate = fractionRate;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+}
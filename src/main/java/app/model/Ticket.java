@@ -24,6 +24,25 @@ public class Ticket {
 
     public Ticket() {}
 
+    /**
+     * Copy constructor
+     */
+    public Ticket(Ticket other) {
+        this.id = other.id;
+        this.folio = other.folio;
+        this.vehicleId = other.vehicleId;
+        this.operatorId = other.operatorId;
+        this.subscriptionId = other.subscriptionId;
+        this.entryDatetime = other.entryDatetime;
+        this.exitDatetime = other.exitDatetime;
+        this.ticketType = other.ticketType;
+        this.status = other.status;
+        this.parkingDurationMinutes = other.parkingDurationMinutes;
+        this.qrCodeData = other.qrCodeData;
+        this.licensePlate = other.licensePlate;
+        this.vehicleType = other.vehicleType;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
@@ -0,0 +1,133 @@
+package app.pricing;
+
+import app.model.Rate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable, compiled form of a Rate with all amounts in integer cents.
+ * The cost of a stay is a closed-form function of its duration: after the grace
+ * period, whole hours at the hourly rate plus one fraction for any remaining minutes,
+ * with the daily cap applied to each 24h window counted from entry.
+ * Evaluation is constant time and does not allocate.
+ */
+public final class Tariff {
+    /** Marker for "no daily cap" */
+    public static final long NO_CAP = -1;
+    
+    static final int MINUTES_PER_HOUR = 60;
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int rateId;
+    private final String rateName;
+    private final long hourlyCents;
+    private final long fractionCents;
+    private final long dailyCapCents;
+    private final int gracePeriodMinutes;
+
+    public Tariff(int rateId, String rateName, long hourlyCents, long fractionCents,
+                  long dailyCapCents, int gracePeriodMinutes) {
+        this.rateId = rateId;
+        this.rateName = rateName;
+        this.hourlyCents = hourlyCents;
+        this.fractionCents = fractionCents;
+        this.dailyCapCents = dailyCapCents;
+        this.gracePeriodMinutes = gracePeriodMinutes;
+    }
+
+    /**
+     * Compile a rate read from the database (numeric(10,2) amounts) into cents
+     */
+    public static Tariff compile(Rate rate) {
+        return new Tariff(rate.getId(), rate.getRateName(),
+                          toCents(rate.getHourlyRate()),
+                          toCents(rate.getFractionRate()),
+                          rate.getDailyCap() != null ? toCents(rate.getDailyCap()) : NO_CAP,
+                          rate.getGracePeriodMinutes());
+    }
+
+    /**
+     * Cost of a stay
+     * @param durationMinutes Total parking duration in minutes
+     * @return Amount to charge in cents (0 inside the grace period)
+     */
+    public long costCents(long durationMinutes) {
+        if (durationMinutes <= gracePeriodMinutes) {
+            return 0;
+        }
+        long chargeableMinutes = durationMinutes - gracePeriodMinutes;
+        long blocks = Math.ceilDiv(chargeableMinutes, MINUTES_PER_HOUR);
+        long lastBlockCents = chargeableMinutes % MINUTES_PER_HOUR > 0 ? fractionCents : hourlyCents;
+        if (dailyCapCents == NO_CAP) {
+            return (blocks - 1) * hourlyCents + lastBlockCents;
+        }
+        
+        // Hour blocks start at grace + 60k minutes after entry; each belongs to the
+        // 24h window its start falls in. Every window between the first and the last
+        // holds exactly 24 full blocks.
+        long firstDay = gracePeriodMinutes / MINUTES_PER_DAY;
+        long lastDay = (gracePeriodMinutes + (blocks - 1) * MINUTES_PER_HOUR) / MINUTES_PER_DAY;
+        if (firstDay == lastDay) {
+            return Math.min((blocks - 1) * hourlyCents + lastBlockCents, dailyCapCents);
+        }
+        long firstDayBlocks = blocksStartingBefore((firstDay + 1) * MINUTES_PER_DAY);
+        long middleDays = lastDay - firstDay - 1;
+        long lastDayBlocks = blocks - firstDayBlocks - middleDays * 24;
+        return Math.min(firstDayBlocks * hourlyCents, dailyCapCents)
+             + middleDays * Math.min(24 * hourlyCents, dailyCapCents)
+             + Math.min((lastDayBlocks - 1) * hourlyCents + lastBlockCents, dailyCapCents);
+    }
+
+    /**
+     * Number of hour blocks that start before the given offset (minutes after entry)
+     */
+    long blocksStartingBefore(long offsetMinutes) {
+        return Math.max(0, Math.ceilDiv(offsetMinutes - gracePeriodMinutes, MINUTES_PER_HOUR));
+    }
+
+    /**
+     * @return true if a stay of this duration is inside the grace period
+     */
+    public boolean isWithinGracePeriod(long durationMinutes) {
+        return durationMinutes <= gracePeriodMinutes;
+    }
+
+    public int getRateId() {
+        return rateId;
+    }
+
+    public String getRateName() {
+        return rateName;
+    }
+
+    public long getHourlyCents() {
+        return hourlyCents;
+    }
+
+    public long getFractionCents() {
+        return fractionCents;
+    }
+
+    public long getDailyCapCents() {
+        return dailyCapCents;
+    }
+
+    public int getGracePeriodMinutes() {
+        return gracePeriodMinutes;
+    }
+
+    /**
+     * Convert a money amount to cents, rounding half up
+     */
+    public static long toCents(double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Convert cents to a money amount with two decimals
+     */
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,185 @@
+package app.pricing;
+
+import app.model.Rate;
+import app.model.RateWindow;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A rate with its time-of-day / day-of-week windows compiled into a weekly interval
+ * index: the week (in minutes, Monday 00:00 = 0) is cut at every window boundary and
+ * each interval carries the hourly and fraction price in effect there.
+ * A stay is priced hour block by hour block (a block is charged at the price in effect
+ * when it starts), but blocks are counted per interval, so pricing walks only the
+ * tariff boundaries and 24h cap windows the stay crosses.
+ */
+public final class TariffSchedule {
+    static final int MINUTES_PER_WEEK = 7 * Tariff.MINUTES_PER_DAY;
+
+    private final Tariff base;
+    private final int[] boundaries;
+    private final long[] hourlyCents;
+    private final long[] fractionCents;
+
+    private TariffSchedule(Tariff base, int[] boundaries, long[] hourlyCents, long[] fractionCents) {
+        this.base = base;
+        this.boundaries = boundaries;
+        this.hourlyCents = hourlyCents;
+        this.fractionCents = fractionCents;
+    }
+
+    /**
+     * Compile a rate and its windows
+     */
+    public static TariffSchedule compile(Rate rate) {
+        Tariff base = Tariff.compile(rate);
+        List<RateWindow> windows = rate.getWindows();
+        
+        TreeSet<Integer> cuts = new TreeSet<>();
+        cuts.add(0);
+        cuts.add(MINUTES_PER_WEEK);
+        for (RateWindow window : windows) {
+            for (int day = 0; day < 7; day++) {
+                if ((window.getDaysOfWeek() & (1 << day)) != 0) {
+                    int start = day * Tariff.MINUTES_PER_DAY + window.getStartMinute();
+                    cuts.add(start);
+                    cuts.add((start + windowLength(window)) % MINUTES_PER_WEEK);
+                }
+            }
+        }
+        
+        int[] boundaries = cuts.stream().mapToInt(Integer::intValue).toArray();
+        int intervals = boundaries.length - 1;
+        long[] hourly = new long[intervals];
+        long[] fraction = new long[intervals];
+        for (int i = 0; i < intervals; i++) {
+            RateWindow winner = null;
+            for (RateWindow window : windows) {
+                if (covers(window, boundaries[i]) 
+                        && (winner == null || window.getPriority() > winner.getPriority())) {
+                    winner = window;
+                }
+            }
+            hourly[i] = winner != null ? Tariff.toCents(winner.getHourlyRate()) : base.getHourlyCents();
+            fraction[i] = winner != null ? Tariff.toCents(winner.getFractionRate()) : base.getFractionCents();
+        }
+        return new TariffSchedule(base, boundaries, hourly, fraction);
+    }
+
+    /**
+     * @return The rate's own prices, grace period and daily cap
+     */
+    public Tariff getBase() {
+        return base;
+    }
+
+    /**
+     * @return true if the rate has no windows (flat price all week)
+     */
+    public boolean isFlat() {
+        return hourlyCents.length == 1;
+    }
+
+    /**
+     * Cost of a stay, using the local time zone for window boundaries
+     * @param entryMillis Entry time (epoch millis)
+     * @param durationMinutes Total parking duration in minutes
+     * @return Amount to charge in cents
+     */
+    public long costCents(long entryMillis, long durationMinutes) {
+        return costCents(entryMillis, durationMinutes, ZoneId.systemDefault());
+    }
+
+    /**
+     * Cost of a stay
+     * @param entryMillis Entry time (epoch millis)
+     * @param durationMinutes Total parking duration in minutes
+     * @param zone Time zone the windows are defined in
+     * @return Amount to charge in cents
+     */
+    public long costCents(long entryMillis, long durationMinutes, ZoneId zone) {
+        if (isFlat()) {
+            return base.costCents(durationMinutes);
+        }
+        if (base.isWithinGracePeriod(durationMinutes)) {
+            return 0;
+        }
+        
+        LocalDateTime entry = LocalDateTime.ofInstant(Instant.ofEpochMilli(entryMillis), zone);
+        long entryMinuteOfWeek = (entry.getDayOfWeek().getValue() - 1) * Tariff.MINUTES_PER_DAY
+                               + entry.getHour() * 60 + entry.getMinute();
+        
+        long grace = base.getGracePeriodMinutes();
+        long chargeableMinutes = durationMinutes - grace;
+        long blocks = Math.ceilDiv(chargeableMinutes, Tariff.MINUTES_PER_HOUR);
+        boolean partialLastBlock = chargeableMinutes % Tariff.MINUTES_PER_HOUR > 0;
+        // Only block starts matter: walk [grace, last block start]
+        long end = grace + (blocks - 1) * Tariff.MINUTES_PER_HOUR + 1;
+        long cap = base.getDailyCapCents();
+        
+        long total = 0;
+        long dayCents = 0;
+        long offset = grace;
+        while (offset < end) {
+            int minuteOfWeek = (int) ((entryMinuteOfWeek + offset) % MINUTES_PER_WEEK);
+            int interval = intervalAt(minuteOfWeek);
+            long nextTariff = offset + (boundaries[interval + 1] - minuteOfWeek);
+            long nextDay = (offset / Tariff.MINUTES_PER_DAY + 1) * Tariff.MINUTES_PER_DAY;
+            long segmentEnd = Math.min(Math.min(nextTariff, nextDay), end);
+            
+            long blocksInSegment = base.blocksStartingBefore(segmentEnd) - base.blocksStartingBefore(offset);
+            if (segmentEnd == end && partialLastBlock) {
+                blocksInSegment--;
+                dayCents += fractionCents[interval];
+            }
+            dayCents += blocksInSegment * hourlyCents[interval];
+            
+            if (segmentEnd == nextDay || segmentEnd == end) {
+                total += cap != Tariff.NO_CAP ? Math.min(dayCents, cap) : dayCents;
+                dayCents = 0;
+            }
+            offset = segmentEnd;
+        }
+        return total;
+    }
+
+    /**
+     * Index of the interval containing a minute of the week
+     */
+    private int intervalAt(int minuteOfWeek) {
+        int low = 0;
+        int high = boundaries.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (boundaries[mid] <= minuteOfWeek) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static int windowLength(RateWindow window) {
+        return window.getEndMinute() > window.getStartMinute()
+            ? window.getEndMinute() - window.getStartMinute()
+            : Tariff.MINUTES_PER_DAY - window.getStartMinute() + window.getEndMinute();
+    }
+
+    private static boolean covers(RateWindow window, int minuteOfWeek) {
+        for (int day = 0; day < 7; day++) {
+            if ((window.getDaysOfWeek() & (1 << day)) != 0) {
+                int start = day * Tariff.MINUTES_PER_DAY + window.getStartMinute();
+                int sinceStart = Math.floorMod(minuteOfWeek - start, MINUTES_PER_WEEK);
+                if (sinceStart < windowLength(window)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
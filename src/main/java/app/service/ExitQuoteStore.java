@@ -0,0 +1,144 @@
+package app.service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived exit quotes issued by the exit previews. Committing an exit with the
+ * quote's token reuses the previewed price instead of pricing the ticket again, as long
+ * as the quote is younger than the staleness window and the rate table has not changed.
+ * Tokens are single use.
+ */
+public class ExitQuoteStore {
+    public static final long DEFAULT_VALIDITY_MILLIS = 120_000;
+
+    /**
+     * Price captured by a preview
+     */
+    public static final class ExitQuote {
+        private final String token;
+        private final int ticketId;
+        private final long rateVersion;
+        private final int durationMinutes;
+        private final long amountCents;
+        private final boolean isFree;
+        private final String freeReason;
+        private final long issuedAtNanos;
+
+        ExitQuote(String token, int ticketId, long rateVersion, int durationMinutes, long amountCents,
+                  boolean isFree, String freeReason, long issuedAtNanos) {
+            this.token = token;
+            this.ticketId = ticketId;
+            this.rateVersion = rateVersion;
+            this.durationMinutes = durationMinutes;
+            this.amountCents = amountCents;
+            this.isFree = isFree;
+            this.freeReason = freeReason;
+            this.issuedAtNanos = issuedAtNanos;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public int getTicketId() {
+            return ticketId;
+        }
+
+        public long getRateVersion() {
+            return rateVersion;
+        }
+
+        public int getDurationMinutes() {
+            return durationMinutes;
+        }
+
+        public long getAmountCents() {
+            return amountCents;
+        }
+
+        public boolean isFree() {
+            return isFree;
+        }
+
+        public String getFreeReason() {
+            return freeReason;
+        }
+    }
+
+    private final Map<String, ExitQuote> quotes = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+    private volatile long validityNanos;
+
+    public ExitQuoteStore() {
+        this(DEFAULT_VALIDITY_MILLIS);
+    }
+
+    public ExitQuoteStore(long validityMillis) {
+        this(validityMillis, System::nanoTime);
+    }
+
+    ExitQuoteStore(long validityMillis, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.validityNanos = TimeUnit.MILLISECONDS.toNanos(validityMillis);
+    }
+
+    /**
+     * Change the staleness window (applies to quotes already issued too)
+     */
+    public void setValidityMillis(long validityMillis) {
+        this.validityNanos = TimeUnit.MILLISECONDS.toNanos(validityMillis);
+    }
+
+    public long getValidityMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(validityNanos);
+    }
+
+    /**
+     * Record a quote
+     * @return Token to present when committing the exit
+     */
+    public String issue(int ticketId, long rateVersion, int durationMinutes, long amountCents,
+                        boolean isFree, String freeReason) {
+        long now = nanoClock.getAsLong();
+        quotes.values().removeIf(quote -> isExpired(quote, now));
+        
+        String token = UUID.randomUUID().toString();
+        quotes.put(token, new ExitQuote(token, ticketId, rateVersion, durationMinutes, amountCents,
+                                        isFree, freeReason, now));
+        return token;
+    }
+
+    /**
+     * Consume a quote
+     * @param token Token returned by issue()
+     * @param ticketId Ticket being closed (must be the quoted one)
+     * @param rateVersion Current rate table version (must be the quoted one)
+     * @return The quote, or null if unknown, already used, stale or for another ticket/rate version
+     */
+    public ExitQuote take(String token, int ticketId, long rateVersion) {
+        if (token == null) {
+            return null;
+        }
+        ExitQuote quote = quotes.remove(token);
+        if (quote == null || quote.ticketId != ticketId || quote.rateVersion != rateVersion
+                || isExpired(quote, nanoClock.getAsLong())) {
+            return null;
+        }
+        return quote;
+    }
+
+    /**
+     * @return Number of quotes held (including expired ones not yet purged)
+     */
+    public int size() {
+        return quotes.size();
+    }
+
+    private boolean isExpired(ExitQuote quote, long nowNanos) {
+        return nowNanos - quote.issuedAtNanos > validityNanos;
+    }
+}
@@ -1,18 +1,42 @@
 package app.service;
 
+import app.cache.OpenTicketIndex;
+import app.cache.RateTable;
 import app.dao.*;
 import app.database.DatabaseConnection;
+import app.database.UnitOfWork;
 import app.exception.BusinessException;
 import app.exception.DataAccessException;
 import app.exception.NotFoundException;
-import app.model.Rate;
+import app.exception.TicketClosedException;
+import app.metrics.ExitPreviewEvent;
+import app.metrics.MetricsRegistry;
+import app.metrics.OperationMetrics;
+import app.metrics.Outcome;
+import app.metrics.TariffEvaluationEvent;
+import app.metrics.VehicleEntryEvent;
+import app.metrics.VehicleExitEvent;
 import app.model.Ticket;
 import app.model.Vehicle;
+import app.pricing.Tariff;
+import app.pricing.TariffSchedule;
+import app.util.LogFields;
 import app.util.Logger;
+import app.util.QRBackupPipeline;
 import app.util.QRCodeGenerator;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -23,20 +47,116 @@ public class ParkingService {
     private static final Pattern CAR_PATTERN = Pattern.compile("^[A-Z]{3}\\d{3}$");
     private static final Pattern MOTORCYCLE_PATTERN = Pattern.compile("^[A-Z]{3}\\d{2}[A-Z]$");
 
+    // Latency and outcome of the hot operations and of the DAO calls inside them
+    private static final MetricsRegistry metrics = MetricsRegistry.getDefault();
+    private static final OperationMetrics ENTRY_METRICS = metrics.operation("service.processEntry");
+    private static final OperationMetrics EXIT_METRICS = metrics.operation("service.processExitWithPayment");
+    private static final OperationMetrics PREVIEW_METRICS = metrics.operation("service.previewExitByPlate");
+    private static final OperationMetrics VEHICLE_FIND_OR_CREATE = metrics.operation("dao.vehicle.findOrCreate");
+    private static final OperationMetrics TICKET_HAS_OPEN = metrics.operation("dao.ticket.hasOpenTicket");
+    private static final OperationMetrics SUBSCRIPTION_FIND_ACTIVE = metrics.operation("dao.subscription.findActive");
+    private static final OperationMetrics TICKET_CREATE = metrics.operation("dao.ticket.create");
+    private static final OperationMetrics TICKET_CREATE_ENTRY = metrics.operation("dao.ticket.createEntry");
+    private static final OperationMetrics TICKET_FIND_OPEN_BY_PLATE = metrics.operation("dao.ticket.findOpenByPlate");
+    private static final OperationMetrics TICKET_CLOSE = metrics.operation("dao.ticket.close");
+    private static final OperationMetrics RATE_FIND_ACTIVE = metrics.operation("dao.rate.findActive");
+    private static final OperationMetrics PAYMENT_CREATE = metrics.operation("dao.payment.create");
+
     private final VehicleDAO vehicleDAO;
     private final TicketDAO ticketDAO;
     private final SubscriptionDAO subscriptionDAO;
     private final RateDAO rateDAO;
     private final PaymentDAO paymentDAO;
+    private final QRBackupPipeline qrBackupPipeline;
+    private final OpenTicketIndex openTicketIndex = new OpenTicketIndex();
+    private final ExitQuoteStore exitQuoteStore = new ExitQuoteStore();
+
+    /**
+     * How vehicle entries are written to the database
+     */
+    public enum EntryMode {
+        STANDARD,           // One statement per step (works on any schema)
+        SINGLE_ROUND_TRIP   // One call to fn_vehicle_entry (requires the function from DDL.sql)
+    }
+
+    private volatile EntryMode entryMode = EntryMode.STANDARD;
 
+    /**
+     * Service without QR file backups
+     */
     public ParkingService(VehicleDAO vehicleDAO, TicketDAO ticketDAO, 
                          SubscriptionDAO subscriptionDAO, RateDAO rateDAO, 
                          PaymentDAO paymentDAO) {
+        this(vehicleDAO, ticketDAO, subscriptionDAO, rateDAO, paymentDAO, null);
+    }
+
+    /**
+     * @param qrBackupPipeline Writes QR backups of new tickets (owned and shut down by the caller), may be null
+     */
+    public ParkingService(VehicleDAO vehicleDAO, TicketDAO ticketDAO, 
+                         SubscriptionDAO subscriptionDAO, RateDAO rateDAO, 
+                         PaymentDAO paymentDAO, QRBackupPipeline qrBackupPipeline) {
         this.vehicleDAO = vehicleDAO;
         this.ticketDAO = ticketDAO;
         this.subscriptionDAO = subscriptionDAO;
         this.rateDAO = rateDAO;
         this.paymentDAO = paymentDAO;
+        this.qrBackupPipeline = qrBackupPipeline;
+    }
+
+    /**
+     * Set how vehicle entries are written to the database
+     */
+    public void setEntryMode(EntryMode entryMode) {
+        this.entryMode = entryMode;
+    }
+
+    public EntryMode getEntryMode() {
+        return entryMode;
+    }
+
+    /**
+     * Set how long a previewed exit price can be reused when the exit is committed
+     */
+    public void setQuoteValidityMillis(long validityMillis) {
+        exitQuoteStore.setValidityMillis(validityMillis);
+    }
+
+    /**
+     * Load the open ticket index from the database (call at startup)
+     */
+    public void loadOpenTickets() throws DataAccessException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            openTicketIndex.load(ticketDAO.findOpenTickets(conn));
+            logger.info("Open ticket index loaded: {} tickets", openTicketIndex.size());
+        } catch (SQLException e) {
+            throw new DataAccessException("Database connection error", e);
+        }
+    }
+
+    /**
+     * Re-read the open tickets from the database and replace the index, picking up
+     * entries and exits registered by other terminals. The snapshot is discarded if
+     * this instance registered an entry or exit while it was being read.
+     * @return true if the index was replaced
+     */
+    public boolean reconcileOpenTickets() throws DataAccessException {
+        long version = openTicketIndex.getVersion();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean applied = openTicketIndex.load(ticketDAO.findOpenTickets(conn), version);
+            logger.debug("Open ticket index reconciliation {} ({} tickets)", 
+                        applied ? "applied" : "skipped", openTicketIndex.size());
+            return applied;
+        } catch (SQLException e) {
+            throw new DataAccessException("Database connection error", e);
+        }
+    }
+
+    /**
+     * @return Number of open tickets currently held in the index
+     */
+    public int getOpenTicketCount() {
+        return openTicketIndex.size();
     }
 
     /**
@@ -59,7 +179,26 @@ public class ParkingService {
      */
     public Ticket processEntry(String licensePlate, int operatorId) 
             throws BusinessException, DataAccessException {
-        
+        VehicleEntryEvent event = new VehicleEntryEvent();
+        event.setPlate(licensePlate);
+        event.setOperatorId(operatorId);
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            Ticket ticket = enter(licensePlate, operatorId);
+            ENTRY_METRICS.success(start);
+            event.setTicketId(ticket.getId());
+            event.setVehicleType(ticket.getVehicleType());
+            event.complete(Outcome.SUCCESS);
+            return ticket;
+        } catch (Exception e) {
+            ENTRY_METRICS.failure(start, e);
+            event.fail(e);
+            throw e;
+        }
+    }
+
+    private Ticket enter(String licensePlate, int operatorId) throws BusinessException, DataAccessException {
         licensePlate = licensePlate.toUpperCase().trim();
         
         String vehicleType = detectVehicleType(licensePlate);
@@ -70,67 +209,30 @@ public class ParkingService {
                 "Motorcycle: 3 letters + 2 numbers + 1 letter (e.g., ABC12D)"
             );
         }
-
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            conn.setAutoCommit(false);
+        
+        // The open ticket check runs inside the transaction, not against the index:
+        // an indexed ticket may have been closed on another terminal
+        Ticket ticket;
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            Connection conn = uow.getConnection();
             
             try {
-                // Find or create vehicle
-                Vehicle vehicle = vehicleDAO.findOrCreate(conn, licensePlate, vehicleType);
-                
-                // Check for open tickets
-                if (ticketDAO.hasOpenTicket(conn, vehicle.getId())) {
-                    throw new BusinessException("Vehicle already has an open ticket");
-                }
-                
-                // Check for active subscription
-                Integer subscriptionId = subscriptionDAO.findActiveSubscriptionByVehicleId(
-                    conn, vehicle.getId()
-                );
-                String ticketType = subscriptionId != null ? "Monthly" : "Guest";
-                
-                if (subscriptionId != null) {
-                    logger.info("Active subscription found for {}: Subscription ID {}", licensePlate, subscriptionId);
-                } else {
-                    logger.debug("No active subscription for {}, ticket type: Guest", licensePlate);
-                }
-                
-                // Generate folio
-                String folio = ticketDAO.generateNextFolio(conn);
-                Timestamp now = new Timestamp(System.currentTimeMillis());
-                
-                // Create ticket with temporary QR (we need the ticket ID first)
-                String tempQrCodeData = "PENDING";
-                Ticket ticket = ticketDAO.create(conn, folio, vehicle.getId(), operatorId, 
-                                                subscriptionId, ticketType, tempQrCodeData);
-                
-                // Generate QR code content with ticket ID (6-digit formatted: 000001, 000002, etc.)
-                String qrCodeData = String.format("TICKET:%06d|PLATE:%s|DATE:%d", 
-                                                ticket.getId(), licensePlate, now.getTime() / 1000);
-                
-                // Update ticket with final QR code
-                ticketDAO.updateQRCode(conn, ticket.getId(), qrCodeData);
-                ticket.setQrCodeData(qrCodeData);
-                
-                // Save QR code image to file system (backup)
-                try {
-                    QRCodeGenerator.saveQRCodeToFile(qrCodeData, ticket.getId());
-                } catch (Exception e) {
-                    // Log but don't fail - file backup is optional
-                    System.err.println("Warning: Could not save QR code to file: " + e.getMessage());
-                }
+                ticket = entryMode == EntryMode.SINGLE_ROUND_TRIP
+                    ? createEntryTicketSingleRoundTrip(conn, licensePlate, vehicleType, operatorId)
+                    : createEntryTicket(conn, licensePlate, vehicleType, operatorId);
                 
                 ticket.setLicensePlate(licensePlate);
                 ticket.setVehicleType(vehicleType);
                 
-                conn.commit();
-                return ticket;
+                Ticket created = ticket;
+                uow.afterCommit(() -> openTicketIndex.opened(created));
+                uow.commit();
                 
             } catch (DataAccessException | BusinessException e) {
-                conn.rollback();
+                uow.rollback();
                 throw e;
             } catch (Exception e) {
-                conn.rollback();
+                uow.rollback();
                 throw new DataAccessException("Error processing entry", e);
             }
         } catch (Exception e) {
@@ -138,125 +240,250 @@ public class ParkingService {
             if (e instanceof BusinessException) throw (BusinessException) e;
             throw new DataAccessException("Database connection error", e);
         }
+        
+        // Save QR code image to file system (backup) once the connection is back in the pool
+        if (qrBackupPipeline != null) {
+            qrBackupPipeline.submit(ticket.getQrCodeData(), ticket.getId());
+        }
+        return ticket;
     }
 
     /**
-     * Process vehicle exit
+     * Create the entry ticket statement by statement (vehicle, open ticket check,
+     * subscription and insert)
      */
-    public ExitResult processExit(int ticketId, int operatorId) 
-            throws NotFoundException, BusinessException, DataAccessException {
-        logger.info("Processing vehicle exit: Ticket ID {} (Operator ID: {})", ticketId, operatorId);
+    private Ticket createEntryTicket(Connection conn, String licensePlate, String vehicleType, int operatorId)
+            throws BusinessException, DataAccessException {
+        // Find or create vehicle
+        Vehicle vehicle = VEHICLE_FIND_OR_CREATE.time(() -> vehicleDAO.findOrCreate(conn, licensePlate, vehicleType));
         
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            conn.setAutoCommit(false);
-            
-            try {
-                // Get ticket
-                Ticket ticket = ticketDAO.findByIdWithVehicle(ticketId);
-                
-                if (ticket == null) {
-                    logger.warn("Ticket not found: ID {}", ticketId);
-                    throw new NotFoundException("Ticket not found");
-                }
-                
-                logger.debug("Ticket found: {} - Plate: {} (Status: {})", 
-                            ticketId, ticket.getLicensePlate(), ticket.getStatus());
-                
-                if (!"OPEN".equals(ticket.getStatus())) {
-                    logger.warn("Attempted exit with closed ticket: ID {}", ticketId);
-                    throw new BusinessException("Ticket is already closed");
-                }
-                
-                // Calculate duration
-                Timestamp now = new Timestamp(System.currentTimeMillis());
-                long durationMinutes = (now.getTime() - ticket.getEntryDatetime().getTime()) / (60 * 1000);
-                
-                // Update ticket
-                ticketDAO.updateExit(conn, ticketId, now, (int) durationMinutes);
-                
-                // Calculate cost
-                double amount = 0.0;
-                boolean isFree = false;
-                String freeReason = null;
-                
-                // Get the appropriate rate for this vehicle type
-                Rate rate = rateDAO.findActiveRateByVehicleType(ticket.getVehicleType(), conn);
-                
-                if (rate == null) {
-                    logger.error("No active rate found for vehicle type: {}", ticket.getVehicleType());
-                    throw new DataAccessException("No active rate found for vehicle type: " + ticket.getVehicleType());
-                }
-                
-                logger.debug("Rate applied: {} (ID: {}) for vehicle type: {}", 
-                            rate.getRateName(), rate.getId(), ticket.getVehicleType());
+        // Check for open tickets
+        if (TICKET_HAS_OPEN.time(() -> ticketDAO.hasOpenTicket(conn, vehicle.getId()))) {
+            throw new BusinessException("Vehicle already has an open ticket");
+        }
+        
+        // Check for active subscription
+        Integer subscriptionId = SUBSCRIPTION_FIND_ACTIVE.time(() -> 
+            subscriptionDAO.findActiveSubscriptionByVehicleId(conn, vehicle.getId())
+        );
+        String ticketType = subscriptionId != null ? "Monthly" : "Guest";
+        
+        if (subscriptionId != null) {
+            logger.info("Active subscription found for {}: Subscription ID {}", licensePlate, subscriptionId);
+        } else {
+            logger.debug("No active subscription for {}, ticket type: Guest", licensePlate);
+        }
+        
+        // Reserve the ticket ID first so the final QR code goes into the INSERT
+        String folio = ticketDAO.generateNextFolio(conn);
+        int ticketId = ticketDAO.reserveTicketId(conn);
+        String qrCodeData = QRCodeGenerator.formatTicketQRContent(
+            ticketId, licensePlate, System.currentTimeMillis() / 1000);
+        
+        return TICKET_CREATE.time(() -> ticketDAO.create(conn, ticketId, folio, vehicle.getId(), operatorId, 
+                                                         subscriptionId, ticketType, qrCodeData));
+    }
+
+    /**
+     * Create the entry ticket with one call to fn_vehicle_entry, which does the vehicle
+     * upsert, open ticket check, subscription resolution and insert on the server
+     */
+    private Ticket createEntryTicketSingleRoundTrip(Connection conn, String licensePlate, 
+                                                    String vehicleType, int operatorId)
+            throws BusinessException, DataAccessException {
+        String folio = ticketDAO.generateNextFolio(conn);
+        int ticketId = ticketDAO.reserveTicketId(conn);
+        String qrCodeData = QRCodeGenerator.formatTicketQRContent(
+            ticketId, licensePlate, System.currentTimeMillis() / 1000);
+        
+        EntryOutcome outcome = TICKET_CREATE_ENTRY.time(() -> ticketDAO.createEntry(
+            conn, ticketId, licensePlate, vehicleType, operatorId, folio, qrCodeData));
+        
+        if (!outcome.isCreated()) {
+            // Nothing was inserted, the reserved ID can be used by the next entry
+            ticketDAO.releaseTicketId(ticketId);
+            logger.warn("Entry rejected for {}: open ticket ID {}", licensePlate, outcome.getOpenTicketId());
+            throw new BusinessException("Vehicle already has an open ticket");
+        }
+        
+        Ticket ticket = outcome.getTicket();
+        if (ticket.getSubscriptionId() != null) {
+            logger.info("Active subscription found for {}: Subscription ID {}", 
+                       licensePlate, ticket.getSubscriptionId());
+        }
+        return ticket;
+    }
+
+    /**
+     * Process a burst of vehicle entries in one transaction: vehicles are upserted and
+     * tickets inserted with JDBC batches. Invalid plates, plates repeated in the batch
+     * and vehicles that already have an open ticket are reported in their own result
+     * and do not abort the rest of the batch.
+     * @return One result per plate, in the same order
+     */
+    public List<EntryBatchResult> processEntries(List<String> licensePlates, int operatorId) 
+            throws DataAccessException {
+        EntryBatchResult[] results = new EntryBatchResult[licensePlates.size()];
+        Map<String, String> vehicleTypesByPlate = new LinkedHashMap<>();
+        Map<String, Integer> positionByPlate = new HashMap<>();
+        
+        for (int i = 0; i < results.length; i++) {
+            String licensePlate = licensePlates.get(i) != null ? licensePlates.get(i).toUpperCase().trim() : "";
+            String vehicleType = detectVehicleType(licensePlate);
+            if (vehicleType == null) {
+                results[i] = EntryBatchResult.invalidPlate(licensePlate);
+            } else if (vehicleTypesByPlate.containsKey(licensePlate)) {
+                results[i] = EntryBatchResult.duplicateInBatch(licensePlate);
+            } else {
+                vehicleTypesByPlate.put(licensePlate, vehicleType);
+                positionByPlate.put(licensePlate, i);
+            }
+        }
+        
+        List<Ticket> created = new ArrayList<>();
+        if (!vehicleTypesByPlate.isEmpty()) {
+            try (UnitOfWork uow = UnitOfWork.begin()) {
+                Connection conn = uow.getConnection();
                 
-                if ("Monthly".equals(ticket.getTicketType())) {
-                    isFree = true;
-                    freeReason = "Monthly Subscription";
-                    logger.info("Exit free - Monthly subscription: {}", ticket.getLicensePlate());
-                } else if (durationMinutes <= rate.getGracePeriodMinutes()) {
-                    isFree = true;
-                    freeReason = String.format("Grace Period (first %d minutes)", rate.getGracePeriodMinutes());
-                    logger.info("Exit free - Grace period: {} (Duration: {}min)", 
-                               ticket.getLicensePlate(), durationMinutes);
-                } else {
-                    amount = calculateAmount(durationMinutes, rate);
-                    logger.debug("Payment calculated: ${} for {} (Duration: {}min)", 
-                                amount, ticket.getLicensePlate(), durationMinutes);
+                try {
+                    Map<String, Vehicle> vehicles = vehicleDAO.findOrCreateAll(conn, vehicleTypesByPlate);
+                    List<Integer> vehicleIds = new ArrayList<>();
+                    for (Vehicle vehicle : vehicles.values()) {
+                        vehicleIds.add(vehicle.getId());
+                    }
+                    // Checked in the database, not in the index, which may be stale
+                    Set<Integer> withOpenTicket = ticketDAO.findVehiclesWithOpenTickets(conn, vehicleIds);
                     
-                    // Record payment
-                    if (amount > 0) {
-                        paymentDAO.create(conn, ticketId, operatorId, amount, "Cash");
-                        logger.info("Payment recorded: ${} for {} (Ticket: {})", 
-                                   amount, ticket.getLicensePlate(), ticketId);
+                    long issuedAt = System.currentTimeMillis() / 1000;
+                    for (Map.Entry<String, String> entry : vehicleTypesByPlate.entrySet()) {
+                        String licensePlate = entry.getKey();
+                        Vehicle vehicle = vehicles.get(licensePlate);
+                        if (withOpenTicket.contains(vehicle.getId())) {
+                            results[positionByPlate.get(licensePlate)] = EntryBatchResult.openTicket(licensePlate);
+                            continue;
+                        }
+                        
+                        Integer subscriptionId = subscriptionDAO.findActiveSubscriptionByVehicleId(
+                            conn, vehicle.getId()
+                        );
+                        Ticket ticket = new Ticket();
+                        ticket.setId(ticketDAO.reserveTicketId(conn));
+                        ticket.setFolio(ticketDAO.generateNextFolio(conn));
+                        ticket.setVehicleId(vehicle.getId());
+                        ticket.setOperatorId(operatorId);
+                        ticket.setSubscriptionId(subscriptionId);
+                        ticket.setTicketType(subscriptionId != null ? "Monthly" : "Guest");
+                        ticket.setQrCodeData(QRCodeGenerator.formatTicketQRContent(
+                            ticket.getId(), licensePlate, issuedAt));
+                        ticket.setLicensePlate(licensePlate);
+                        ticket.setVehicleType(entry.getValue());
+                        created.add(ticket);
                     }
+                    
+                    if (!created.isEmpty()) {
+                        ticketDAO.createAll(conn, created);
+                    }
+                    for (Ticket ticket : created) {
+                        results[positionByPlate.get(ticket.getLicensePlate())] = EntryBatchResult.created(ticket);
+                    }
+                    
+                    uow.afterCommit(() -> created.forEach(openTicketIndex::opened));
+                    uow.commit();
+                    
+                } catch (DataAccessException e) {
+                    uow.rollback();
+                    throw e;
+                } catch (Exception e) {
+                    uow.rollback();
+                    throw new DataAccessException("Error processing entries", e);
                 }
-                
-                conn.commit();
-                
-                logger.info("Vehicle exit successful: {} - Ticket ID: {} (Amount: ${}, Free: {})", 
-                           ticket.getLicensePlate(), ticketId, amount, isFree);
-                
-                return new ExitResult(ticket, now, (int) durationMinutes, amount, isFree, freeReason);
-                
-            } catch (NotFoundException | BusinessException | DataAccessException e) {
-                conn.rollback();
-                logger.error("Vehicle exit failed for Ticket ID {}: {}", ticketId, e.getMessage());
-                throw e;
             } catch (Exception e) {
-                conn.rollback();
-                throw new DataAccessException("Error processing exit", e);
+                if (e instanceof DataAccessException) throw (DataAccessException) e;
+                throw new DataAccessException("Database connection error", e);
+            }
+        }
+        
+        logger.info("Batch entry: {} of {} plates registered", created.size(), results.length);
+        if (qrBackupPipeline != null) {
+            for (Ticket ticket : created) {
+                qrBackupPipeline.submit(ticket.getQrCodeData(), ticket.getId());
             }
-        } catch (Exception e) {
-            if (e instanceof NotFoundException) throw (NotFoundException) e;
-            if (e instanceof BusinessException) throw (BusinessException) e;
-            if (e instanceof DataAccessException) throw (DataAccessException) e;
-            throw new DataAccessException("Database connection error", e);
         }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Process vehicle exit
+     */
+    public ExitResult processExit(int ticketId, int operatorId) 
+            throws NotFoundException, BusinessException, DataAccessException {
+        return processExitWithPayment(ticketId, operatorId, "Cash");
+    }
+
+    /**
+     * Price an exit at the given time without recording anything. Shared by the
+     * preview and the exit paths so both always charge the same amount.
+     */
+    private ExitResult quoteExit(Ticket ticket, Timestamp exitTime, Connection conn) 
+            throws DataAccessException {
+        long durationMinutes = (exitTime.getTime() - ticket.getEntryDatetime().getTime()) / (60 * 1000);
+        return quoteExit(ticket, exitTime, durationMinutes, conn);
     }
 
     /**
-     * Calculate payment amount based on duration and rate
-     * @param durationMinutes Total parking duration in minutes
-     * @param rate The rate to apply
-     * @return Amount to charge
+     * Price an exit for a known duration
      */
-    private double calculateAmount(long durationMinutes, Rate rate) {
-        long chargeableMinutes = durationMinutes - rate.getGracePeriodMinutes();
-        long hours = chargeableMinutes / 60;
-        long remainingMinutes = chargeableMinutes % 60;
+    private ExitResult quoteExit(Ticket ticket, Timestamp exitTime, long durationMinutes, Connection conn) 
+            throws DataAccessException {
+        return quoteExit(ticket, exitTime, durationMinutes, findTariffSchedule(ticket.getVehicleType(), conn));
+    }
+
+    /**
+     * Find the compiled schedule of the active rate for a vehicle type
+     */
+    private TariffSchedule findTariffSchedule(String vehicleType, Connection conn) throws DataAccessException {
+        TariffSchedule schedule = RATE_FIND_ACTIVE.time(() -> rateDAO.findActiveSchedule(vehicleType, conn));
         
-        double amount = hours * rate.getHourlyRate();
-        if (remainingMinutes > 0) {
-            amount += rate.getFractionRate();
+        if (schedule == null) {
+            logger.error("No active rate found for vehicle type: {}", vehicleType);
+            throw new DataAccessException("No active rate found for vehicle type: " + vehicleType);
         }
         
-        // Apply daily cap if configured
-        if (rate.getDailyCap() != null && amount > rate.getDailyCap()) {
-            amount = rate.getDailyCap();
-        }
+        logger.debug("Rate applied: {} (ID: {}) for vehicle type: {}", 
+                    schedule.getBase().getRateName(), schedule.getBase().getRateId(), vehicleType);
+        return schedule;
+    }
+
+    /**
+     * Price an exit for a known duration with an already compiled rate
+     */
+    private ExitResult quoteExit(Ticket ticket, Timestamp exitTime, long durationMinutes, TariffSchedule schedule) {
+        TariffEvaluationEvent event = new TariffEvaluationEvent();
+        event.begin();
+        ExitResult result = evaluateTariff(ticket, exitTime, durationMinutes, schedule);
+        event.setTicketId(ticket.getId());
+        event.setPlate(ticket.getLicensePlate());
+        event.setVehicleType(ticket.getVehicleType());
+        event.setTicketType(ticket.getTicketType());
+        event.setDurationMinutes(durationMinutes);
+        event.setAmountCents(result.getAmountCents());
+        event.setFreeReason(result.getFreeReason());
+        event.complete(Outcome.SUCCESS);
+        return result;
+    }
+
+    private ExitResult evaluateTariff(Ticket ticket, Timestamp exitTime, long durationMinutes, TariffSchedule schedule) {
+        Tariff tariff = schedule.getBase();
         
-        return amount;
+        if ("Monthly".equals(ticket.getTicketType())) {
+            return new ExitResult(ticket, exitTime, (int) durationMinutes, 0, true, "Monthly Subscription");
+        }
+        if (tariff.isWithinGracePeriod(durationMinutes)) {
+            return new ExitResult(ticket, exitTime, (int) durationMinutes, 0, true, 
+                String.format("Grace Period (first %d minutes)", tariff.getGracePeriodMinutes()));
+        }
+        long amountCents = schedule.costCents(ticket.getEntryDatetime().getTime(), durationMinutes);
+        return new ExitResult(ticket, exitTime, (int) durationMinutes, amountCents, false, null);
     }
 
     /**
@@ -266,34 +493,36 @@ public class ParkingService {
             throws NotFoundException, BusinessException, DataAccessException {
         logger.info("Processing vehicle exit by plate: {} (Operator ID: {})", licensePlate, operatorId);
         
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            conn.setAutoCommit(false);
-            
+        // An indexed ticket may have been closed on another terminal since it was indexed;
+        // the failed exit evicts it and the plate is looked up in the database instead
+        Ticket indexed = openTicketIndex.findByPlate(licensePlate);
+        if (indexed != null) {
+            logger.debug("Open ticket found in index: {} - Plate: {}", indexed.getId(), licensePlate);
             try {
-                // Find open ticket by license plate
-                Ticket ticket = ticketDAO.findOpenTicketByPlate(conn, licensePlate);
-                
-                if (ticket == null) {
-                    logger.warn("No open ticket found for plate: {}", licensePlate);
-                    throw new NotFoundException("No open ticket found for this license plate");
-                }
-                
-                logger.debug("Open ticket found: {} - Plate: {}", ticket.getId(), licensePlate);
-                
-                // Process exit using the ticket ID
-                return processExitWithPayment(ticket.getId(), operatorId, paymentMethod);
-                
-            } catch (NotFoundException | BusinessException | DataAccessException e) {
-                conn.rollback();
-                throw e;
-            } catch (Exception e) {
-                conn.rollback();
-                throw new DataAccessException("Error processing exit by plate", e);
+                return processExitWithPayment(indexed.getId(), operatorId, paymentMethod);
+            } catch (TicketClosedException e) {
+                logger.info("Indexed ticket {} for {} was already closed, checking the database", 
+                           indexed.getId(), licensePlate);
             }
-        } catch (Exception e) {
-            if (e instanceof NotFoundException) throw (NotFoundException) e;
-            if (e instanceof BusinessException) throw (BusinessException) e;
-            if (e instanceof DataAccessException) throw (DataAccessException) e;
+        }
+        
+        // Lookup and exit share one connection and one transaction
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            Connection conn = uow.getConnection();
+            Ticket ticket = TICKET_FIND_OPEN_BY_PLATE.time(() -> ticketDAO.findOpenTicketByPlate(conn, licensePlate));
+            
+            if (ticket == null) {
+                logger.warn("No open ticket found for plate: {}", licensePlate);
+                throw new NotFoundException("No open ticket found for this license plate");
+            }
+            
+            logger.debug("Open ticket found: {} - Plate: {}", ticket.getId(), licensePlate);
+            
+            // Process exit using the ticket ID
+            ExitResult result = processExitWithPayment(ticket.getId(), operatorId, paymentMethod);
+            uow.commit();
+            return result;
+        } catch (SQLException e) {
             throw new DataAccessException("Database connection error", e);
         }
     }
@@ -303,11 +532,40 @@ public class ParkingService {
      */
     public ExitResult previewExitByPlate(String licensePlate, int operatorId) 
             throws NotFoundException, BusinessException, DataAccessException {
+        ExitPreviewEvent event = new ExitPreviewEvent();
+        event.setPlate(licensePlate);
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            ExitResult result = previewByPlate(licensePlate, operatorId);
+            PREVIEW_METRICS.success(start);
+            completePreview(event, result);
+            return result;
+        } catch (Exception e) {
+            PREVIEW_METRICS.failure(start, e);
+            event.fail(e);
+            throw e;
+        }
+    }
+
+    private static void completePreview(ExitPreviewEvent event, ExitResult result) {
+        event.setTicketId(result.getTicket().getId());
+        event.setPlate(result.getTicket().getLicensePlate());
+        event.setVehicleType(result.getTicket().getVehicleType());
+        event.setDurationMinutes(result.getDurationMinutes());
+        event.setAmountCents(result.getAmountCents());
+        event.complete(Outcome.SUCCESS);
+    }
+
+    private ExitResult previewByPlate(String licensePlate, int operatorId) 
+            throws NotFoundException, BusinessException, DataAccessException {
         logger.info("Previewing vehicle exit by plate: {} (Operator ID: {})", licensePlate, operatorId);
         
-        try (Connection conn = DatabaseConnection.getConnection()) {
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            Connection conn = uow.getConnection();
+            
             // Find open ticket by license plate
-            Ticket ticket = ticketDAO.findOpenTicketByPlate(conn, licensePlate);
+            Ticket ticket = findOpenTicketByPlate(conn, licensePlate);
             
             if (ticket == null) {
                 logger.warn("No open ticket found for plate: {}", licensePlate);
@@ -317,35 +575,14 @@ public class ParkingService {
             logger.debug("Open ticket found for preview: {} - Plate: {}", ticket.getId(), licensePlate);
             
             // Calculate exit info without saving
-            Timestamp now = new Timestamp(System.currentTimeMillis());
-            long durationMinutes = (now.getTime() - ticket.getEntryDatetime().getTime()) / (60 * 1000);
-            
-            // Calculate cost
-            double amount = 0.0;
-            boolean isFree = false;
-            String freeReason = null;
-            
-            // Get the appropriate rate for this vehicle type
-            Rate rate = rateDAO.findActiveRateByVehicleType(ticket.getVehicleType(), conn);
-            
-            if (rate == null) {
-                logger.error("No active rate found for vehicle type: {}", ticket.getVehicleType());
-                throw new DataAccessException("No active rate found for vehicle type: " + ticket.getVehicleType());
-            }
-            
-            if ("Monthly".equals(ticket.getTicketType())) {
-                isFree = true;
-                freeReason = "Monthly Subscription";
-            } else if (durationMinutes <= rate.getGracePeriodMinutes()) {
-                isFree = true;
-                freeReason = String.format("Grace Period (first %d minutes)", rate.getGracePeriodMinutes());
-            } else {
-                amount = calculateAmount(durationMinutes, rate);
-            }
+            ExitResult result = quoteExit(ticket, new Timestamp(System.currentTimeMillis()), conn);
             
-            logger.info("Exit preview for {}: Amount ${}, Free: {}", licensePlate, amount, isFree);
+            logger.info(LogFields.ticket(ticket.getId()).licensePlate(licensePlate).operatorId(operatorId)
+                                 .durationMinutes(result.getDurationMinutes()).amountCents(result.getAmountCents()),
+                        "Exit preview for {}: Amount ${}, Free: {}", 
+                        licensePlate, Tariff.toAmount(result.getAmountCents()), result.isFree());
             
-            return new ExitResult(ticket, now, (int) durationMinutes, amount, isFree, freeReason);
+            return issueQuote(result);
             
         } catch (Exception e) {
             if (e instanceof NotFoundException) throw (NotFoundException) e;
@@ -360,11 +597,28 @@ public class ParkingService {
      */
     public ExitResult previewExitById(int ticketId, int operatorId) 
             throws NotFoundException, BusinessException, DataAccessException {
+        ExitPreviewEvent event = new ExitPreviewEvent();
+        event.setTicketId(ticketId);
+        event.begin();
+        try {
+            ExitResult result = previewById(ticketId, operatorId);
+            completePreview(event, result);
+            return result;
+        } catch (Exception e) {
+            event.fail(e);
+            throw e;
+        }
+    }
+
+    private ExitResult previewById(int ticketId, int operatorId) 
+            throws NotFoundException, BusinessException, DataAccessException {
         logger.info("Previewing vehicle exit by ID: {} (Operator ID: {})", ticketId, operatorId);
         
-        try (Connection conn = DatabaseConnection.getConnection()) {
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            Connection conn = uow.getConnection();
+            
             // Find ticket by ID
-            Ticket ticket = ticketDAO.findByIdWithVehicle(ticketId);
+            Ticket ticket = findTicketById(ticketId);
             
             if (ticket == null) {
                 logger.warn("Ticket not found: ID {}", ticketId);
@@ -380,35 +634,14 @@ public class ParkingService {
             }
             
             // Calculate exit info without saving
-            Timestamp now = new Timestamp(System.currentTimeMillis());
-            long durationMinutes = (now.getTime() - ticket.getEntryDatetime().getTime()) / (60 * 1000);
-            
-            // Calculate cost
-            double amount = 0.0;
-            boolean isFree = false;
-            String freeReason = null;
-            
-            // Get the appropriate rate for this vehicle type
-            Rate rate = rateDAO.findActiveRateByVehicleType(ticket.getVehicleType(), conn);
-            
-            if (rate == null) {
-                logger.error("No active rate found for vehicle type: {}", ticket.getVehicleType());
-                throw new DataAccessException("No active rate found for vehicle type: " + ticket.getVehicleType());
-            }
+            ExitResult result = quoteExit(ticket, new Timestamp(System.currentTimeMillis()), conn);
             
-            if ("Monthly".equals(ticket.getTicketType())) {
-                isFree = true;
-                freeReason = "Monthly Subscription";
-            } else if (durationMinutes <= rate.getGracePeriodMinutes()) {
-                isFree = true;
-                freeReason = String.format("Grace Period (first %d minutes)", rate.getGracePeriodMinutes());
-            } else {
-                amount = calculateAmount(durationMinutes, rate);
-            }
-            
-            logger.info("Exit preview for ticket {}: Amount ${}, Free: {}", ticketId, amount, isFree);
+            logger.info(LogFields.ticket(ticketId).licensePlate(ticket.getLicensePlate()).operatorId(operatorId)
+                                 .durationMinutes(result.getDurationMinutes()).amountCents(result.getAmountCents()),
+                        "Exit preview for ticket {}: Amount ${}, Free: {}", 
+                        ticketId, Tariff.toAmount(result.getAmountCents()), result.isFree());
             
-            return new ExitResult(ticket, now, (int) durationMinutes, amount, isFree, freeReason);
+            return issueQuote(result);
             
         } catch (Exception e) {
             if (e instanceof NotFoundException) throw (NotFoundException) e;
@@ -423,87 +656,104 @@ public class ParkingService {
      */
     public ExitResult processExitWithPayment(int ticketId, int operatorId, String paymentMethod) 
             throws NotFoundException, BusinessException, DataAccessException {
+        return processExitWithPayment(ticketId, operatorId, paymentMethod, null);
+    }
+
+    /**
+     * Process vehicle exit with custom payment method, charging the previewed price
+     * if the quote token is still valid (otherwise the ticket is priced again)
+     * @param quoteToken Token from the preview's ExitResult, may be null
+     */
+    public ExitResult processExitWithPayment(int ticketId, int operatorId, String paymentMethod, String quoteToken) 
+            throws NotFoundException, BusinessException, DataAccessException {
+        VehicleExitEvent event = new VehicleExitEvent();
+        event.setTicketId(ticketId);
+        event.setPaymentMethod(paymentMethod);
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            ExitResult result = exit(ticketId, operatorId, paymentMethod, quoteToken);
+            EXIT_METRICS.success(start);
+            event.setPlate(result.getTicket().getLicensePlate());
+            event.setVehicleType(result.getTicket().getVehicleType());
+            event.setDurationMinutes(result.getDurationMinutes());
+            event.setAmountCents(result.getAmountCents());
+            event.complete(Outcome.SUCCESS);
+            return result;
+        } catch (Exception e) {
+            EXIT_METRICS.failure(start, e);
+            event.fail(e);
+            throw e;
+        }
+    }
+
+    private ExitResult exit(int ticketId, int operatorId, String paymentMethod, String quoteToken) 
+            throws NotFoundException, BusinessException, DataAccessException {
         logger.info("Processing vehicle exit: Ticket ID {} (Operator ID: {}, Payment: {})", 
                    ticketId, operatorId, paymentMethod);
         
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            conn.setAutoCommit(false);
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            Connection conn = uow.getConnection();
             
             try {
-                // Get ticket
-                Ticket ticket = ticketDAO.findByIdWithVehicle(ticketId);
+                // Close the ticket; only succeeds while it is still open
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                ExitOutcome outcome = TICKET_CLOSE.time(() -> ticketDAO.closeTicket(conn, ticketId, now));
                 
-                if (ticket == null) {
-                    logger.warn("Ticket not found: ID {}", ticketId);
+                if (outcome.getStatus() == ExitOutcome.Status.NOT_FOUND) {
                     throw new NotFoundException("Ticket not found");
                 }
-                
-                logger.debug("Ticket found: {} - Plate: {} (Status: {})", 
-                            ticketId, ticket.getLicensePlate(), ticket.getStatus());
-                
-                if (!"OPEN".equals(ticket.getStatus())) {
+                if (outcome.getStatus() == ExitOutcome.Status.ALREADY_CLOSED) {
                     logger.warn("Attempted exit with closed ticket: ID {}", ticketId);
-                    throw new BusinessException("Ticket is already closed");
+                    throw new TicketClosedException("Ticket is already closed");
                 }
                 
-                // Calculate duration
-                Timestamp now = new Timestamp(System.currentTimeMillis());
-                long durationMinutes = (now.getTime() - ticket.getEntryDatetime().getTime()) / (60 * 1000);
-                
-                // Update ticket
-                ticketDAO.updateExit(conn, ticketId, now, (int) durationMinutes);
-                
-                // Calculate cost
-                double amount = 0.0;
-                boolean isFree = false;
-                String freeReason = null;
-                
-                // Get the appropriate rate for this vehicle type
-                Rate rate = rateDAO.findActiveRateByVehicleType(ticket.getVehicleType(), conn);
-                
-                if (rate == null) {
-                    logger.error("No active rate found for vehicle type: {}", ticket.getVehicleType());
-                    throw new DataAccessException("No active rate found for vehicle type: " + ticket.getVehicleType());
+                // Charge the previewed price if its quote is still valid, otherwise price
+                // the duration recorded on the ticket
+                Ticket ticket = outcome.getTicket();
+                ExitQuoteStore.ExitQuote quote = exitQuoteStore.take(quoteToken, ticketId, currentRateVersion());
+                ExitResult result;
+                if (quote != null) {
+                    logger.debug(() -> "Using quote for ticket " + ticketId + ": $" 
+                                       + Tariff.toAmount(quote.getAmountCents()));
+                    result = new ExitResult(ticket, now, ticket.getParkingDurationMinutes(), 
+                                            quote.getAmountCents(), quote.isFree(), quote.getFreeReason());
+                } else {
+                    result = quoteExit(ticket, now, ticket.getParkingDurationMinutes(), conn);
                 }
                 
-                logger.debug("Rate applied: {} (ID: {}) for vehicle type: {}", 
-                            rate.getRateName(), rate.getId(), ticket.getVehicleType());
-                
-                if ("Monthly".equals(ticket.getTicketType())) {
-                    isFree = true;
-                    freeReason = "Monthly Subscription";
-                    logger.info("Exit free - Monthly subscription: {}", ticket.getLicensePlate());
-                } else if (durationMinutes <= rate.getGracePeriodMinutes()) {
-                    isFree = true;
-                    freeReason = String.format("Grace Period (first %d minutes)", rate.getGracePeriodMinutes());
-                    logger.info("Exit free - Grace period: {} (Duration: {}min)", 
-                               ticket.getLicensePlate(), durationMinutes);
-                } else {
-                    amount = calculateAmount(durationMinutes, rate);
-                    logger.debug("Payment calculated: ${} for {} (Duration: {}min)", 
-                                amount, ticket.getLicensePlate(), durationMinutes);
-                    
+                LogFields fields = LogFields.ticket(ticketId).licensePlate(ticket.getLicensePlate()).operatorId(operatorId)
+                                            .durationMinutes(result.getDurationMinutes())
+                                            .amountCents(result.getAmountCents());
+                if (result.isFree()) {
+                    logger.info(fields, "Exit free - {}: {} (Duration: {}min)", 
+                                result.getFreeReason(), ticket.getLicensePlate(), result.getDurationMinutes());
+                } else if (result.getAmountCents() > 0) {
                     // Record payment with custom payment method
-                    if (amount > 0) {
-                        paymentDAO.create(conn, ticketId, operatorId, amount, paymentMethod);
-                        logger.info("Payment recorded: ${} ({}) for {} (Ticket: {})", 
-                                   amount, paymentMethod, ticket.getLicensePlate(), ticketId);
-                    }
+                    PAYMENT_CREATE.time(() -> paymentDAO.create(conn, ticketId, operatorId, 
+                                                                result.getAmountCents(), paymentMethod));
+                    logger.info(fields, "Payment recorded: ${} ({}) for {} (Ticket: {})", 
+                                Tariff.toAmount(result.getAmountCents()), paymentMethod, 
+                                ticket.getLicensePlate(), ticketId);
                 }
                 
-                conn.commit();
+                uow.afterCommit(() -> openTicketIndex.closed(ticketId));
+                uow.commit();
                 
-                logger.info("Vehicle exit successful: {} - Ticket ID: {} (Amount: ${}, Free: {})", 
-                           ticket.getLicensePlate(), ticketId, amount, isFree);
+                logger.info(fields, "Vehicle exit successful: {} - Ticket ID: {} (Amount: ${}, Free: {})", 
+                           ticket.getLicensePlate(), ticketId, 
+                           Tariff.toAmount(result.getAmountCents()), result.isFree());
                 
-                return new ExitResult(ticket, now, (int) durationMinutes, amount, isFree, freeReason);
+                return result;
                 
             } catch (NotFoundException | BusinessException | DataAccessException e) {
-                conn.rollback();
+                uow.rollback();
+                // The ticket may have been closed elsewhere; drop it so the next lookup asks the database
+                openTicketIndex.closed(ticketId);
                 logger.error("Vehicle exit failed for Ticket ID {}: {}", ticketId, e.getMessage());
                 throw e;
             } catch (Exception e) {
-                conn.rollback();
+                uow.rollback();
                 throw new DataAccessException("Error processing exit", e);
             }
         } catch (Exception e) {
@@ -514,6 +764,270 @@ public class ParkingService {
         }
     }
 
+    /**
+     * Settle many exits at once (fleet or end-of-event release): the tickets are closed
+     * with one set-based UPDATE, priced with one rate lookup per vehicle type, and their
+     * payments inserted in one JDBC batch. Tickets that do not exist, are not open or
+     * are repeated in the batch are reported in their own result.
+     * @return One result per ticket ID, in the same order
+     */
+    public List<ExitBatchResult> processExits(List<Integer> ticketIds, int operatorId, String paymentMethod) 
+            throws DataAccessException {
+        logger.info("Processing batch exit: {} tickets (Operator ID: {}, Payment: {})", 
+                   ticketIds.size(), operatorId, paymentMethod);
+        
+        ExitBatchResult[] results = new ExitBatchResult[ticketIds.size()];
+        Set<Integer> distinctIds = new LinkedHashSet<>();
+        for (int i = 0; i < results.length; i++) {
+            if (!distinctIds.add(ticketIds.get(i))) {
+                results[i] = ExitBatchResult.duplicateInBatch(ticketIds.get(i));
+            }
+        }
+        if (distinctIds.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        
+        Map<Integer, ExitBatchResult> byTicketId = new HashMap<>();
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            Connection conn = uow.getConnection();
+            
+            try {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                Map<Integer, ExitOutcome> outcomes = ticketDAO.closeTickets(conn, distinctIds, now);
+                
+                Map<String, TariffSchedule> schedules = new HashMap<>();
+                Map<Integer, Long> payments = new LinkedHashMap<>();
+                for (Integer ticketId : distinctIds) {
+                    ExitOutcome outcome = outcomes.get(ticketId);
+                    if (outcome.getStatus() == ExitOutcome.Status.NOT_FOUND) {
+                        byTicketId.put(ticketId, ExitBatchResult.notFound(ticketId));
+                        continue;
+                    }
+                    if (outcome.getStatus() == ExitOutcome.Status.ALREADY_CLOSED) {
+                        byTicketId.put(ticketId, ExitBatchResult.alreadyClosed(ticketId));
+                        continue;
+                    }
+                    
+                    Ticket ticket = outcome.getTicket();
+                    TariffSchedule schedule = schedules.get(ticket.getVehicleType());
+                    if (schedule == null) {
+                        schedule = findTariffSchedule(ticket.getVehicleType(), conn);
+                        schedules.put(ticket.getVehicleType(), schedule);
+                    }
+                    ExitResult result = quoteExit(ticket, now, ticket.getParkingDurationMinutes(), schedule);
+                    if (!result.isFree() && result.getAmountCents() > 0) {
+                        payments.put(ticketId, result.getAmountCents());
+                    }
+                    byTicketId.put(ticketId, ExitBatchResult.closed(result));
+                }
+                
+                if (!payments.isEmpty()) {
+                    paymentDAO.createAll(conn, operatorId, payments, paymentMethod);
+                }
+                
+                // Closed or not, none of these tickets is open anymore
+                uow.afterCommit(() -> distinctIds.forEach(openTicketIndex::closed));
+                uow.commit();
+                
+                logger.info("Batch exit: {} of {} tickets closed, {} payments recorded", 
+                           distinctIds.size() - countFailed(byTicketId.values()), ticketIds.size(), payments.size());
+                
+            } catch (DataAccessException e) {
+                uow.rollback();
+                logger.error("Batch exit failed: {}", e.getMessage());
+                throw e;
+            } catch (Exception e) {
+                uow.rollback();
+                throw new DataAccessException("Error processing exits", e);
+            }
+        } catch (Exception e) {
+            if (e instanceof DataAccessException) throw (DataAccessException) e;
+            throw new DataAccessException("Database connection error", e);
+        }
+        
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = byTicketId.get(ticketIds.get(i));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private static int countFailed(Collection<ExitBatchResult> results) {
+        int failed = 0;
+        for (ExitBatchResult result : results) {
+            if (!result.isClosed()) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Record a preview's price and return the result carrying its quote token
+     */
+    private ExitResult issueQuote(ExitResult result) {
+        String token = exitQuoteStore.issue(result.getTicket().getId(), currentRateVersion(), 
+                                            result.getDurationMinutes(), result.getAmountCents(), 
+                                            result.isFree(), result.getFreeReason());
+        return new ExitResult(result.getTicket(), result.getExitTime(), result.getDurationMinutes(), 
+                             result.getAmountCents(), result.isFree(), result.getFreeReason(), token);
+    }
+
+    /**
+     * @return Version of the loaded rate table (0 while rates are queried per exit)
+     */
+    private long currentRateVersion() {
+        RateTable rateTable = rateDAO.getRateTable();
+        return rateTable != null ? rateTable.getVersion() : 0;
+    }
+
+    /**
+     * Find a ticket by ID, answering open tickets from the index
+     */
+    private Ticket findTicketById(int ticketId) throws DataAccessException {
+        Ticket ticket = openTicketIndex.findById(ticketId);
+        return ticket != null ? ticket : ticketDAO.findByIdWithVehicle(ticketId);
+    }
+
+    /**
+     * Find the open ticket for a plate, answering from the index when possible
+     */
+    private Ticket findOpenTicketByPlate(Connection conn, String licensePlate) throws DataAccessException {
+        Ticket ticket = openTicketIndex.findByPlate(licensePlate);
+        return ticket != null ? ticket 
+                              : TICKET_FIND_OPEN_BY_PLATE.time(() -> ticketDAO.findOpenTicketByPlate(conn, licensePlate));
+    }
+
+    /**
+     * Outcome of one plate in a batch entry
+     */
+    public static class EntryBatchResult {
+        public enum Status {
+            CREATED,
+            INVALID_PLATE,
+            OPEN_TICKET,
+            DUPLICATE_IN_BATCH
+        }
+
+        private final String licensePlate;
+        private final Status status;
+        private final Ticket ticket;
+        private final String message;
+
+        private EntryBatchResult(String licensePlate, Status status, Ticket ticket, String message) {
+            this.licensePlate = licensePlate;
+            this.status = status;
+            this.ticket = ticket;
+            this.message = message;
+        }
+
+        public static EntryBatchResult created(Ticket ticket) {
+            return new EntryBatchResult(ticket.getLicensePlate(), Status.CREATED, ticket, null);
+        }
+
+        public static EntryBatchResult invalidPlate(String licensePlate) {
+            return new EntryBatchResult(licensePlate, Status.INVALID_PLATE, null, 
+                                        "Invalid license plate format");
+        }
+
+        public static EntryBatchResult openTicket(String licensePlate) {
+            return new EntryBatchResult(licensePlate, Status.OPEN_TICKET, null, 
+                                        "Vehicle already has an open ticket");
+        }
+
+        public static EntryBatchResult duplicateInBatch(String licensePlate) {
+            return new EntryBatchResult(licensePlate, Status.DUPLICATE_IN_BATCH, null, 
+                                        "License plate repeated in batch");
+        }
+
+        public boolean isCreated() {
+            return status == Status.CREATED;
+        }
+
+        public String getLicensePlate() {
+            return licensePlate;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return Created ticket, null unless the status is CREATED
+         */
+        public Ticket getTicket() {
+            return ticket;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Outcome of one ticket in a batch exit
+     */
+    public static class ExitBatchResult {
+        public enum Status {
+            CLOSED,
+            NOT_FOUND,
+            ALREADY_CLOSED,
+            DUPLICATE_IN_BATCH
+        }
+
+        private final int ticketId;
+        private final Status status;
+        private final ExitResult exitResult;
+        private final String message;
+
+        private ExitBatchResult(int ticketId, Status status, ExitResult exitResult, String message) {
+            this.ticketId = ticketId;
+            this.status = status;
+            this.exitResult = exitResult;
+            this.message = message;
+        }
+
+        public static ExitBatchResult closed(ExitResult exitResult) {
+            return new ExitBatchResult(exitResult.getTicket().getId(), Status.CLOSED, exitResult, null);
+        }
+
+        public static ExitBatchResult notFound(int ticketId) {
+            return new ExitBatchResult(ticketId, Status.NOT_FOUND, null, "Ticket not found");
+        }
+
+        public static ExitBatchResult alreadyClosed(int ticketId) {
+            return new ExitBatchResult(ticketId, Status.ALREADY_CLOSED, null, "Ticket is already closed");
+        }
+
+        public static ExitBatchResult duplicateInBatch(int ticketId) {
+            return new ExitBatchResult(ticketId, Status.DUPLICATE_IN_BATCH, null, "Ticket repeated in batch");
+        }
+
+        public boolean isClosed() {
+            return status == Status.CLOSED;
+        }
+
+        public int getTicketId() {
+            return ticketId;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return Exit details, null unless the status is CLOSED
+         */
+        public ExitResult getExitResult() {
+            return exitResult;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
     /**
      * Exit result data class
      */
@@ -521,18 +1035,25 @@ public class ParkingService {
         private final Ticket ticket;
         private final Timestamp exitTime;
         private final int durationMinutes;
-        private final double amount;
+        private final long amountCents;
         private final boolean isFree;
         private final String freeReason;
+        private final String quoteToken;
 
         public ExitResult(Ticket ticket, Timestamp exitTime, int durationMinutes, 
-                         double amount, boolean isFree, String freeReason) {
+                         long amountCents, boolean isFree, String freeReason) {
+            this(ticket, exitTime, durationMinutes, amountCents, isFree, freeReason, null);
+        }
+
+        public ExitResult(Ticket ticket, Timestamp exitTime, int durationMinutes, 
+                         long amountCents, boolean isFree, String freeReason, String quoteToken) {
             this.ticket = ticket;
             this.exitTime = exitTime;
             this.durationMinutes = durationMinutes;
-            this.amount = amount;
+            this.amountCents = amountCents;
             this.isFree = isFree;
             this.freeReason = freeReason;
+            this.quoteToken = quoteToken;
         }
 
         public Ticket getTicket() {
@@ -547,8 +1068,18 @@ public class ParkingService {
             return durationMinutes;
         }
 
+        /**
+         * @return Amount to charge, for display
+         */
         public double getAmount() {
-            return amount;
+            return amountCents / 100.0;
+        }
+
+        /**
+         * @return Amount to charge in cents
+         */
+        public long getAmountCents() {
+            return amountCents;
         }
 
         public boolean isFree() {
@@ -558,5 +1089,12 @@ public class ParkingService {
         public String getFreeReason() {
             return freeReason;
         }
+
+        /**
+         * @return Token to commit this previewed price with, null for committed exits
+         */
+        public String getQuoteToken() {
+            return quoteToken;
+        }
     }
 }
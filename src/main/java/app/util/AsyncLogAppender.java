@@ -0,0 +1,368 @@
+package app.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous file appender for Logger.
+ * Callers publish finished lines into a bounded lock-free ring buffer and return;
+ * a single writer thread drains it into one long-lived RollingLogFile, batching lines
+ * into a direct buffer so a burst costs one write (rolling over happens there too).
+ * What happens when the buffer is full is set by the overflow policy; essential
+ * entries (errors) always wait for room.
+ * Lines tagged with a ticket ID or plate are recorded in an optional LogOffsetIndex
+ * at the byte offset they were written to.
+ * If a write fails the writer stays alive: entries are dropped (and counted) while it
+ * reopens the file once per RETRY_MILLIS, so callers never wait on a broken file.
+ * Pending lines are written and forced to disk on close().
+ * This class must not log through Logger itself.
+ */
+public class AsyncLogAppender implements AutoCloseable {
+
+    /**
+     * What append() does when the ring buffer is full
+     */
+    public enum OverflowPolicy {
+        BLOCK,  // Wait for room (no entry is lost)
+        DROP,   // Drop the entry and count it
+        SAMPLE  // Wait for room for one entry in sampleRate, drop the rest
+    }
+
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_SAMPLE_RATE = 10;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    static final long RETRY_MILLIS = 1000;
+    private static final String DROP_REASON = "buffer full or file not writable";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final LogRingBuffer<QueuedLine> buffer;
+    private final RollingLogFile file;
+    private final LogOffsetIndex index;
+    private final boolean jsonLines;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean writerIdle;
+    private volatile boolean failed;
+    private boolean failureReported; // writer thread only
+    private int batchedLines; // writer thread only: queued lines in the write buffer
+
+    // Metrics
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long droppedReported; // writer thread only
+
+    public AsyncLogAppender(Path file) throws IOException {
+        this(new RollingLogFile(file, RollingLogFile.NO_SIZE_LIMIT, false, RollingLogFile.KEEP_ALL),
+             DEFAULT_CAPACITY, OverflowPolicy.BLOCK, DEFAULT_SAMPLE_RATE);
+    }
+
+    public AsyncLogAppender(Path file, int capacity, OverflowPolicy overflowPolicy, int sampleRate)
+            throws IOException {
+        this(new RollingLogFile(file, RollingLogFile.NO_SIZE_LIMIT, false, RollingLogFile.KEEP_ALL),
+             capacity, overflowPolicy, sampleRate);
+    }
+
+    public AsyncLogAppender(RollingLogFile file, int capacity, OverflowPolicy overflowPolicy, int sampleRate) {
+        this(file, capacity, overflowPolicy, sampleRate, null, false);
+    }
+
+    /**
+     * @param index Index of tagged lines, or null for none
+     * @param jsonLines true if the file holds JSON lines (the drop notice is written as one too)
+     */
+    public AsyncLogAppender(RollingLogFile file, int capacity, OverflowPolicy overflowPolicy, int sampleRate,
+                            LogOffsetIndex index, boolean jsonLines) {
+        this.file = file;
+        this.index = index;
+        this.jsonLines = jsonLines;
+        this.buffer = new LogRingBuffer<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.writer = new Thread(this::runWriter, "log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue one line (without trailing newline) for the log file
+     * @param entry Formatted log line, may span several lines (stack traces)
+     * @param essential true to wait for room whatever the overflow policy
+     * @return true if queued, false if dropped, the appender is closed or the file is not writable
+     */
+    public boolean append(String entry, boolean essential) {
+        return append(entry, null, null, essential);
+    }
+
+    /**
+     * Queue one line and index it under a ticket ID and/or plate
+     * @param ticketId Ticket the line is about, or null
+     * @param plate License plate the line is about, or null
+     */
+    public boolean append(String entry, Integer ticketId, String plate, boolean essential) {
+        if (!running) {
+            return false;
+        }
+        if (failed) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        QueuedLine line = new QueuedLine(entry, ticketId, plate);
+        if (buffer.offer(line)) {
+            appended.incrementAndGet();
+            wakeWriter();
+            return true;
+        }
+
+        long overflow = overflowed.incrementAndGet();
+        boolean wait = essential || overflowPolicy == OverflowPolicy.BLOCK
+                    || (overflowPolicy == OverflowPolicy.SAMPLE && overflow % sampleRate == 0);
+        if (!wait) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        while (!buffer.offer(line)) {
+            if (!running || failed) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            wakeWriter();
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        appended.incrementAndGet();
+        wakeWriter();
+        return true;
+    }
+
+    /**
+     * Wait until every queued entry has been handed to the file
+     * @return true if the buffer drained within the timeout
+     */
+    public boolean awaitDrained(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!(buffer.isEmpty() && writerIdle)) {
+            if (System.nanoTime() - deadline >= 0 || !writer.isAlive()) {
+                return buffer.isEmpty();
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Stop accepting entries, write everything still queued and close the file
+     * @return true if the writer finished within the timeout
+     */
+    public boolean close(long timeoutMillis) {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !writer.isAlive();
+    }
+
+    @Override
+    public void close() {
+        close(5000);
+    }
+
+    private void wakeWriter() {
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void runWriter() {
+        ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        try {
+            while (true) {
+                QueuedLine line = null;
+                try {
+                    if (failed) {
+                        if (!running) {
+                            discardQueued();
+                            break;
+                        }
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_MILLIS));
+                        if (!reopen()) {
+                            continue;
+                        }
+                    }
+
+                    line = buffer.poll();
+                    if (line != null) {
+                        write(out, line.text, line.ticketId, line.plate);
+                        line = null;
+                        batchedLines++;
+                        continue;
+                    }
+
+                    // Buffer empty: push the batch to the file, then sleep until woken
+                    writeDropNotice(out);
+                    drain(out);
+                    if (!running && buffer.isEmpty()) {
+                        file.force();
+                        break;
+                    }
+                    writerIdle = true;
+                    if (buffer.isEmpty() && running) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    writerIdle = false;
+                } catch (IOException | RuntimeException e) {
+                    writeFailed(out, line, e);
+                }
+            }
+        } finally {
+            writerIdle = true;
+            try {
+                if (index != null) {
+                    index.close();
+                }
+                file.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close log file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drop the batch that did not reach the file and stop accepting entries until it reopens
+     * @param line Entry being written when the write failed, or null
+     */
+    private void writeFailed(ByteBuffer out, QueuedLine line, Exception e) {
+        dropped.addAndGet(batchedLines + (line != null ? 1 : 0));
+        batchedLines = 0;
+        out.clear();
+        if (index != null) {
+            index.discard();
+        }
+        failed = true;
+        if (!failureReported) {
+            failureReported = true;
+            System.err.println("Failed to write to log file, dropping entries until it can be reopened: "
+                               + e.getMessage());
+        }
+    }
+
+    /**
+     * @return true if the file (and index) could be opened again
+     */
+    private boolean reopen() {
+        try {
+            file.reopen();
+            if (index != null) {
+                index.reopen();
+            }
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+        failed = false;
+        return true;
+    }
+
+    /**
+     * Count everything still queued as dropped (closed while the file was not writable)
+     */
+    private void discardQueued() {
+        while (buffer.poll() != null) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void write(ByteBuffer out, String entry, Integer ticketId, String plate) throws IOException {
+        byte[] bytes = (entry + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        if (file.isRollDue(out.position() + bytes.length)) {
+            // Roll here rather than inside the file so the index follows its segment
+            drain(out);
+            Path archive = file.roll();
+            if (index != null) {
+                index.roll(archive);
+            }
+        }
+        if (bytes.length > out.remaining()) {
+            drain(out);
+        }
+        if (index != null && (ticketId != null || plate != null)) {
+            index.record(file.size() + out.position(), bytes.length, ticketId, plate);
+        }
+        if (bytes.length > out.capacity()) {
+            file.write(ByteBuffer.wrap(bytes));
+            return;
+        }
+        out.put(bytes);
+    }
+
+    private void drain(ByteBuffer out) throws IOException {
+        out.flip();
+        if (out.hasRemaining()) {
+            file.write(out);
+        }
+        out.clear();
+        batchedLines = 0;
+        if (index != null) {
+            index.flush();
+        }
+        failureReported = false;
+    }
+
+    /**
+     * Record in the file itself that entries were dropped since the last notice
+     */
+    private void writeDropNotice(ByteBuffer out) throws IOException {
+        long total = dropped.get();
+        if (total == droppedReported) {
+            return;
+        }
+        String timestamp = LocalDateTime.now().format(DATE_FORMAT);
+        long count = total - droppedReported;
+        String notice = jsonLines
+                ? String.format("{\"ts\":\"%s\",\"level\":\"WARN\",\"thread\":\"%s\",\"logger\":\"AsyncLogAppender\","
+                                + "\"msg\":\"%d log entries dropped (%s)\",\"dropped\":%d}",
+                                timestamp, writer.getName(), count, DROP_REASON, count)
+                : String.format("[%s] [%s] [WARN ] AsyncLogAppender - %d log entries dropped (%s)",
+                                timestamp, writer.getName(), count, DROP_REASON);
+        write(out, notice, null, null);
+        droppedReported = total;
+    }
+
+    // Metrics
+    public long getAppendedCount() {
+        return appended.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    private static final class QueuedLine {
+        private final String text;
+        private final Integer ticketId;
+        private final String plate;
+
+        QueuedLine(String text, Integer ticketId, String plate) {
+            this.text = text;
+            this.ticketId = ticketId;
+            this.plate = plate;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package app.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Typed fields attached to a log entry: written as JSON properties in the JSON-lines
+ * format, and used to index the entry by ticket ID and plate.
+ * Built at the call site, e.g. {@code LogFields.ticket(id).licensePlate(plate).amountCents(cents)}.
+ */
+public final class LogFields {
+    private Integer ticketId;
+    private String plate;
+    private Integer operatorId;
+    private Long durationMinutes;
+    private Long amountCents;
+
+    private LogFields() {}
+
+    public static LogFields ticket(int ticketId) {
+        return new LogFields().ticketId(ticketId);
+    }
+
+    public static LogFields plate(String plate) {
+        return new LogFields().licensePlate(plate);
+    }
+
+    public static LogFields operator(int operatorId) {
+        return new LogFields().operatorId(operatorId);
+    }
+
+    public LogFields ticketId(int ticketId) {
+        this.ticketId = ticketId;
+        return this;
+    }
+
+    public LogFields licensePlate(String plate) {
+        this.plate = plate != null ? plate.toUpperCase().trim() : null;
+        return this;
+    }
+
+    public LogFields operatorId(int operatorId) {
+        this.operatorId = operatorId;
+        return this;
+    }
+
+    public LogFields durationMinutes(long durationMinutes) {
+        this.durationMinutes = durationMinutes;
+        return this;
+    }
+
+    public LogFields amountCents(long amountCents) {
+        this.amountCents = amountCents;
+        return this;
+    }
+
+    public Integer getTicketId() {
+        return ticketId;
+    }
+
+    public String getPlate() {
+        return plate;
+    }
+
+    /**
+     * @return true if the entry is indexed (it carries a ticket ID or plate)
+     */
+    boolean isIndexed() {
+        return ticketId != null || plate != null;
+    }
+
+    /**
+     * Append the set fields as JSON properties, each preceded by a comma
+     */
+    void appendJson(StringBuilder sb) {
+        if (ticketId != null) {
+            sb.append(",\"ticketId\":").append(ticketId.intValue());
+        }
+        if (plate != null) {
+            sb.append(",\"plate\":");
+            appendJsonString(sb, plate);
+        }
+        if (operatorId != null) {
+            sb.append(",\"operatorId\":").append(operatorId.intValue());
+        }
+        if (durationMinutes != null) {
+            sb.append(",\"durationMinutes\":").append(durationMinutes.longValue());
+        }
+        if (amountCents != null) {
+            sb.append(",\"amount\":").append(BigDecimal.valueOf(amountCents, 2).toPlainString());
+        }
+    }
+
+    /**
+     * Append a JSON string literal, escaping quotes, backslashes and control characters
+     */
+    static void appendJsonString(StringBuilder sb, CharSequence value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
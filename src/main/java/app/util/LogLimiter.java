@@ -0,0 +1,171 @@
+package app.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-call-site limit for the DEBUG and INFO lines of one class, configured in
+ * logging.properties as log.limit.&lt;Class&gt;=N/s (at most N lines per second from each
+ * call site) or 1/K (one line in K). A call site is identified by its message template
+ * (or the class of its Supplier), so the check happens before anything is formatted.
+ * Suppressed lines are counted; the count is added to the next line let through and
+ * reported periodically for call sites that went quiet.
+ */
+final class LogLimiter {
+    static final int MAX_SITES = 1024;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final String className;
+    private final boolean perSecond;
+    private final int limit;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<Object, Site> sites = new ConcurrentHashMap<>();
+    private final Site overflowSite;
+
+    LogLimiter(String className, boolean perSecond, int limit, LongSupplier nanoClock) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Log limit must be at least 1: " + limit);
+        }
+        this.className = className;
+        this.perSecond = perSecond;
+        this.limit = limit;
+        this.nanoClock = nanoClock;
+        this.overflowSite = new Site(this);
+    }
+
+    /**
+     * @param spec "N/s" for a rate or "1/K" for sampling
+     * @return Limiter, or null if the spec is empty or "none"
+     * @throws IllegalArgumentException if the spec cannot be parsed
+     */
+    static LogLimiter parse(String className, String spec, LongSupplier nanoClock) {
+        if (spec == null || spec.isBlank() || spec.trim().equalsIgnoreCase("none")) {
+            return null;
+        }
+        String[] parts = spec.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid log limit for " + className + ": " + spec);
+        }
+        String left = parts[0].trim();
+        String right = parts[1].trim();
+        try {
+            if (right.equalsIgnoreCase("s")) {
+                return new LogLimiter(className, true, Integer.parseInt(left), nanoClock);
+            }
+            if (left.equals("1")) {
+                return new LogLimiter(className, false, Integer.parseInt(right), nanoClock);
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid log limit for " + className + ": " + spec);
+    }
+
+    /**
+     * Count one line from a call site
+     * @param callSite Message template or Supplier class
+     * @return Site state if the line should be written, null if it is suppressed
+     */
+    Site admit(Object callSite) {
+        Site site = sites.get(callSite);
+        if (site == null) {
+            // Messages built by concatenation would add a site per line; cap them
+            site = sites.size() < MAX_SITES ? sites.computeIfAbsent(callSite, key -> new Site(this)) : overflowSite;
+        }
+        if (site.tryAcquire()) {
+            return site;
+        }
+        site.suppressed.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Call sites with suppressed lines whose count was not reported in the last interval;
+     * their counts are taken (reset) by this call
+     */
+    List<Report> takeIdleReports(long intervalNanos) {
+        List<Report> reports = new ArrayList<>();
+        long now = nanoClock.getAsLong();
+        List<Site> all = new ArrayList<>(sites.values());
+        all.add(overflowSite);
+        for (Site site : all) {
+            if (site.suppressed.get() > 0 && now - site.lastReportNanos >= intervalNanos) {
+                long count = site.takeSuppressed(null);
+                if (count > 0) {
+                    reports.add(new Report(site.description, count));
+                }
+            }
+        }
+        return reports;
+    }
+
+    String getClassName() {
+        return className;
+    }
+
+    /**
+     * State of one call site
+     */
+    static final class Site {
+        private final LogLimiter limiter;
+        private final AtomicLong window = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong counter = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+        private volatile long lastReportNanos;
+        private volatile String description;
+
+        private Site(LogLimiter limiter) {
+            this.limiter = limiter;
+            this.lastReportNanos = limiter.nanoClock.getAsLong();
+        }
+
+        private boolean tryAcquire() {
+            if (!limiter.perSecond) {
+                return counter.getAndIncrement() % limiter.limit == 0;
+            }
+            long second = Math.floorDiv(limiter.nanoClock.getAsLong(), NANOS_PER_SECOND);
+            long current = window.get();
+            if (current != second && window.compareAndSet(current, second)) {
+                counter.set(0);
+            }
+            return counter.incrementAndGet() <= limiter.limit;
+        }
+
+        /**
+         * Take the number of lines suppressed since the last call
+         * @param message Message template of the site, remembered for periodic reports
+         */
+        long takeSuppressed(String message) {
+            if (message != null && description == null) {
+                description = message;
+            }
+            lastReportNanos = limiter.nanoClock.getAsLong();
+            return suppressed.getAndSet(0);
+        }
+    }
+
+    /**
+     * Suppressed line count of one call site
+     */
+    static final class Report {
+        private final String message;
+        private final long count;
+
+        Report(String message, long count) {
+            this.message = message;
+            this.count = count;
+        }
+
+        String getMessage() {
+            return message;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package app.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Companion index of the log segments. For every entry tagged with a ticket ID or
+ * plate (see LogFields) the writer thread appends "t:&lt;ticketId&gt; &lt;offset&gt; &lt;length&gt;"
+ * or "p:&lt;plate&gt; &lt;offset&gt; &lt;length&gt;" to &lt;segment&gt;.idx, where offset is the byte
+ * position of the entry in the uncompressed segment and length its size in bytes, so
+ * multi-line entries (stack traces in TEXT format) are read back whole.
+ * The index rolls with its segment (crudpark.log.idx becomes crudpark-yyyy-MM-dd.N.log.idx),
+ * so finding every entry for a ticket reads the small index files and jumps straight
+ * to the entries instead of scanning the logs. Offsets in compressed archives are
+ * reached by skipping through the decompressed stream.
+ * This class must not log through Logger itself.
+ */
+public class LogOffsetIndex {
+    private static final String SUFFIX = ".idx";
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final Path segment;
+    private final StringBuilder pending = new StringBuilder();
+    private BufferedWriter out;
+
+    /**
+     * @param segment Active log file the offsets refer to
+     */
+    public LogOffsetIndex(Path segment) throws IOException {
+        this.segment = segment.toAbsolutePath();
+        open();
+    }
+
+    /**
+     * Record the offset of an entry in the active segment (writer thread only).
+     * Held in memory until flush().
+     * @param length Size of the entry in bytes, line separator included
+     */
+    void record(long offset, int length, Integer ticketId, String plate) {
+        if (ticketId != null) {
+            pending.append("t:").append(ticketId);
+            appendLocation(offset, length);
+        }
+        if (plate != null) {
+            pending.append("p:").append(plate);
+            appendLocation(offset, length);
+        }
+    }
+
+    private void appendLocation(long offset, int length) {
+        pending.append(' ').append(offset).append(' ').append(length).append(System.lineSeparator());
+    }
+
+    /**
+     * Push recorded offsets to the index file; called after the segment bytes they
+     * point to have been written
+     */
+    void flush() throws IOException {
+        if (pending.length() > 0) {
+            out.write(pending.toString());
+            pending.setLength(0);
+        }
+        out.flush();
+    }
+
+    /**
+     * Forget offsets recorded since the last flush(); their entries never reached the segment
+     */
+    void discard() {
+        pending.setLength(0);
+    }
+
+    /**
+     * Close the index file, ignoring errors, and open it again (after a failed write)
+     */
+    void reopen() throws IOException {
+        discard();
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // The old writer is unusable either way
+        }
+        open();
+    }
+
+    /**
+     * Move the index of the segment that was just archived next to it and start a new one
+     * @param archivedSegment New name of the rolled segment
+     */
+    void roll(Path archivedSegment) throws IOException {
+        out.close();
+        Files.move(indexFor(segment), indexFor(archivedSegment));
+        open();
+    }
+
+    void close() throws IOException {
+        out.close();
+    }
+
+    private void open() throws IOException {
+        out = Files.newBufferedWriter(indexFor(segment), StandardCharsets.UTF_8,
+                                      StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                      StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @return Index file of a segment (the segment name plus .idx, without .gz)
+     */
+    static Path indexFor(Path segment) {
+        String name = segment.getFileName().toString();
+        if (name.endsWith(GZIP_SUFFIX)) {
+            name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+        }
+        return segment.resolveSibling(name + SUFFIX);
+    }
+
+    /**
+     * Every indexed entry for a ticket, oldest segment first
+     * @param logFile Active log file (e.g. logs/crudpark.log)
+     */
+    public static List<String> findByTicket(Path logFile, int ticketId) throws IOException {
+        return find(logFile, "t:" + ticketId);
+    }
+
+    /**
+     * Every indexed entry for a license plate, oldest segment first
+     * @param logFile Active log file (e.g. logs/crudpark.log)
+     */
+    public static List<String> findByPlate(Path logFile, String plate) throws IOException {
+        return find(logFile, "p:" + plate.toUpperCase().trim());
+    }
+
+    private static List<String> find(Path logFile, String key) throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (Path segment : segmentsOldestFirst(logFile.toAbsolutePath())) {
+            Path index = indexFor(segment);
+            if (!Files.exists(index)) {
+                continue;
+            }
+            List<Location> locations = new ArrayList<>();
+            String prefix = key + " ";
+            for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+                if (line.startsWith(prefix)) {
+                    String[] parts = line.substring(prefix.length()).split(" ");
+                    locations.add(new Location(Long.parseLong(parts[0]), Integer.parseInt(parts[1])));
+                }
+            }
+            if (!locations.isEmpty()) {
+                entries.addAll(readEntriesAt(segment, locations));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Archived segments by date and sequence number, then the active one. An archive
+     * is either X.log (not compressed yet) or X.log.gz.
+     */
+    private static List<Path> segmentsOldestFirst(Path logFile) throws IOException {
+        String name = logFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        Pattern archiveName = Pattern.compile(Pattern.quote(baseName) + "-(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)"
+                                              + Pattern.quote(extension) + Pattern.quote(SUFFIX));
+
+        List<Archive> archives = new ArrayList<>();
+        try (Stream<Path> files = Files.list(logFile.getParent())) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Matcher matcher = archiveName.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    archives.add(new Archive(matcher.group(1), Integer.parseInt(matcher.group(2)), path));
+                }
+            }
+        }
+        archives.sort(Comparator.comparing((Archive archive) -> archive.date)
+                                .thenComparingInt(archive -> archive.sequence));
+
+        List<Path> segments = new ArrayList<>();
+        for (Archive archive : archives) {
+            String indexName = archive.index.getFileName().toString();
+            Path plain = logFile.resolveSibling(indexName.substring(0, indexName.length() - SUFFIX.length()));
+            Path compressed = plain.resolveSibling(plain.getFileName() + GZIP_SUFFIX);
+            if (Files.exists(plain)) {
+                segments.add(plain);
+            } else if (Files.exists(compressed)) {
+                segments.add(compressed);
+            }
+        }
+        segments.add(logFile);
+        return segments;
+    }
+
+    /**
+     * Read the entry at each location, in one forward pass over the segment
+     */
+    private static List<String> readEntriesAt(Path segment, List<Location> locations) throws IOException {
+        locations.sort(Comparator.comparingLong(location -> location.offset));
+        List<String> entries = new ArrayList<>();
+        InputStream raw = new BufferedInputStream(Files.newInputStream(segment));
+        try (InputStream in = segment.getFileName().toString().endsWith(GZIP_SUFFIX)
+                ? new BufferedInputStream(new GZIPInputStream(raw)) : raw) {
+            long position = 0;
+            for (Location location : locations) {
+                if (location.offset < position) {
+                    continue;
+                }
+                in.skipNBytes(location.offset - position);
+                byte[] entry = in.readNBytes(location.length);
+                position = location.offset + entry.length;
+                entries.add(new String(entry, StandardCharsets.UTF_8).stripTrailing());
+            }
+        }
+        return entries;
+    }
+
+    private static final class Location {
+        private final long offset;
+        private final int length;
+
+        Location(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static final class Archive {
+        private final String date;
+        private final int sequence;
+        private final Path index;
+
+        Archive(String date, int sequence, Path index) {
+            this.date = date;
+            this.sequence = sequence;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package app.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer of log entries.
+ * Producers claim a slot with one CAS on the tail; every slot carries a sequence
+ * number that tells the consumer when the entry in it has been published, so
+ * neither side takes a lock.
+ */
+final class LogRingBuffer<E> {
+    private final E[] entries;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // written by the consumer only
+
+    /**
+     * @param capacity Minimum number of entries, rounded up to a power of two
+     */
+    LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        @SuppressWarnings("unchecked")
+        E[] slots = (E[]) new Object[size];
+        this.entries = slots;
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Publish an entry without blocking
+     * @return false if the buffer is full
+     */
+    boolean offer(E entry) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    entries[index] = entry;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // Slot still holds an entry from the previous lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Take the oldest published entry (consumer thread only)
+     * @return Entry, or null if none is published yet
+     */
+    E poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E entry = entries[index];
+        entries[index] = null;
+        sequences.set(index, position + mask + 1);
+        head = position + 1;
+        return entry;
+    }
+
+    boolean isEmpty() {
+        return head == tail.get();
+    }
+
+    int capacity() {
+        return entries.length;
+    }
+}
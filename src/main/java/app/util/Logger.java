@@ -2,16 +2,32 @@ package app.util;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Simple logging utility for application tracking and debugging
- * Logs to both console and file without external dependencies
+ * Logs to both console and file without external dependencies.
+ * File output goes through an AsyncLogAppender configured from logging.properties,
+ * so callers never wait on disk I/O; the file rolls over by size and by day.
+ * With log.format=JSON the file holds one JSON object per line, carrying the typed
+ * LogFields of the entry; the console always gets the text line.
+ * DEBUG and INFO lines of a class can be rate limited or sampled per call site
+ * (log.limit.&lt;Class&gt;, see LogLimiter).
  */
 public class Logger {
     
@@ -34,16 +50,144 @@ public class Logger {
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final String LOG_DIR = "logs";
     private static final String LOG_FILE = "crudpark.log";
-    private static Level currentLevel = Level.INFO; // Default level
+    private static final long DEFAULT_MAX_SEGMENT_BYTES = 10L * 1024 * 1024;
+    private static final int DEFAULT_MAX_ARCHIVES = 30;
+    private static volatile Level currentLevel = Level.INFO; // Default level
+    private static final int MAX_RETAINED_BUFFER = 8 * 1024;
+    
+    /**
+     * Per-thread builder for log lines, reused across calls
+     */
+    private static final class FormatBuffer {
+        private StringBuilder builder = new StringBuilder(256);
+        private boolean inUse;
+    }
+    
+    private static final ThreadLocal<FormatBuffer> FORMAT_BUFFER = ThreadLocal.withInitial(FormatBuffer::new);
+    private static volatile CachedTimestamp cachedTimestamp = new CachedTimestamp(-1, "");
+    
+    /**
+     * Contents of logging.properties, loaded on first use
+     */
+    private static final class Settings {
+        private static final Properties PROPERTIES = loadProperties();
+        
+        private static Properties loadProperties() {
+            Properties prop = new Properties();
+            try (InputStream input = Logger.class.getClassLoader().getResourceAsStream("logging.properties")) {
+                if (input != null) {
+                    prop.load(input);
+                }
+            } catch (IOException e) {
+                System.err.println("Error loading logging properties: " + e.getMessage());
+            }
+            return prop;
+        }
+    }
+    
+    /**
+     * File appender and format, set up on first use from logging.properties
+     */
+    private static final class FileOutput {
+        private static final boolean JSON = 
+            "JSON".equalsIgnoreCase(Settings.PROPERTIES.getProperty("log.format", "TEXT").trim());
+        private static final AsyncLogAppender APPENDER = createAppender(Settings.PROPERTIES);
+        
+        private static AsyncLogAppender createAppender(Properties prop) {
+            if (!Boolean.parseBoolean(prop.getProperty("log.async", "true"))) {
+                return null;
+            }
+            try {
+                RollingLogFile file = new RollingLogFile(
+                    Paths.get(LOG_DIR, LOG_FILE),
+                    Long.parseLong(prop.getProperty("log.rotate.max.bytes", String.valueOf(DEFAULT_MAX_SEGMENT_BYTES))),
+                    Boolean.parseBoolean(prop.getProperty("log.rotate.daily", "true")),
+                    Integer.parseInt(prop.getProperty("log.rotate.max.archives", String.valueOf(DEFAULT_MAX_ARCHIVES))));
+                LogOffsetIndex index = Boolean.parseBoolean(prop.getProperty("log.index", "true"))
+                    ? new LogOffsetIndex(file.getFile()) : null;
+                AsyncLogAppender appender = new AsyncLogAppender(
+                    file,
+                    Integer.parseInt(prop.getProperty("log.buffer.capacity", 
+                                                      String.valueOf(AsyncLogAppender.DEFAULT_CAPACITY))),
+                    AsyncLogAppender.OverflowPolicy.valueOf(prop.getProperty("log.overflow", "BLOCK").trim()),
+                    Integer.parseInt(prop.getProperty("log.overflow.sample.rate", 
+                                                      String.valueOf(AsyncLogAppender.DEFAULT_SAMPLE_RATE))),
+                    index,
+                    JSON);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> appender.close(5000), "log-shutdown"));
+                return appender;
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Asynchronous log file unavailable, writing synchronously: " + e.getMessage());
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Per-class call-site limits from logging.properties, and the thread that reports
+     * suppressed lines of call sites that went quiet
+     */
+    private static final class Limits {
+        private static final String PREFIX = "log.limit.";
+        private static final String REPORT_SECONDS = PREFIX + "report.seconds";
+        private static final Map<String, LogLimiter> BY_CLASS = createLimiters(Settings.PROPERTIES);
+        
+        private static Map<String, LogLimiter> createLimiters(Properties prop) {
+            Map<String, LogLimiter> limiters = new HashMap<>();
+            for (String name : prop.stringPropertyNames()) {
+                if (!name.startsWith(PREFIX) || name.equals(REPORT_SECONDS)) {
+                    continue;
+                }
+                String limitedClass = name.substring(PREFIX.length());
+                try {
+                    LogLimiter limiter = LogLimiter.parse(limitedClass, prop.getProperty(name), System::nanoTime);
+                    if (limiter != null) {
+                        limiters.put(limitedClass, limiter);
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.err.println(e.getMessage());
+                }
+            }
+            if (!limiters.isEmpty()) {
+                long seconds = Long.parseLong(prop.getProperty(REPORT_SECONDS, "60").trim());
+                startReporter(limiters, Math.max(1, seconds));
+            }
+            return limiters;
+        }
+        
+        private static void startReporter(Map<String, LogLimiter> limiters, long seconds) {
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "log-limit-report");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalNanos = TimeUnit.SECONDS.toNanos(seconds);
+            reporter.scheduleAtFixedRate(() -> {
+                for (LogLimiter limiter : limiters.values()) {
+                    Logger logger = new Logger(limiter.getClassName(), null);
+                    for (LogLimiter.Report report : limiter.takeIdleReports(intervalNanos)) {
+                        logger.write(Level.INFO, null, "{} lines suppressed in the last {}s like: {}", 
+                                     new Object[] {report.getCount(), seconds, report.getMessage()}, null, 0);
+                    }
+                }
+            }, seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
     
     private final String className;
+    private final LogLimiter limiter;
     
     /**
      * Constructor
      * @param clazz The class that will use this logger
      */
     public Logger(Class<?> clazz) {
-        this.className = clazz.getSimpleName();
+        this(clazz.getSimpleName(), Limits.BY_CLASS.get(clazz.getSimpleName()));
+    }
+    
+    Logger(String className, LogLimiter limiter) {
+        this.className = className;
+        this.limiter = limiter;
     }
     
     /**
@@ -60,112 +204,363 @@ public class Logger {
         currentLevel = level;
     }
     
+    /**
+     * @return true if messages at this level are written
+     */
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= currentLevel.ordinal();
+    }
+    
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+    
     /**
      * Log a debug message
      */
     public void debug(String message) {
-        log(Level.DEBUG, message, null);
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, null, message, null, null);
+        }
+    }
+    
+    public void debug(String message, Object arg) {
+        if (isEnabled(Level.DEBUG)) {
+            logArgs(Level.DEBUG, message, arg);
+        }
+    }
+    
+    public void debug(String message, Object arg1, Object arg2) {
+        if (isEnabled(Level.DEBUG)) {
+            logArgs(Level.DEBUG, message, arg1, arg2);
+        }
+    }
+    
+    public void debug(String message, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(Level.DEBUG)) {
+            logArgs(Level.DEBUG, message, arg1, arg2, arg3);
+        }
     }
     
     public void debug(String message, Object... args) {
-        log(Level.DEBUG, formatMessage(message, args), null);
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, null, message, args, null);
+        }
+    }
+    
+    /**
+     * Log a debug message built only if debug is enabled
+     */
+    public void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            logLazy(Level.DEBUG, message);
+        }
+    }
+    
+    /**
+     * Log a debug message with typed fields (JSON properties and ticket/plate index)
+     */
+    public void debug(LogFields fields, String message, Object... args) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, fields, message, args, null);
+        }
     }
     
     /**
      * Log an info message
      */
     public void info(String message) {
-        log(Level.INFO, message, null);
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, null, message, null, null);
+        }
+    }
+    
+    public void info(String message, Object arg) {
+        if (isEnabled(Level.INFO)) {
+            logArgs(Level.INFO, message, arg);
+        }
+    }
+    
+    public void info(String message, Object arg1, Object arg2) {
+        if (isEnabled(Level.INFO)) {
+            logArgs(Level.INFO, message, arg1, arg2);
+        }
+    }
+    
+    public void info(String message, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(Level.INFO)) {
+            logArgs(Level.INFO, message, arg1, arg2, arg3);
+        }
     }
     
     public void info(String message, Object... args) {
-        log(Level.INFO, formatMessage(message, args), null);
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, null, message, args, null);
+        }
+    }
+    
+    /**
+     * Log an info message built only if info is enabled
+     */
+    public void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) {
+            logLazy(Level.INFO, message);
+        }
+    }
+    
+    /**
+     * Log an info message with typed fields
+     */
+    public void info(LogFields fields, String message, Object... args) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, fields, message, args, null);
+        }
     }
     
     /**
      * Log a warning message
      */
     public void warn(String message) {
-        log(Level.WARN, message, null);
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, null, message, null, null);
+        }
+    }
+    
+    public void warn(String message, Object arg) {
+        if (isEnabled(Level.WARN)) {
+            logArgs(Level.WARN, message, arg);
+        }
+    }
+    
+    public void warn(String message, Object arg1, Object arg2) {
+        if (isEnabled(Level.WARN)) {
+            logArgs(Level.WARN, message, arg1, arg2);
+        }
     }
     
     public void warn(String message, Object... args) {
-        log(Level.WARN, formatMessage(message, args), null);
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, null, message, args, null);
+        }
+    }
+    
+    /**
+     * Log a warning message with typed fields
+     */
+    public void warn(LogFields fields, String message, Object... args) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, fields, message, args, null);
+        }
     }
     
     /**
      * Log an error message
      */
     public void error(String message) {
-        log(Level.ERROR, message, null);
+        log(Level.ERROR, null, message, null, null);
     }
     
     public void error(String message, Throwable throwable) {
-        log(Level.ERROR, message, throwable);
+        log(Level.ERROR, null, message, null, throwable);
     }
     
     public void error(String message, Object... args) {
-        log(Level.ERROR, formatMessage(message, args), null);
+        log(Level.ERROR, null, message, args, null);
+    }
+    
+    /**
+     * Log an error message with typed fields
+     */
+    public void error(LogFields fields, String message, Throwable throwable) {
+        log(Level.ERROR, fields, message, null, throwable);
+    }
+    
+    /*
+     * Fixed-arity entry points build the argument array here, out of line, so the public
+     * methods stay small enough to inline and disabled calls allocate nothing
+     */
+    private void logArgs(Level level, String message, Object arg) {
+        log(level, null, message, new Object[] {arg}, null);
+    }
+    
+    private void logArgs(Level level, String message, Object arg1, Object arg2) {
+        log(level, null, message, new Object[] {arg1, arg2}, null);
+    }
+    
+    private void logArgs(Level level, String message, Object arg1, Object arg2, Object arg3) {
+        log(level, null, message, new Object[] {arg1, arg2, arg3}, null);
+    }
+    
+    /**
+     * Main logging method, called once the level is known to be enabled.
+     * DEBUG and INFO lines go through the class's call-site limit first, keyed by the template,
+     * except lines tagged with a ticket ID or plate: the offset index must see all of those.
+     */
+    private void log(Level level, LogFields fields, String message, Object[] args, Throwable throwable) {
+        long suppressed = 0;
+        if (limiter != null && message != null && level.ordinal() < Level.WARN.ordinal()
+                && (fields == null || !fields.isIndexed())) {
+            LogLimiter.Site site = limiter.admit(message);
+            if (site == null) {
+                return;
+            }
+            suppressed = site.takeSuppressed(message);
+        }
+        write(level, fields, message, args, throwable, suppressed);
     }
     
     /**
-     * Main logging method
+     * Supplier messages are limited by the Supplier's class (one per call site), before
+     * the message is built
      */
-    private void log(Level level, String message, Throwable throwable) {
-        // Check if this level should be logged
-        if (level.ordinal() < currentLevel.ordinal()) {
+    private void logLazy(Level level, Supplier<String> message) {
+        if (limiter == null) {
+            write(level, null, message.get(), null, null, 0);
             return;
         }
-        
-        String timestamp = LocalDateTime.now().format(DATE_FORMAT);
+        LogLimiter.Site site = limiter.admit(message.getClass());
+        if (site != null) {
+            String text = message.get();
+            write(level, null, text, null, null, site.takeSuppressed(text));
+        }
+    }
+    
+    /**
+     * Format the line and write it to the console and the file
+     * @param suppressed Lines of the same call site suppressed since the last one written
+     */
+    private void write(Level level, LogFields fields, String message, Object[] args, Throwable throwable,
+                       long suppressed) {
+        // Header and message are built in the thread's reused builder, the only copy is
+        // the final line. A nested call (an argument's toString() that logs) gets its own.
+        FormatBuffer buffer = FORMAT_BUFFER.get();
+        boolean reuse = !buffer.inUse;
+        StringBuilder sb = reuse ? buffer.builder : new StringBuilder(256);
+        String timestamp = timestamp();
         String threadName = Thread.currentThread().getName();
+        String logEntry;
+        String formattedMessage = null;
+        try {
+            buffer.inUse = true;
+            sb.setLength(0);
+            sb.append('[').append(timestamp).append("] [")
+              .append(threadName).append("] [")
+              .append(level.label).append("] ")
+              .append(className).append(" - ");
+            int messageStart = sb.length();
+            appendFormatted(sb, message, args);
+            if (suppressed > 0) {
+                sb.append(" (+").append(suppressed).append(" similar suppressed)");
+            }
+            logEntry = sb.toString();
+            if (FileOutput.JSON) {
+                formattedMessage = logEntry.substring(messageStart);
+            }
+        } finally {
+            if (reuse) {
+                buffer.inUse = false;
+                if (sb.capacity() > MAX_RETAINED_BUFFER) {
+                    buffer.builder = new StringBuilder(256);
+                }
+            }
+        }
+        System.out.println(level.colorCode + logEntry + RESET_COLOR);
         
-        // Format log entry
-        String logEntry = String.format("[%s] [%s] [%-5s] %s - %s",
-            timestamp,
-            threadName,
-            level.label,
-            className,
-            message
-        );
-        
-        // Console output with color
-        String consoleEntry = String.format("%s[%s] [%s] [%-5s] %s - %s%s",
-            level.colorCode,
-            timestamp,
-            threadName,
-            level.label,
-            className,
-            message,
-            RESET_COLOR
-        );
-        
-        System.out.println(consoleEntry);
-        
-        // Write to file
-        writeToFile(logEntry);
-        
-        // If there's a throwable, log the stack trace
+        // If there's a throwable, the stack trace goes into the same file entry
+        String stackTrace = null;
         if (throwable != null) {
-            String stackTrace = getStackTrace(throwable);
+            stackTrace = getStackTrace(throwable);
             System.err.println(stackTrace);
-            writeToFile(stackTrace);
+            logEntry = logEntry + System.lineSeparator() + stackTrace;
+        }
+        if (formattedMessage != null) {
+            logEntry = formatJson(timestamp, threadName, level, className, formattedMessage, fields, stackTrace);
+        }
+        
+        // Write to file
+        writeToFile(logEntry, fields, level == Level.ERROR);
+    }
+    
+    /**
+     * One JSON-lines entry: ts, level, thread, logger, msg, the typed fields, then exception
+     */
+    static String formatJson(String timestamp, String threadName, Level level, String loggerName,
+                             String message, LogFields fields, String stackTrace) {
+        StringBuilder sb = new StringBuilder(128 + message.length());
+        sb.append("{\"ts\":");
+        LogFields.appendJsonString(sb, timestamp);
+        sb.append(",\"level\":\"").append(level.name()).append("\",\"thread\":");
+        LogFields.appendJsonString(sb, threadName);
+        sb.append(",\"logger\":");
+        LogFields.appendJsonString(sb, loggerName);
+        sb.append(",\"msg\":");
+        LogFields.appendJsonString(sb, message);
+        if (fields != null) {
+            fields.appendJson(sb);
         }
+        if (stackTrace != null) {
+            sb.append(",\"exception\":");
+            LogFields.appendJsonString(sb, stackTrace);
+        }
+        return sb.append('}').toString();
     }
     
     /**
-     * Format message with arguments (similar to SLF4J)
+     * Substitute each {} in the message with the next argument (similar to SLF4J),
+     * in one pass and without regular expressions. Placeholders without an argument
+     * are kept as they are; extra arguments are ignored.
      */
-    private String formatMessage(String message, Object... args) {
+    static void appendFormatted(StringBuilder sb, String message, Object[] args) {
+        if (message == null) {
+            sb.append("null");
+            return;
+        }
         if (args == null || args.length == 0) {
-            return message;
+            sb.append(message);
+            return;
         }
         
-        String result = message;
+        int start = 0;
         for (Object arg : args) {
-            result = result.replaceFirst("\\{\\}", arg != null ? arg.toString() : "null");
+            int placeholder = message.indexOf("{}", start);
+            if (placeholder < 0) {
+                break;
+            }
+            sb.append(message, start, placeholder);
+            if (arg instanceof Integer) {
+                sb.append(((Integer) arg).intValue());
+            } else if (arg instanceof Long) {
+                sb.append(((Long) arg).longValue());
+            } else {
+                sb.append(arg);
+            }
+            start = placeholder + 2;
+        }
+        sb.append(message, start, message.length());
+    }
+    
+    /**
+     * Current time formatted for the log header, reformatted once per second
+     */
+    private static String timestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        CachedTimestamp cached = cachedTimestamp;
+        if (cached.epochSecond != second) {
+            cached = new CachedTimestamp(second, LocalDateTime.ofInstant(
+                Instant.ofEpochSecond(second), ZoneId.systemDefault()).format(DATE_FORMAT));
+            cachedTimestamp = cached;
+        }
+        return cached.text;
+    }
+    
+    private static final class CachedTimestamp {
+        private final long epochSecond;
+        private final String text;
+        
+        CachedTimestamp(long epochSecond, String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
         }
-        return result;
     }
     
     /**
@@ -188,9 +583,21 @@ public class Logger {
     }
     
     /**
-     * Write log entry to file
+     * Write log entry to file (queued, unless asynchronous output is disabled)
+     * @param fields Ticket ID and plate to index the entry under, or null
+     * @param essential true if the entry must not be dropped when the queue is full
      */
-    private void writeToFile(String logEntry) {
+    private void writeToFile(String logEntry, LogFields fields, boolean essential) {
+        AsyncLogAppender appender = FileOutput.APPENDER;
+        if (appender != null) {
+            if (fields == null) {
+                appender.append(logEntry, essential);
+            } else {
+                appender.append(logEntry, fields.getTicketId(), fields.getPlate(), essential);
+            }
+            return;
+        }
+        
         try {
             // Ensure log directory exists
             Path logDir = Paths.get(LOG_DIR);
@@ -210,6 +617,16 @@ public class Logger {
         }
     }
     
+    /**
+     * Write every queued log entry to the file and close it (also done by a shutdown hook)
+     */
+    public static void shutdown() {
+        AsyncLogAppender appender = FileOutput.APPENDER;
+        if (appender != null) {
+            appender.close(5000);
+        }
+    }
+    
     /**
      * Log application startup
      */
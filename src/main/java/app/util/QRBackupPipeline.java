@@ -0,0 +1,175 @@
+package app.util;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background pipeline for QR code image backups.
+ * Entries enqueue the QR content after their transaction commits and return
+ * immediately; a small worker pool encodes the PNGs and writes them to disk in
+ * batches. The queue is bounded: when it is full the backup is dropped (and
+ * counted) rather than blocking the entry, since the file backup is optional.
+ */
+public class QRBackupPipeline {
+    private static final Logger logger = Logger.getLogger(QRBackupPipeline.class);
+
+    public static final int DEFAULT_CAPACITY = 1000;
+    public static final int DEFAULT_WORKERS = 2;
+    public static final int DEFAULT_BATCH_SIZE = 32;
+    private static final long POLL_INTERVAL_MS = 200;
+
+    private final BlockingQueue<BackupJob> queue;
+    private final ExecutorService workers;
+    private final Path directory;
+    private final int batchSize;
+    private volatile boolean running = true;
+
+    // Metrics
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public QRBackupPipeline() {
+        this(Paths.get(QRCodeGenerator.QR_CODE_DIRECTORY), DEFAULT_CAPACITY, DEFAULT_WORKERS, DEFAULT_BATCH_SIZE);
+    }
+
+    public QRBackupPipeline(Path directory, int capacity, int workerCount, int batchSize) {
+        this.directory = directory;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "qr-backup-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runWorker);
+        }
+    }
+
+    /**
+     * Queue a QR backup without blocking
+     * @param content QR content to encode
+     * @param ticketId Ticket ID for the file name
+     * @return true if queued, false if the pipeline is full or shut down
+     */
+    public boolean submit(String content, int ticketId) {
+        BackupJob job = new BackupJob(content, ticketId);
+        // A shutdown between the check and the offer may have let the workers exit;
+        // take the job back unless one of them already picked it up
+        if (!running || !queue.offer(job) || (!running && queue.remove(job))) {
+            dropped.incrementAndGet();
+            logger.warn("QR backup dropped for ticket {} (queue depth: {})", ticketId, queue.size());
+            return false;
+        }
+        submitted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Stop accepting backups and wait for the queued ones to be written
+     * @param timeoutMillis Maximum time to wait for the queue to drain
+     * @return true if every queued backup was processed in time
+     */
+    public boolean shutdown(long timeoutMillis) {
+        running = false;
+        workers.shutdown();
+        try {
+            boolean drained = workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (!drained) {
+                logger.warn("QR backup pipeline did not drain in {} ms ({} pending)", timeoutMillis, queue.size());
+            }
+            return drained;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Metrics
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void runWorker() {
+        List<BackupJob> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                BackupJob first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Write a batch of backups, checking the target directory once per batch
+     */
+    private void writeBatch(List<BackupJob> batch) {
+        try {
+            Files.createDirectories(directory);
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            logger.error("Could not create QR backup directory {}: {}", directory, e.getMessage());
+            return;
+        }
+
+        for (BackupJob job : batch) {
+            try {
+                QRCodeGenerator.saveQRCodeToFile(job.content, job.ticketId, directory);
+                written.incrementAndGet();
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                logger.warn("Could not save QR code for ticket {}: {}", job.ticketId, e.getMessage());
+            }
+        }
+    }
+
+    private static class BackupJob {
+        private final String content;
+        private final int ticketId;
+
+        BackupJob(String content, int ticketId) {
+            this.content = content;
+            this.ticketId = ticketId;
+        }
+    }
+}
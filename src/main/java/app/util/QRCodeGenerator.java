@@ -1,5 +1,7 @@
 package app.util;
 
+import app.metrics.Outcome;
+import app.metrics.QRCodeEvent;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
@@ -24,7 +26,7 @@ import java.util.Map;
  */
 public class QRCodeGenerator {
     private static final int QR_CODE_SIZE = 200;
-    private static final String QR_CODE_DIRECTORY = "qr-codes";
+    static final String QR_CODE_DIRECTORY = "qr-codes";
     
     /**
      * Generate QR code image and return as byte array
@@ -35,11 +37,21 @@ public class QRCodeGenerator {
      * @throws IOException If image conversion fails
      */
     public static byte[] generateQRCodeBytes(String content) throws WriterException, IOException {
-        BufferedImage qrImage = generateQRCodeImage(content);
-        
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            ImageIO.write(qrImage, "PNG", baos);
-            return baos.toByteArray();
+        QRCodeEvent event = new QRCodeEvent();
+        event.begin();
+        try {
+            BufferedImage qrImage = generateQRCodeImage(content);
+            
+            try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+                ImageIO.write(qrImage, "PNG", baos);
+                byte[] png = baos.toByteArray();
+                event.setBytes(png.length);
+                event.complete(Outcome.SUCCESS);
+                return png;
+            }
+        } catch (Exception e) {
+            event.fail(e);
+            throw e;
         }
     }
     
@@ -59,15 +71,44 @@ public class QRCodeGenerator {
             Files.createDirectories(directory);
         }
         
-        // Generate QR image
-        BufferedImage qrImage = generateQRCodeImage(content);
-        
-        // Save to file
-        String filename = String.format("ticket_%d.png", ticketId);
-        File outputFile = new File(directory.toFile(), filename);
-        ImageIO.write(qrImage, "PNG", outputFile);
-        
-        return outputFile.getAbsolutePath();
+        return saveQRCodeToFile(content, ticketId, directory);
+    }
+    
+    /**
+     * Generate QR code and save it to an existing directory
+     * 
+     * @param content Content to encode
+     * @param ticketId Ticket ID for filename
+     * @param directory Target directory (must exist)
+     * @return Path to saved file
+     * @throws WriterException If QR generation fails
+     * @throws IOException If file save fails
+     */
+    public static String saveQRCodeToFile(String content, int ticketId, Path directory) 
+            throws WriterException, IOException {
+        QRCodeEvent event = new QRCodeEvent();
+        event.setTicketId(ticketId);
+        event.setSavedToFile(true);
+        event.begin();
+        try {
+            // Generate QR image
+            BufferedImage qrImage = generateQRCodeImage(content);
+            
+            // Save to file
+            String filename = String.format("ticket_%d.png", ticketId);
+            File outputFile = new File(directory.toFile(), filename);
+            ImageIO.write(qrImage, "PNG", outputFile);
+            
+            if (event.isEnabled()) {
+                // Only stat the file when a recording will keep the size
+                event.setBytes(outputFile.length());
+            }
+            event.complete(Outcome.SUCCESS);
+            return outputFile.getAbsolutePath();
+        } catch (Exception e) {
+            event.fail(e);
+            throw e;
+        }
     }
     
     /**
@@ -117,7 +158,7 @@ public class QRCodeGenerator {
     }
     
     /**
-     * Format QR content for ticket
+     * Format QR content for ticket (ticket ID is 6-digit formatted: 000001, 000002, etc.)
      * 
      * @param ticketId Ticket ID
      * @param licensePlate Vehicle license plate
@@ -125,6 +166,6 @@ public class QRCodeGenerator {
      * @return Formatted string for QR code
      */
     public static String formatTicketQRContent(int ticketId, String licensePlate, long timestamp) {
-        return String.format("TICKET:%d|PLATE:%s|DATE:%d", ticketId, licensePlate, timestamp);
+        return String.format("TICKET:%06d|PLATE:%s|DATE:%d", ticketId, licensePlate, timestamp);
     }
 }
@@ -0,0 +1,250 @@
+package app.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Log file that rolls over by size and at midnight.
+ * The active segment keeps its name (e.g. crudpark.log); a full or finished segment
+ * is renamed to crudpark-yyyy-MM-dd.N.log and gzip-compressed on a background
+ * thread, after which the oldest archives beyond the retention limit are deleted.
+ * Written by the log writer thread only, so rolling never blocks a logging caller.
+ * This class must not log through Logger itself.
+ */
+public class RollingLogFile {
+    public static final long NO_SIZE_LIMIT = 0;
+    public static final int KEEP_ALL = 0;
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final Path file;
+    private final String baseName;
+    private final String extension;
+    private final long maxBytes;
+    private final boolean daily;
+    private final int maxArchives;
+    private final LongSupplier clock;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ExecutorService compressor;
+
+    private FileChannel channel;
+    private long size;
+    private LocalDate segmentDate;
+    private long nextDayMillis;
+
+    /**
+     * @param file Active log file
+     * @param maxBytes Roll when a write would take the segment past this size (NO_SIZE_LIMIT to disable)
+     * @param daily Roll when the date changes
+     * @param maxArchives Compressed segments to keep (KEEP_ALL to disable)
+     */
+    public RollingLogFile(Path file, long maxBytes, boolean daily, int maxArchives) throws IOException {
+        this(file, maxBytes, daily, maxArchives, System::currentTimeMillis);
+    }
+
+    RollingLogFile(Path file, long maxBytes, boolean daily, int maxArchives, LongSupplier clock)
+            throws IOException {
+        this.file = file.toAbsolutePath();
+        String name = this.file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        this.baseName = dot > 0 ? name.substring(0, dot) : name;
+        this.extension = dot > 0 ? name.substring(dot) : "";
+        this.maxBytes = maxBytes;
+        this.daily = daily;
+        this.maxArchives = maxArchives;
+        this.clock = clock;
+        this.compressor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Files.createDirectories(this.file.getParent());
+        open();
+    }
+
+    /**
+     * Append the remaining bytes of the buffer to the active segment. Call
+     * isRollDue() first; rolling is left to the caller so it knows which segment
+     * every byte went to.
+     */
+    public void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            size += channel.write(bytes);
+        }
+    }
+
+    /**
+     * @return Size of the active segment in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return Active log file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Close the active segment and wait for pending compressions
+     */
+    public void close() throws IOException {
+        try {
+            channel.force(false);
+            channel.close();
+        } finally {
+            compressor.shutdown();
+            try {
+                compressor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Close the active segment, ignoring errors, and open it again. Used to recover
+     * after a failed write (file deleted, disk full, ...).
+     */
+    public void reopen() throws IOException {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // The old channel is unusable either way
+        }
+        Files.createDirectories(file.getParent());
+        open();
+    }
+
+    /**
+     * @param incoming Bytes about to be written
+     * @return true if the active segment should be rolled over before writing them
+     */
+    public boolean isRollDue(long incoming) {
+        if (daily && clock.getAsLong() >= nextDayMillis) {
+            if (size > 0) {
+                return true;
+            }
+            // Nothing written yet: the empty segment simply moves to the new day
+            startSegment(clock.getAsLong());
+        }
+        return maxBytes > NO_SIZE_LIMIT && size > 0 && size + incoming > maxBytes;
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                   StandardOpenOption.APPEND);
+        size = channel.size();
+
+        // A segment left over from an earlier day belongs to that day
+        long now = clock.getAsLong();
+        startSegment(size > 0 ? Math.min(now, lastModified(file)) : now);
+    }
+
+    private void startSegment(long startedAtMillis) {
+        segmentDate = LocalDate.ofInstant(Instant.ofEpochMilli(startedAtMillis), zone);
+        nextDayMillis = segmentDate.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Archive the active segment, start a new one and compress the archive in the background
+     * @return Path the segment was moved to (before compression)
+     */
+    public Path roll() throws IOException {
+        channel.force(false);
+        channel.close();
+        Path archive = nextArchiveName();
+        Files.move(file, archive);
+        open();
+        compressor.execute(() -> compressAndPrune(archive));
+        return archive;
+    }
+
+    /**
+     * crudpark-2026-10-18.1.log, .2.log, ... skipping names already used by archives
+     */
+    private Path nextArchiveName() {
+        Path directory = file.getParent();
+        for (int index = 1; ; index++) {
+            Path candidate = directory.resolve(baseName + "-" + segmentDate + "." + index + extension);
+            if (!Files.exists(candidate) && !Files.exists(candidate.resolveSibling(candidate.getFileName() + GZIP_SUFFIX))) {
+                return candidate;
+            }
+        }
+    }
+
+    private void compressAndPrune(Path archive) {
+        Path compressed = archive.resolveSibling(archive.getFileName() + GZIP_SUFFIX);
+        try (InputStream in = Files.newInputStream(archive);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            System.err.println("Failed to compress log segment " + archive + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.delete(archive);
+            prune();
+        } catch (IOException e) {
+            System.err.println("Failed to clean up log segments: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the oldest archives beyond the retention limit
+     */
+    private void prune() throws IOException {
+        if (maxArchives <= KEEP_ALL) {
+            return;
+        }
+        List<Path> archives = new ArrayList<>();
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            files.filter(this::isArchive).forEach(archives::add);
+        }
+        if (archives.size() <= maxArchives) {
+            return;
+        }
+        archives.sort(Comparator.comparingLong(RollingLogFile::lastModified).thenComparing(Path::toString));
+        for (Path archive : archives.subList(0, archives.size() - maxArchives)) {
+            Files.deleteIfExists(archive);
+            Files.deleteIfExists(LogOffsetIndex.indexFor(archive));
+        }
+    }
+
+    private boolean isArchive(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(baseName + "-") && name.endsWith(extension + GZIP_SUFFIX);
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package app.util;
 
+import app.metrics.Outcome;
+import app.metrics.TicketPrintEvent;
 import app.model.Ticket;
 import app.service.ParkingService;
 
@@ -22,33 +24,28 @@ public class TicketPrinter {
         PrinterJob printerJob = PrinterJob.getPrinterJob();
         
         // Set up page format for thermal printer (58mm width)
-        PageFormat pageFormat = printerJob.defaultPage();
-        Paper paper = pageFormat.getPaper();
-        
-        // 58mm = ~165 points (1mm ≈ 2.83 points)
-        // Set paper size for 58mm thermal printer
-        double width = 165;  // 58mm in points
-        double height = 842; // Allow long receipt (A4 height as max)
-        paper.setSize(width, height);
-        
-        // Set margins (very small for thermal printers)
-        double margin = 5;
-        paper.setImageableArea(margin, margin, width - 2 * margin, height - 2 * margin);
-        
-        pageFormat.setPaper(paper);
+        PageFormat pageFormat = thermalPageFormat(printerJob.defaultPage());
         
         // Create the printable content
         printerJob.setPrintable(new EntryTicketPrintable(ticket), pageFormat);
         
         // Show print dialog to let user select printer
         if (printerJob.printDialog()) {
+            TicketPrintEvent event = new TicketPrintEvent();
+            event.setDocument("entry");
+            event.setTicketId(ticket.getId());
+            event.setPlate(ticket.getLicensePlate());
+            event.setVehicleType(ticket.getVehicleType());
+            event.begin();
             try {
                 printerJob.print();
+                event.complete(Outcome.SUCCESS);
                 JOptionPane.showMessageDialog(null,
                     "¡Ticket enviado a impresora exitosamente!",
                     "Impresión Exitosa",
                     JOptionPane.INFORMATION_MESSAGE);
             } catch (PrinterException ex) {
+                event.fail(ex);
                 JOptionPane.showMessageDialog(null,
                     "Error al imprimir ticket: " + ex.getMessage(),
                     "Error de Impresión",
@@ -64,33 +61,29 @@ public class TicketPrinter {
         PrinterJob printerJob = PrinterJob.getPrinterJob();
         
         // Set up page format for thermal printer (58mm width)
-        PageFormat pageFormat = printerJob.defaultPage();
-        Paper paper = pageFormat.getPaper();
-        
-        // 58mm = ~165 points (1mm ≈ 2.83 points)
-        // Set paper size for 58mm thermal printer
-        double width = 165;  // 58mm in points
-        double height = 842; // Allow long receipt (A4 height as max)
-        paper.setSize(width, height);
-        
-        // Set margins (very small for thermal printers)
-        double margin = 5;
-        paper.setImageableArea(margin, margin, width - 2 * margin, height - 2 * margin);
-        
-        pageFormat.setPaper(paper);
+        PageFormat pageFormat = thermalPageFormat(printerJob.defaultPage());
         
         // Create the printable content
         printerJob.setPrintable(new ExitTicketPrintable(exitResult), pageFormat);
         
         // Show print dialog to let user select printer
         if (printerJob.printDialog()) {
+            Ticket ticket = exitResult.getTicket();
+            TicketPrintEvent event = new TicketPrintEvent();
+            event.setDocument("exit");
+            event.setTicketId(ticket.getId());
+            event.setPlate(ticket.getLicensePlate());
+            event.setVehicleType(ticket.getVehicleType());
+            event.begin();
             try {
                 printerJob.print();
+                event.complete(Outcome.SUCCESS);
                 JOptionPane.showMessageDialog(null,
                     "¡Recibo enviado a impresora exitosamente!",
                     "Impresión Exitosa",
                     JOptionPane.INFORMATION_MESSAGE);
             } catch (PrinterException ex) {
+                event.fail(ex);
                 JOptionPane.showMessageDialog(null,
                     "Error al imprimir recibo: " + ex.getMessage(),
                     "Error de Impresión",
@@ -99,10 +92,30 @@ public class TicketPrinter {
         }
     }
     
+    /**
+     * Set up a page format for a 58mm thermal printer
+     */
+    static PageFormat thermalPageFormat(PageFormat pageFormat) {
+        Paper paper = pageFormat.getPaper();
+        
+        // 58mm = ~165 points (1mm ≈ 2.83 points)
+        // Set paper size for 58mm thermal printer
+        double width = 165;  // 58mm in points
+        double height = 842; // Allow long receipt (A4 height as max)
+        paper.setSize(width, height);
+        
+        // Set margins (very small for thermal printers)
+        double margin = 5;
+        paper.setImageableArea(margin, margin, width - 2 * margin, height - 2 * margin);
+        
+        pageFormat.setPaper(paper);
+        return pageFormat;
+    }
+    
     /**
      * Printable class for entry tickets
      */
-    private static class EntryTicketPrintable implements Printable {
+    static class EntryTicketPrintable implements Printable {
         private final Ticket ticket;
         
         public EntryTicketPrintable(Ticket ticket) {
@@ -224,7 +237,7 @@ public class TicketPrinter {
     /**
      * Printable class for exit tickets (receipts)
      */
-    private static class ExitTicketPrintable implements Printable {
+    static class ExitTicketPrintable implements Printable {
         private final ParkingService.ExitResult exitResult;
         
         public ExitTicketPrintable(ParkingService.ExitResult exitResult) {
@@ -243,10 +243,11 @@ public class PaymentPreviewDialog extends JDialog {
         // Translate to English for database
         String paymentMethodEnglish = VehicleTypeTranslator.paymentMethodToEnglish(paymentMethodSpanish);
 
-        // Process exit with selected payment method
+        // Process exit with selected payment method at the previewed price
         ExitResult result = controller.processExitWithPayment(
             exitResult.getTicket().getId(), 
-            paymentMethodEnglish
+            paymentMethodEnglish,
+            exitResult.getQuoteToken()
         );
 
         if (result.isSuccess()) {
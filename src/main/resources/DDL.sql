@@ -136,6 +136,36 @@ CREATE TABLE public.rates (
 	CONSTRAINT "PK_rates" PRIMARY KEY (id)
 );
 
+-- public.rate_windows definition
+
+-- Drop table
+
+-- DROP TABLE public.rate_windows;
+
+-- Time-of-day / day-of-week prices that override a rate's hourly and fraction
+-- rate (night, weekend, event). Grace period and daily cap stay on the rate.
+CREATE TABLE public.rate_windows (
+	id int4 GENERATED BY DEFAULT AS IDENTITY( INCREMENT BY 1 MINVALUE 1 MAXVALUE 2147483647 START 1 CACHE 1 NO CYCLE) NOT NULL,
+	rate_id int4 NOT NULL,
+	window_name varchar(100) NOT NULL,
+	days_of_week int4 NOT NULL, -- bitmask of the days the window starts on: 1 = Monday ... 64 = Sunday
+	start_minute int4 NOT NULL, -- minute of day the window starts (inclusive)
+	end_minute int4 NOT NULL, -- minute of day the window ends (exclusive); <= start_minute wraps past midnight
+	hourly_rate numeric(10, 2) NOT NULL,
+	fraction_rate numeric(10, 2) NOT NULL,
+	priority int4 DEFAULT 0 NOT NULL, -- highest priority wins where windows overlap
+	is_active bool DEFAULT true NOT NULL,
+	CONSTRAINT "PK_rate_windows" PRIMARY KEY (id),
+	CONSTRAINT "CK_rate_windows_days_of_week" CHECK (days_of_week BETWEEN 1 AND 127),
+	CONSTRAINT "CK_rate_windows_minutes" CHECK (start_minute BETWEEN 0 AND 1439 AND end_minute BETWEEN 0 AND 1440)
+);
+CREATE INDEX "IX_rate_windows_rate_id" ON public.rate_windows USING btree (rate_id);
+
+
+-- public.rate_windows foreign keys
+
+ALTER TABLE public.rate_windows ADD CONSTRAINT "FK_rate_windows_rates_rate_id" FOREIGN KEY (rate_id) REFERENCES public.rates(id) ON DELETE CASCADE;
+
 -- public.shifts definition
 
 -- Drop table
@@ -216,6 +246,23 @@ ALTER TABLE public.tickets ADD CONSTRAINT "FK_tickets_monthly_subscriptions_subs
 ALTER TABLE public.tickets ADD CONSTRAINT "FK_tickets_operators_operator_id" FOREIGN KEY (operator_id) REFERENCES public.operators(id) ON DELETE RESTRICT;
 ALTER TABLE public.tickets ADD CONSTRAINT "FK_tickets_vehicles_vehicle_id" FOREIGN KEY (vehicle_id) REFERENCES public.vehicles(id) ON DELETE RESTRICT;
 
+
+-- public.ticket_folio_seq definition
+
+-- Drop sequence
+
+-- DROP SEQUENCE public.ticket_folio_seq;
+
+-- Folios are allocated in blocks: each nextval reserves INCREMENT BY folios for one
+-- application instance. Keep INCREMENT BY equal to FolioAllocator.DEFAULT_BLOCK_SIZE.
+CREATE SEQUENCE public.ticket_folio_seq INCREMENT BY 50 MINVALUE 1 START 1 NO CYCLE;
+
+-- Align the sequence with folios already issued (run once when upgrading an existing database)
+SELECT setval('public.ticket_folio_seq',
+              COALESCE((SELECT MAX(CAST(SUBSTRING(folio FROM 4) AS INTEGER))
+                        FROM public.tickets WHERE folio ~ '^TKT[0-9]+$'), 0) + 1,
+              false);
+
 -- public.vehicles definition
 
 -- Drop table
@@ -233,4 +280,92 @@ CREATE TABLE public.vehicles (
 	updated_at timestamptz NOT NULL,
 	CONSTRAINT "PK_vehicles" PRIMARY KEY (id)
 );
-CREATE UNIQUE INDEX "IX_vehicles_license_plate" ON public.vehicles USING btree (license_plate);
\ No newline at end of file
+CREATE UNIQUE INDEX "IX_vehicles_license_plate" ON public.vehicles USING btree (license_plate);
+
+
+-- public.fn_vehicle_entry definition
+
+-- Drop function
+
+-- DROP FUNCTION public.fn_vehicle_entry(int4, varchar, text, int4, varchar, varchar);
+
+-- Registers a vehicle entry in a single round trip: vehicle upsert, open ticket check,
+-- subscription resolution and ticket insert. The vehicle row is locked so concurrent
+-- entries for the same plate are serialized. outcome is 'CREATED' or 'DUPLICATE_OPEN_TICKET'
+-- (in which case ticket_id is the ticket that is already open).
+-- p_ticket_id is reserved in advance from the tickets identity sequence, so the caller
+-- passes the final QR payload and the ticket is written with a single INSERT.
+CREATE OR REPLACE FUNCTION public.fn_vehicle_entry(
+	p_ticket_id int4,
+	p_license_plate varchar,
+	p_vehicle_type text,
+	p_operator_id int4,
+	p_folio varchar,
+	p_qr_code_data varchar
+)
+RETURNS TABLE (
+	outcome text,
+	ticket_id int4,
+	vehicle_id int4,
+	subscription_id int4,
+	ticket_type text,
+	entry_datetime timestamptz,
+	qr_code_data varchar
+)
+LANGUAGE plpgsql
+AS $$
+DECLARE
+	v_now timestamptz := NOW();
+	v_vehicle_id int4;
+	v_ticket_id int4;
+	v_subscription_id int4;
+	v_ticket_type text;
+BEGIN
+	SELECT v.id INTO v_vehicle_id
+	FROM public.vehicles v
+	WHERE v.license_plate = p_license_plate
+	FOR UPDATE;
+
+	IF NOT FOUND THEN
+		INSERT INTO public.vehicles (license_plate, vehicle_type, created_at, updated_at)
+		VALUES (p_license_plate, p_vehicle_type, v_now, v_now)
+		ON CONFLICT (license_plate) DO NOTHING
+		RETURNING id INTO v_vehicle_id;
+
+		IF v_vehicle_id IS NULL THEN
+			SELECT v.id INTO v_vehicle_id
+			FROM public.vehicles v
+			WHERE v.license_plate = p_license_plate
+			FOR UPDATE;
+		END IF;
+	END IF;
+
+	SELECT t.id INTO v_ticket_id
+	FROM public.tickets t
+	WHERE t.vehicle_id = v_vehicle_id AND t.status = 'OPEN'
+	LIMIT 1;
+
+	IF FOUND THEN
+		RETURN QUERY SELECT 'DUPLICATE_OPEN_TICKET'::text, v_ticket_id, v_vehicle_id,
+		                    NULL::int4, NULL::text, NULL::timestamptz, NULL::varchar;
+		RETURN;
+	END IF;
+
+	SELECT ms.id INTO v_subscription_id
+	FROM public.monthly_subscriptions ms
+	INNER JOIN public.subscription_vehicles sv ON ms.id = sv.subscription_id
+	WHERE sv.vehicle_id = v_vehicle_id AND ms.is_active = true
+	  AND ms.start_date <= v_now AND ms.end_date >= v_now
+	LIMIT 1;
+
+	v_ticket_type := CASE WHEN v_subscription_id IS NOT NULL THEN 'Monthly' ELSE 'Guest' END;
+
+	INSERT INTO public.tickets (id, folio, vehicle_id, operator_id, subscription_id, entry_datetime,
+	                            ticket_type, status, qr_code_data, created_at, updated_at)
+	VALUES (p_ticket_id, p_folio, v_vehicle_id, p_operator_id, v_subscription_id, v_now,
+	        v_ticket_type, 'OPEN', p_qr_code_data, v_now, v_now);
+
+	RETURN QUERY SELECT 'CREATED'::text, p_ticket_id, v_vehicle_id, v_subscription_id,
+	                    v_ticket_type, v_now, p_qr_code_data;
+END;
+$$;
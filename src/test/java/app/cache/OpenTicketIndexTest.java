@@ -0,0 +1,80 @@
+package app.cache;
+
+import app.model.Ticket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OpenTicketIndex
+ */
+@DisplayName("OpenTicketIndex Unit Tests")
+class OpenTicketIndexTest {
+
+    private OpenTicketIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new OpenTicketIndex();
+    }
+
+    @Test
+    @DisplayName("Should find loaded tickets by plate and by ID")
+    void testLoadAndFind() {
+        index.load(List.of(ticket(1, "ABC123"), ticket(2, "XYZ98A")));
+
+        assertTrue(index.isLoaded());
+        assertEquals(2, index.size());
+        assertTrue(index.hasOpenTicket("abc123"));
+        assertEquals(2, index.findByPlate("XYZ98A").getId());
+        assertEquals("ABC123", index.findById(1).getLicensePlate());
+        assertNull(index.findByPlate("QWE456"));
+    }
+
+    @Test
+    @DisplayName("Should remove both keys when a ticket is closed")
+    void testClosed() {
+        index.opened(ticket(7, "ABC123"));
+
+        index.closed(7);
+
+        assertFalse(index.hasOpenTicket("ABC123"));
+        assertNull(index.findById(7));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @DisplayName("Should return copies that do not affect the index")
+    void testReturnsCopies() {
+        index.opened(ticket(3, "ABC123"));
+
+        Ticket found = index.findById(3);
+        found.setStatus("CLOSED");
+
+        assertEquals("OPEN", index.findById(3).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should discard a reconciliation snapshot taken before a local change")
+    void testStaleSnapshotDiscarded() {
+        long version = index.getVersion();
+        index.opened(ticket(4, "ABC123"));
+
+        assertFalse(index.load(List.of(), version));
+        assertTrue(index.hasOpenTicket("ABC123"));
+        assertTrue(index.load(List.of(), index.getVersion()));
+        assertFalse(index.hasOpenTicket("ABC123"));
+    }
+
+    private Ticket ticket(int id, String licensePlate) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setLicensePlate(licensePlate);
+        ticket.setStatus("OPEN");
+        return ticket;
+    }
+}
@@ -0,0 +1,55 @@
+package app.cache;
+
+import app.cache.SubscriptionEntitlementCache.Entitlement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SubscriptionEntitlementCache
+ */
+@DisplayName("SubscriptionEntitlementCache Unit Tests")
+class SubscriptionEntitlementCacheTest {
+
+    @Test
+    @DisplayName("Should match only entry times inside the validity window")
+    void testValidityWindow() {
+        // Arrange
+        SubscriptionEntitlementCache cache = new SubscriptionEntitlementCache();
+        cache.load(Map.of(10, List.of(new Entitlement(5, 1_000, 2_000))), "m1");
+
+        // Act & Assert
+        assertNull(cache.findActiveSubscription(10, 999));
+        assertEquals(5, cache.findActiveSubscription(10, 1_000));
+        assertEquals(5, cache.findActiveSubscription(10, 2_000));
+        assertNull(cache.findActiveSubscription(10, 2_001));
+        assertNull(cache.findActiveSubscription(11, 1_500));
+    }
+
+    @Test
+    @DisplayName("Should pick the subscription that covers the time when a vehicle has several")
+    void testMultipleSubscriptions() {
+        // Arrange
+        SubscriptionEntitlementCache cache = new SubscriptionEntitlementCache();
+        cache.load(Map.of(10, List.of(new Entitlement(5, 1_000, 2_000),
+                                      new Entitlement(6, 2_001, 3_000))), "m1");
+
+        // Act & Assert
+        assertEquals(6, cache.findActiveSubscription(10, 2_500));
+        assertEquals("m1", cache.getChangeMarker());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should reject lookups before the first load")
+    void testNotLoaded() {
+        SubscriptionEntitlementCache cache = new SubscriptionEntitlementCache();
+
+        assertFalse(cache.isLoaded());
+        assertThrows(IllegalStateException.class, () -> cache.findActiveSubscription(10, 1_000));
+    }
+}
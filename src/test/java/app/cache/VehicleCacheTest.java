@@ -0,0 +1,91 @@
+package app.cache;
+
+import app.model.Vehicle;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for VehicleCache
+ */
+@DisplayName("VehicleCache Unit Tests")
+class VehicleCacheTest {
+
+    @Test
+    @DisplayName("Should evict the least recently used vehicle at capacity")
+    void testLruEviction() {
+        VehicleCache cache = new VehicleCache(2, 30_000);
+        cache.put(new Vehicle(1, "ABC123", "Car"));
+        cache.put(new Vehicle(2, "XYZ98A", "Motorcycle"));
+
+        // Touch ABC123 so XYZ98A becomes the eldest
+        assertNotNull(cache.get("ABC123"));
+        cache.put(new Vehicle(3, "QWE456", "Car"));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get("ABC123").getId());
+        assertNull(cache.get("XYZ98A"));
+        assertEquals(3, cache.get("QWE456").getId());
+    }
+
+    @Test
+    @DisplayName("Should return copies that callers cannot change")
+    void testCopies() {
+        VehicleCache cache = new VehicleCache();
+        Vehicle vehicle = new Vehicle(1, "ABC123", "Car");
+        cache.put(vehicle);
+
+        vehicle.setVehicleType("Motorcycle");
+        cache.get("ABC123").setVehicleType("Motorcycle");
+
+        assertEquals("Car", cache.get("ABC123").getVehicleType());
+    }
+
+    @Test
+    @DisplayName("Should forget missing plates after the negative TTL")
+    void testNegativeTtlExpiry() throws InterruptedException {
+        VehicleCache cache = new VehicleCache(10, 20);
+        cache.putMissing("ABC123");
+        assertTrue(cache.isKnownMissing("ABC123"));
+
+        Thread.sleep(50);
+
+        assertFalse(cache.isKnownMissing("ABC123"));
+        assertEquals(1, cache.getNegativeHitCount());
+    }
+
+    @Test
+    @DisplayName("Should forget missing plates when invalidated or when the vehicle is cached")
+    void testInvalidateMissing() {
+        VehicleCache cache = new VehicleCache();
+        cache.putMissing("ABC123");
+        cache.putMissing("XYZ98A");
+
+        cache.invalidateMissing("ABC123");
+        cache.put(new Vehicle(2, "XYZ98A", "Motorcycle"));
+
+        assertFalse(cache.isKnownMissing("ABC123"));
+        assertFalse(cache.isKnownMissing("XYZ98A"));
+        assertEquals(0, cache.getNegativeHitCount());
+    }
+
+    @Test
+    @DisplayName("Should count hits, negative hits and misses")
+    void testCounters() {
+        VehicleCache cache = new VehicleCache();
+        cache.put(new Vehicle(1, "ABC123", "Car"));
+        cache.putMissing("XYZ98A");
+
+        cache.get("ABC123");
+        cache.get("ABC123");
+        assertNull(cache.get("QWE456"));
+        cache.recordMiss();
+        cache.isKnownMissing("XYZ98A");
+        cache.isKnownMissing("QWE456");
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getNegativeHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+}
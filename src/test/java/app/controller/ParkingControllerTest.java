@@ -3,6 +3,7 @@ package app.controller;
 import app.exception.BusinessException;
 import app.exception.DataAccessException;
 import app.exception.NotFoundException;
+import app.model.Ticket;
 import app.service.ParkingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -323,4 +326,47 @@ class ParkingControllerTest {
         assertEquals(ExitResult.ErrorType.DATA_ACCESS, result.getErrorType());
         assertTrue(result.getErrorMessage().contains("Database connection error"));
     }
+
+    // ========== Batch Entry Tests ==========
+
+    @Test
+    void testProcessEntries_MapsEachPlateResult() throws Exception {
+        // Given
+        Ticket ticket = new Ticket();
+        ticket.setLicensePlate("ABC123");
+        List<String> plates = List.of("ABC123", "BAD", "ABC123", "XYZ98A");
+        when(parkingService.processEntries(plates, 1)).thenReturn(List.of(
+            ParkingService.EntryBatchResult.created(ticket),
+            ParkingService.EntryBatchResult.invalidPlate("BAD"),
+            ParkingService.EntryBatchResult.duplicateInBatch("ABC123"),
+            ParkingService.EntryBatchResult.openTicket("XYZ98A")));
+
+        // When
+        List<EntryResult> results = parkingController.processEntries(plates, 1);
+
+        // Then
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertSame(ticket, results.get(0).getTicket());
+        assertEquals(EntryResult.ErrorType.VALIDATION, results.get(1).getErrorType());
+        assertEquals(EntryResult.ErrorType.BUSINESS, results.get(2).getErrorType());
+        assertEquals(EntryResult.ErrorType.BUSINESS, results.get(3).getErrorType());
+    }
+
+    @Test
+    void testProcessEntries_DatabaseError_EveryPlateFails() throws Exception {
+        // Given
+        List<String> plates = List.of("ABC123", "XYZ98A");
+        when(parkingService.processEntries(plates, 1))
+            .thenThrow(new DataAccessException("Database connection error"));
+
+        // When
+        List<EntryResult> results = parkingController.processEntries(plates, 1);
+
+        // Then
+        assertEquals(2, results.size());
+        for (EntryResult result : results) {
+            assertEquals(EntryResult.ErrorType.DATA_ACCESS, result.getErrorType());
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package app.dao;
+
+import app.exception.DataAccessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FolioAllocator
+ */
+@DisplayName("FolioAllocator Unit Tests")
+class FolioAllocatorTest {
+
+    @Mock
+    private Connection mockConnection;
+
+    @Mock
+    private PreparedStatement mockStatement;
+
+    @Mock
+    private ResultSet mockResultSet;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Should hand out consecutive folios from one reserved block")
+    void testFoliosFromSingleBlock() throws SQLException, DataAccessException {
+        // Arrange
+        when(mockResultSet.getLong(1)).thenReturn(101L);
+        FolioAllocator allocator = new FolioAllocator("ticket_folio_seq", 3);
+
+        // Act & Assert
+        assertEquals("TKT000101", allocator.nextFolio(mockConnection));
+        assertEquals("TKT000102", allocator.nextFolio(mockConnection));
+        assertEquals("TKT000103", allocator.nextFolio(mockConnection));
+        verify(mockStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    @DisplayName("Should reserve a new block when the current one is exhausted")
+    void testReservesNextBlock() throws SQLException, DataAccessException {
+        // Arrange
+        when(mockResultSet.getLong(1)).thenReturn(1L, 51L);
+        FolioAllocator allocator = new FolioAllocator("ticket_folio_seq", 2);
+
+        // Act
+        allocator.nextFolio(mockConnection);
+        allocator.nextFolio(mockConnection);
+        String folio = allocator.nextFolio(mockConnection);
+
+        // Assert
+        assertEquals("TKT000051", folio);
+        verify(mockStatement, times(2)).executeQuery();
+    }
+
+    @Test
+    @DisplayName("Should throw DataAccessException when the sequence cannot be read")
+    void testSequenceError() throws SQLException {
+        // Arrange
+        when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
+        FolioAllocator allocator = new FolioAllocator();
+
+        // Act & Assert
+        assertThrows(DataAccessException.class, () -> allocator.nextFolio(mockConnection));
+    }
+}
@@ -2,6 +2,8 @@ package app.dao;
 
 import app.exception.DataAccessException;
 import app.model.Rate;
+import app.pricing.TariffSchedule;
+import app.service.ExitQuoteStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -120,4 +123,89 @@ class RateDAOTest {
             rateDAO.findActiveRateByVehicleType("Car", mockConnection);
         });
     }
+    
+    @Test
+    @DisplayName("Should resolve rates from the loaded table without querying")
+    void testResolveFromRateTable() throws SQLException, DataAccessException {
+        // Arrange: a current Car rate and one that takes effect tomorrow
+        long now = System.currentTimeMillis();
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, true, false);
+        when(mockResultSet.getInt("id")).thenReturn(1, 2);
+        when(mockResultSet.getString("vehicle_type")).thenReturn("Car", "Car");
+        when(mockResultSet.getDouble("hourly_rate")).thenReturn(5.00, 6.00);
+        when(mockResultSet.getTimestamp("effective_from")).thenReturn(
+            new Timestamp(now - 86_400_000L), new Timestamp(now + 86_400_000L));
+        rateDAO.loadRates(mockConnection);
+        
+        // Act
+        Rate rate = rateDAO.findActiveRateByVehicleType("Car", mockConnection);
+        Rate tomorrow = rateDAO.getRateTable().findActiveRate("Car", now + 2 * 86_400_000L);
+        
+        // Assert
+        assertEquals(1, rate.getId());
+        assertEquals(5.00, rate.getHourlyRate());
+        assertEquals(2, tomorrow.getId());
+        assertNull(rateDAO.findActiveRateByVehicleType("Truck", mockConnection));
+        verify(mockConnection, times(1)).prepareStatement(anyString());
+    }
+    
+    @Test
+    @DisplayName("Should compile each schedule once per rate table")
+    void testSchedulesCompiledWithRateTable() throws SQLException, DataAccessException {
+        // Arrange: the hourly rate changes on the second refresh
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, false, true, false, true, false);
+        when(mockResultSet.getInt("id")).thenReturn(1);
+        when(mockResultSet.getString("vehicle_type")).thenReturn("Car");
+        when(mockResultSet.getDouble("hourly_rate")).thenReturn(5.00, 5.00, 6.00);
+        rateDAO.loadRates(mockConnection);
+        
+        // Act
+        TariffSchedule first = rateDAO.findActiveSchedule("Car", mockConnection);
+        TariffSchedule second = rateDAO.findActiveSchedule("Car", mockConnection);
+        rateDAO.loadRates(mockConnection);
+        TariffSchedule unchanged = rateDAO.findActiveSchedule("Car", mockConnection);
+        rateDAO.loadRates(mockConnection);
+        TariffSchedule changed = rateDAO.findActiveSchedule("Car", mockConnection);
+        
+        // Assert
+        assertSame(first, second);
+        assertSame(first, unchanged);
+        assertNotSame(first, changed);
+        assertEquals(600, changed.getBase().getHourlyCents());
+        assertNull(rateDAO.findActiveSchedule("Truck", mockConnection));
+    }
+    
+    @Test
+    @DisplayName("Should keep the rate table version while rates are unchanged, so quotes stay valid")
+    void testUnchangedRefreshKeepsVersion() throws SQLException, DataAccessException {
+        // Arrange
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, false, true, false, true, false, true, false);
+        when(mockResultSet.getInt("id")).thenReturn(1);
+        when(mockResultSet.getString("vehicle_type")).thenReturn("Car");
+        when(mockResultSet.getDouble("hourly_rate")).thenReturn(5.00, 5.00, 5.00, 6.00);
+        long version = rateDAO.loadRates(mockConnection).getVersion();
+        ExitQuoteStore quotes = new ExitQuoteStore();
+        String token = quotes.issue(7, version, 95, 1000, false, null);
+        String later = quotes.issue(8, version, 95, 1000, false, null);
+        
+        // Act: two refreshes that load the same rates, then one that changes them
+        rateDAO.loadRates(mockConnection);
+        rateDAO.loadRates(mockConnection);
+        long afterUnchanged = rateDAO.getRateTable().getVersion();
+        ExitQuoteStore.ExitQuote quote = quotes.take(token, 7, afterUnchanged);
+        long afterChange = rateDAO.loadRates(mockConnection).getVersion();
+        
+        // Assert
+        assertEquals(version, afterUnchanged);
+        assertNotNull(quote);
+        assertEquals(1000, quote.getAmountCents());
+        assertEquals(version + 1, afterChange);
+        assertNull(quotes.take(later, 8, afterChange));
+    }
 }
@@ -0,0 +1,215 @@
+package app.dao;
+
+import app.exception.DataAccessException;
+import app.model.Ticket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TicketDAO
+ */
+@DisplayName("TicketDAO Unit Tests")
+class TicketDAOTest {
+    
+    @Mock
+    private Connection mockConnection;
+    
+    @Mock
+    private PreparedStatement mockStatement;
+    
+    @Mock
+    private ResultSet mockResultSet;
+    
+    private TicketDAO ticketDAO;
+    private Timestamp exitTime;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        ticketDAO = new TicketDAO();
+        exitTime = new Timestamp(System.currentTimeMillis());
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+    }
+    
+    @Test
+    @DisplayName("Should return the closed ticket with vehicle data")
+    void testCloseTicket() throws SQLException, DataAccessException {
+        // Arrange
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getObject("id")).thenReturn(7);
+        when(mockResultSet.getInt("id")).thenReturn(7);
+        when(mockResultSet.getString("status")).thenReturn("CLOSED");
+        when(mockResultSet.getObject("parking_duration_minutes")).thenReturn(95);
+        when(mockResultSet.getInt("parking_duration_minutes")).thenReturn(95);
+        when(mockResultSet.getString("license_plate")).thenReturn("ABC123");
+        when(mockResultSet.getString("vehicle_type")).thenReturn("Car");
+        
+        // Act
+        ExitOutcome outcome = ticketDAO.closeTicket(mockConnection, 7, exitTime);
+        
+        // Assert
+        assertTrue(outcome.isClosed());
+        assertEquals(7, outcome.getTicket().getId());
+        assertEquals("ABC123", outcome.getTicket().getLicensePlate());
+        assertEquals(95, outcome.getTicket().getParkingDurationMinutes());
+        verify(mockConnection, times(1)).prepareStatement(anyString());
+    }
+    
+    @Test
+    @DisplayName("Should report NOT_FOUND when the ticket does not exist")
+    void testCloseMissingTicket() throws SQLException, DataAccessException {
+        // Arrange
+        when(mockResultSet.next()).thenReturn(false);
+        
+        // Act
+        ExitOutcome outcome = ticketDAO.closeTicket(mockConnection, 7, exitTime);
+        
+        // Assert
+        assertEquals(ExitOutcome.Status.NOT_FOUND, outcome.getStatus());
+        assertNull(outcome.getTicket());
+    }
+    
+    @Test
+    @DisplayName("Should report ALREADY_CLOSED when the ticket is not open")
+    void testCloseClosedTicket() throws SQLException, DataAccessException {
+        // Arrange: the ticket exists but the conditional update returned nothing
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getObject("id")).thenReturn(null);
+        
+        // Act
+        ExitOutcome outcome = ticketDAO.closeTicket(mockConnection, 7, exitTime);
+        
+        // Assert
+        assertEquals(ExitOutcome.Status.ALREADY_CLOSED, outcome.getStatus());
+    }
+    
+    @Test
+    @DisplayName("Should report an outcome for every ticket in a batch close")
+    void testCloseTickets() throws SQLException, DataAccessException {
+        // Arrange: ticket 7 closed, ticket 8 not open, ticket 9 missing
+        when(mockConnection.createArrayOf(eq("integer"), any())).thenReturn(mock(Array.class));
+        when(mockResultSet.next()).thenReturn(true, true, false);
+        when(mockResultSet.getInt("target_id")).thenReturn(7, 8);
+        when(mockResultSet.getObject("id")).thenReturn(7, (Object) null);
+        when(mockResultSet.getInt("id")).thenReturn(7);
+        when(mockResultSet.getString("license_plate")).thenReturn("ABC123");
+        
+        // Act
+        Map<Integer, ExitOutcome> outcomes = ticketDAO.closeTickets(mockConnection, List.of(7, 8, 9), exitTime);
+        
+        // Assert
+        assertEquals(3, outcomes.size());
+        assertTrue(outcomes.get(7).isClosed());
+        assertEquals("ABC123", outcomes.get(7).getTicket().getLicensePlate());
+        assertEquals(ExitOutcome.Status.ALREADY_CLOSED, outcomes.get(8).getStatus());
+        assertEquals(ExitOutcome.Status.NOT_FOUND, outcomes.get(9).getStatus());
+        verify(mockConnection, times(1)).prepareStatement(anyString());
+    }
+    
+    @Test
+    @DisplayName("Should map a created entry to an open Guest ticket")
+    void testCreateEntryCreated() throws SQLException, DataAccessException {
+        // Arrange
+        Timestamp entryTime = new Timestamp(System.currentTimeMillis());
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getString("outcome")).thenReturn("CREATED");
+        when(mockResultSet.getInt("ticket_id")).thenReturn(42);
+        when(mockResultSet.getInt("vehicle_id")).thenReturn(5);
+        when(mockResultSet.getObject("subscription_id")).thenReturn(null);
+        when(mockResultSet.getString("ticket_type")).thenReturn("Guest");
+        when(mockResultSet.getTimestamp("entry_datetime")).thenReturn(entryTime);
+        when(mockResultSet.getString("qr_code_data")).thenReturn("TICKET:42|PLATE:ABC123");
+        
+        // Act
+        EntryOutcome outcome = ticketDAO.createEntry(mockConnection, 42, "ABC123", "Car", 3, "F-000042", 
+                                                     "TICKET:42|PLATE:ABC123");
+        
+        // Assert
+        assertTrue(outcome.isCreated());
+        assertEquals(42, outcome.getOpenTicketId());
+        Ticket ticket = outcome.getTicket();
+        assertEquals(42, ticket.getId());
+        assertEquals("F-000042", ticket.getFolio());
+        assertEquals(5, ticket.getVehicleId());
+        assertEquals(3, ticket.getOperatorId());
+        assertNull(ticket.getSubscriptionId());
+        assertEquals("Guest", ticket.getTicketType());
+        assertEquals("OPEN", ticket.getStatus());
+        assertEquals(entryTime, ticket.getEntryDatetime());
+        assertEquals("ABC123", ticket.getLicensePlate());
+        assertEquals("Car", ticket.getVehicleType());
+        verify(mockStatement).setInt(1, 42);
+        verify(mockStatement).setString(2, "ABC123");
+        verify(mockStatement).setInt(4, 3);
+    }
+    
+    @Test
+    @DisplayName("Should map an entry with an active subscription to a Monthly ticket")
+    void testCreateEntrySubscription() throws SQLException, DataAccessException {
+        // Arrange
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getString("outcome")).thenReturn("CREATED");
+        when(mockResultSet.getInt("ticket_id")).thenReturn(43);
+        when(mockResultSet.getObject("subscription_id")).thenReturn(9);
+        when(mockResultSet.getInt("subscription_id")).thenReturn(9);
+        when(mockResultSet.getString("ticket_type")).thenReturn("Monthly");
+        
+        // Act
+        EntryOutcome outcome = ticketDAO.createEntry(mockConnection, 43, "XYZ12A", "Motorcycle", 3, "F-000043", 
+                                                     "TICKET:43|PLATE:XYZ12A");
+        
+        // Assert
+        assertTrue(outcome.isCreated());
+        assertEquals(Integer.valueOf(9), outcome.getTicket().getSubscriptionId());
+        assertEquals("Monthly", outcome.getTicket().getTicketType());
+    }
+    
+    @Test
+    @DisplayName("Should report the open ticket when the vehicle already has one")
+    void testCreateEntryDuplicateOpenTicket() throws SQLException, DataAccessException {
+        // Arrange: the function returns the ticket that is already open
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getString("outcome")).thenReturn("DUPLICATE_OPEN_TICKET");
+        when(mockResultSet.getInt("ticket_id")).thenReturn(17);
+        
+        // Act
+        EntryOutcome outcome = ticketDAO.createEntry(mockConnection, 44, "ABC123", "Car", 3, "F-000044", 
+                                                     "TICKET:44|PLATE:ABC123");
+        
+        // Assert
+        assertFalse(outcome.isCreated());
+        assertEquals(EntryOutcome.Status.DUPLICATE_OPEN_TICKET, outcome.getStatus());
+        assertEquals(17, outcome.getOpenTicketId());
+        assertNull(outcome.getTicket());
+    }
+    
+    @Test
+    @DisplayName("Should fail when the entry function returns no row")
+    void testCreateEntryNoRow() throws SQLException {
+        // Arrange
+        when(mockResultSet.next()).thenReturn(false);
+        
+        // Act & Assert
+        assertThrows(DataAccessException.class, () -> 
+            ticketDAO.createEntry(mockConnection, 45, "ABC123", "Car", 3, "F-000045", "TICKET:45|PLATE:ABC123"));
+    }
+}
@@ -0,0 +1,143 @@
+package app.dao;
+
+import app.exception.DataAccessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TicketIdAllocator
+ */
+@DisplayName("TicketIdAllocator Unit Tests")
+class TicketIdAllocatorTest {
+
+    @Mock
+    private Connection mockConnection;
+
+    @Mock
+    private PreparedStatement mockStatement;
+
+    @Mock
+    private ResultSet mockResultSet;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+    }
+
+    @Test
+    @DisplayName("Should reserve a batch of IDs with one query and hand them out in order")
+    void testReservesBatch() throws SQLException, DataAccessException {
+        // Arrange
+        when(mockResultSet.next()).thenReturn(true, true, true, false);
+        when(mockResultSet.getInt(1)).thenReturn(11, 12, 13);
+        TicketIdAllocator allocator = new TicketIdAllocator(3);
+
+        // Act
+        int first = allocator.nextId(mockConnection);
+
+        // Assert
+        assertEquals(11, first);
+        assertEquals(2, allocator.getReservedCount());
+        assertEquals(12, allocator.nextId(mockConnection));
+        assertEquals(13, allocator.nextId(mockConnection));
+        verify(mockStatement).setInt(1, 3);
+        verify(mockStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    @DisplayName("Should reserve the next batch only when the current one is used up")
+    void testOrderingAcrossBatches() throws SQLException, DataAccessException {
+        // Arrange: two batches of two, another terminal took 23 and 24 in between
+        when(mockResultSet.next()).thenReturn(true, true, false, true, true, false);
+        when(mockResultSet.getInt(1)).thenReturn(21, 22, 25, 26);
+        TicketIdAllocator allocator = new TicketIdAllocator(2);
+
+        // Act & Assert
+        assertEquals(21, allocator.nextId(mockConnection));
+        assertEquals(22, allocator.nextId(mockConnection));
+        verify(mockStatement, times(1)).executeQuery();
+        assertEquals(25, allocator.nextId(mockConnection));
+        assertEquals(26, allocator.nextId(mockConnection));
+        verify(mockStatement, times(2)).executeQuery();
+    }
+
+    @Test
+    @DisplayName("Should hand out a released ID again before the rest of the batch")
+    void testReleasedIdReused() throws SQLException, DataAccessException {
+        // Arrange
+        when(mockResultSet.next()).thenReturn(true, true, true, false);
+        when(mockResultSet.getInt(1)).thenReturn(31, 32, 33);
+        TicketIdAllocator allocator = new TicketIdAllocator(3);
+        int duplicateEntryId = allocator.nextId(mockConnection);
+
+        // Act: the entry was rejected (open ticket), so its ID was never inserted
+        allocator.release(duplicateEntryId);
+
+        // Assert
+        assertEquals(3, allocator.getReservedCount());
+        assertEquals(31, allocator.nextId(mockConnection));
+        assertEquals(32, allocator.nextId(mockConnection));
+        assertEquals(33, allocator.nextId(mockConnection));
+        verify(mockStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    @DisplayName("Should not query the database for a released ID once the batch is used up")
+    void testReleaseAfterBatchUsedUp() throws SQLException, DataAccessException {
+        // Arrange
+        when(mockResultSet.next()).thenReturn(true, false);
+        when(mockResultSet.getInt(1)).thenReturn(41);
+        TicketIdAllocator allocator = new TicketIdAllocator(1);
+        int id = allocator.nextId(mockConnection);
+
+        // Act
+        allocator.release(id);
+
+        // Assert
+        assertEquals(41, allocator.nextId(mockConnection));
+        verify(mockStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    @DisplayName("Should fail when the sequence returns no values")
+    void testEmptySequence() throws SQLException {
+        // Arrange
+        when(mockResultSet.next()).thenReturn(false);
+        TicketIdAllocator allocator = new TicketIdAllocator(5);
+
+        // Act & Assert
+        assertThrows(DataAccessException.class, () -> allocator.nextId(mockConnection));
+    }
+
+    @Test
+    @DisplayName("Should wrap SQL errors in DataAccessException")
+    void testSqlError() throws SQLException {
+        // Arrange
+        when(mockStatement.executeQuery()).thenThrow(new SQLException("sequence missing"));
+        TicketIdAllocator allocator = new TicketIdAllocator(5);
+
+        // Act & Assert
+        assertThrows(DataAccessException.class, () -> allocator.nextId(mockConnection));
+        assertEquals(0, allocator.getReservedCount());
+    }
+
+    @Test
+    @DisplayName("Should reject a batch size that is not positive")
+    void testInvalidBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TicketIdAllocator(0));
+    }
+}
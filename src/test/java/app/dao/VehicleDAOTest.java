@@ -0,0 +1,75 @@
+package app.dao;
+
+import app.cache.VehicleCache;
+import app.exception.DataAccessException;
+import app.model.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for VehicleDAO
+ */
+@DisplayName("VehicleDAO Unit Tests")
+class VehicleDAOTest {
+
+    @Mock
+    private Connection mockConnection;
+
+    @Mock
+    private PreparedStatement mockStatement;
+
+    @Mock
+    private ResultSet mockResultSet;
+
+    private VehicleCache cache;
+    private VehicleDAO vehicleDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        cache = new VehicleCache();
+        vehicleDAO = new VehicleDAO(cache);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockConnection.createArrayOf(anyString(), any())).thenReturn(mock(Array.class));
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+    }
+
+    @Test
+    @DisplayName("Should cache only vehicles that existed before the batch upsert")
+    void testFindOrCreateAllCachesOnlyExistingVehicles() throws SQLException, DataAccessException {
+        // Arrange: ABC123 is inserted by this (uncommitted) batch, XYZ98A already existed
+        Map<String, String> vehicleTypesByPlate = new LinkedHashMap<>();
+        vehicleTypesByPlate.put("ABC123", "Car");
+        vehicleTypesByPlate.put("XYZ98A", "Motorcycle");
+        when(mockStatement.executeBatch()).thenReturn(new int[] {1, 0});
+        when(mockResultSet.next()).thenReturn(true, true, false);
+        when(mockResultSet.getInt("id")).thenReturn(10, 20);
+        when(mockResultSet.getString("license_plate")).thenReturn("ABC123", "XYZ98A");
+        when(mockResultSet.getString("vehicle_type")).thenReturn("Car", "Motorcycle");
+
+        // Act
+        Map<String, Vehicle> vehicles = vehicleDAO.findOrCreateAll(mockConnection, vehicleTypesByPlate);
+
+        // Assert
+        assertEquals(10, vehicles.get("ABC123").getId());
+        assertEquals(20, vehicles.get("XYZ98A").getId());
+        assertNull(cache.get("ABC123"));
+        assertEquals(20, cache.get("XYZ98A").getId());
+    }
+}
@@ -0,0 +1,119 @@
+package app.database;
+
+import app.metrics.MetricsRegistry;
+import app.metrics.OperationMetrics;
+import app.metrics.Outcome;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for adaptive connection pool sizing
+ */
+@DisplayName("Adaptive Pool Sizer Tests")
+class AdaptivePoolSizerTest {
+
+    @Mock
+    private HikariPoolMXBean mockPool;
+
+    @Mock
+    private HikariConfigMXBean mockConfig;
+
+    private final AtomicInteger maximumPoolSize = new AtomicInteger(8);
+    private OperationMetrics acquire;
+    private OperationMetrics statements;
+    private AdaptivePoolSizer sizer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mockConfig.getMaximumPoolSize()).thenAnswer(invocation -> maximumPoolSize.get());
+        when(mockConfig.getMinimumIdle()).thenReturn(2);
+        doAnswer(invocation -> {
+            maximumPoolSize.set(invocation.getArgument(0));
+            return null;
+        }).when(mockConfig).setMaximumPoolSize(anyInt());
+
+        Properties config = new Properties();
+        config.setProperty("metrics.jmx", "false");
+        MetricsRegistry registry = new MetricsRegistry(config);
+        acquire = registry.operation("db.connection.acquire");
+        statements = registry.operation("db.statement");
+        sizer = new AdaptivePoolSizer(mockPool, mockConfig, 4, 10, 5, 50, acquire, statements);
+    }
+
+    @Test
+    @DisplayName("Should grow by a quarter while threads wait for connections, up to the maximum")
+    void testGrowsWhileThreadsWait() {
+        // Arrange
+        when(mockPool.getThreadsAwaitingConnection()).thenReturn(3);
+
+        // Act & Assert
+        assertEquals(10, sizer.adjust());
+        assertEquals(10, sizer.adjust());
+        verify(mockConfig).setMaximumPoolSize(10);
+    }
+
+    @Test
+    @DisplayName("Should grow when borrows wait longer than the target")
+    void testGrowsOnSlowBorrows() {
+        // Arrange
+        recordMillis(acquire, 20);
+        recordMillis(statements, 2);
+
+        // Act & Assert
+        assertEquals(10, sizer.adjust());
+    }
+
+    @Test
+    @DisplayName("Should not grow while statements are slower than the limit")
+    void testHoldsWhenDatabaseIsSlow() {
+        // Arrange
+        when(mockPool.getThreadsAwaitingConnection()).thenReturn(3);
+        recordMillis(statements, 200);
+
+        // Act & Assert
+        assertEquals(8, sizer.adjust());
+        verify(mockConfig, never()).setMaximumPoolSize(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should shrink by one after consecutive calm rounds, down to the minimum")
+    void testShrinksWhenIdle() {
+        // Arrange
+        maximumPoolSize.set(5);
+        when(mockPool.getIdleConnections()).thenReturn(4);
+
+        // Act & Assert
+        assertEquals(5, sizer.adjust());
+        assertEquals(5, sizer.adjust());
+        assertEquals(4, sizer.adjust());
+        for (int i = 0; i < AdaptivePoolSizer.SHRINK_AFTER_ROUNDS * 2; i++) {
+            assertEquals(4, sizer.adjust());
+        }
+        verify(mockConfig, times(1)).setMaximumPoolSize(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid bounds")
+    void testInvalidBounds() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new AdaptivePoolSizer(mockPool, mockConfig, 5, 4, 5, 50, acquire, statements));
+    }
+
+    private static void recordMillis(OperationMetrics metrics, long millis) {
+        metrics.record(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(millis), Outcome.SUCCESS);
+    }
+}
@@ -0,0 +1,150 @@
+package app.database;
+
+import app.dao.ExitOutcome;
+import app.dao.TicketDAO;
+import app.metrics.MetricsRegistry;
+import app.metrics.OperationMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for per-statement JDBC timing
+ */
+@DisplayName("JDBC Instrumentation Tests")
+class JdbcInstrumentationTest {
+
+    @Mock
+    private Connection mockConnection;
+
+    @Mock
+    private PreparedStatement mockStatement;
+
+    @Mock
+    private ResultSet mockResultSet;
+
+    private MetricsRegistry registry;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+
+        Properties config = new Properties();
+        config.setProperty("metrics.jmx", "false");
+        registry = new MetricsRegistry(config);
+        connection = new JdbcInstrumentation(registry, 0).wrap(mockConnection, 0);
+    }
+
+    @Test
+    @DisplayName("Should name statements after the DAO method and count their executions and rows")
+    void testStatementNamedAfterDaoMethod() throws Exception {
+        // Arrange
+        when(mockResultSet.next()).thenReturn(true, false);
+        when(mockResultSet.getObject("id")).thenReturn(7);
+        when(mockResultSet.getInt("id")).thenReturn(7);
+        when(mockResultSet.getString("status")).thenReturn("CLOSED");
+        when(mockResultSet.getString("license_plate")).thenReturn("ABC123");
+
+        // Act
+        ExitOutcome outcome = new TicketDAO().closeTicket(connection, 7, new Timestamp(System.currentTimeMillis()));
+
+        // Assert
+        assertTrue(outcome.isClosed());
+        OperationMetrics metrics = registry.operation("sql.TicketDAO.closeTicket");
+        assertEquals(1, metrics.getSuccessCount());
+        assertEquals(1, metrics.getLatency().getCount());
+        assertTrue(registry.toPrometheusText()
+                           .contains("crudpark_sql_rows_total{statement=\"TicketDAO.closeTicket\"} 1\n"));
+        verify(mockStatement).setInt(1, 7);
+    }
+
+    @Test
+    @DisplayName("Should count failed executions and rows changed by updates and batches")
+    void testUpdatesAndFailures() throws SQLException {
+        // Arrange
+        when(mockStatement.executeUpdate()).thenReturn(3);
+        when(mockStatement.executeBatch()).thenReturn(new int[] {1, 1, PreparedStatement.SUCCESS_NO_INFO});
+        when(mockStatement.execute()).thenThrow(new SQLException("deadlock detected"));
+
+        // Act
+        try (PreparedStatement stmt = connection.prepareStatement("UPDATE tickets SET status = 'CLOSED'")) {
+            stmt.executeUpdate();
+            stmt.addBatch();
+            stmt.executeBatch();
+            assertThrows(SQLException.class, stmt::execute);
+        }
+
+        // Assert
+        OperationMetrics metrics = registry.operation("sql.UPDATE_tickets");
+        assertEquals(2, metrics.getSuccessCount());
+        assertEquals(1, metrics.getDataErrorCount());
+        assertTrue(registry.toPrometheusText().contains("crudpark_sql_rows_total{statement=\"UPDATE_tickets\"} 5\n"));
+    }
+
+    @Test
+    @DisplayName("Should count rows read through getResultSet and pass other calls through")
+    void testResultSetFromExecute() throws SQLException {
+        // Arrange
+        when(mockStatement.execute()).thenReturn(true);
+        when(mockStatement.getResultSet()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, true, false);
+
+        // Act
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT id FROM tickets")) {
+            stmt.setFetchSize(50);
+            assertTrue(stmt.execute());
+            ResultSet rs = stmt.getResultSet();
+            while (rs.next()) {
+                rs.getInt(1);
+            }
+        }
+
+        // Assert
+        verify(mockStatement).setFetchSize(50);
+        verify(mockResultSet, times(2)).getInt(1);
+        verify(mockStatement).close();
+        assertTrue(registry.toPrometheusText().contains("crudpark_sql_rows_total{statement=\"SELECT_id\"} 2\n"));
+    }
+
+    @Test
+    @DisplayName("Should summarize bind parameters without leaking long values")
+    void testBindSummary() {
+        Object[] binds = {7, "ABC123", null, "x".repeat(40), new byte[16], new Integer[] {1, 2}, null};
+
+        assertEquals("1=7, 2='ABC123', 3=null, 4='" + "x".repeat(32) + "...', 5=byte[16], 6=Integer[2]",
+                     JdbcInstrumentation.bindSummary(binds));
+    }
+
+    @Test
+    @DisplayName("Should hand back the instrumented connection and statement, not the driver's")
+    void testBackReferences() throws SQLException {
+        // Arrange
+        when(mockStatement.getConnection()).thenReturn(mockConnection);
+        when(mockResultSet.getStatement()).thenReturn(mockStatement);
+        PreparedStatement stmt = connection.prepareStatement("SELECT 1");
+
+        // Act
+        ResultSet rs = stmt.executeQuery();
+
+        // Assert
+        assertSame(connection, stmt.getConnection());
+        assertSame(stmt, rs.getStatement());
+        assertSame(connection, rs.getStatement().getConnection());
+    }
+}
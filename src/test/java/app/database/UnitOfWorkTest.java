@@ -0,0 +1,261 @@
+package app.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the per-thread unit of work
+ */
+@DisplayName("Unit Of Work Tests")
+class UnitOfWorkTest {
+
+    @Mock
+    private Connection mockConnection;
+
+    private AtomicInteger borrowed;
+    private UnitOfWork.ConnectionSource source;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        borrowed = new AtomicInteger();
+        source = () -> {
+            borrowed.incrementAndGet();
+            return mockConnection;
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        assertFalse(UnitOfWork.isActive(), "unit of work left open on the test thread");
+    }
+
+    @Test
+    @DisplayName("Should borrow the connection on first use, not on begin")
+    void testConnectionBorrowedLazily() throws SQLException {
+        // Arrange & Act
+        try (UnitOfWork uow = UnitOfWork.begin(source)) {
+            assertEquals(0, borrowed.get());
+
+            uow.getConnection();
+            UnitOfWork.currentConnection();
+
+            // Assert
+            assertEquals(1, borrowed.get());
+            verify(mockConnection).setAutoCommit(false);
+        }
+        verify(mockConnection).close();
+    }
+
+    @Test
+    @DisplayName("Should never touch the pool when no connection is used")
+    void testNoConnectionWhenUnused() throws SQLException {
+        // Arrange
+        List<String> actions = new ArrayList<>();
+
+        // Act
+        try (UnitOfWork uow = UnitOfWork.begin(source)) {
+            uow.afterCommit(() -> actions.add("cache"));
+            uow.commit();
+        }
+
+        // Assert
+        assertEquals(0, borrowed.get());
+        assertEquals(List.of("cache"), actions);
+        verifyNoInteractions(mockConnection);
+    }
+
+    @Test
+    @DisplayName("Should share one connection with nested units of work and commit only the outermost")
+    void testNestedJoin() throws SQLException {
+        // Arrange & Act
+        try (UnitOfWork outer = UnitOfWork.begin(source)) {
+            Connection outerConnection = outer.getConnection();
+            try (UnitOfWork inner = UnitOfWork.begin(source)) {
+                assertSame(outerConnection, inner.getConnection());
+                inner.commit();
+            }
+            verify(mockConnection, never()).commit();
+
+            // Closing the managed connection is ignored
+            outerConnection.close();
+            verify(mockConnection, never()).close();
+
+            outer.commit();
+        }
+
+        // Assert
+        assertEquals(1, borrowed.get());
+        verify(mockConnection).commit();
+        verify(mockConnection, never()).rollback();
+        verify(mockConnection).close();
+    }
+
+    @Test
+    @DisplayName("Should roll back the outermost commit when a nested unit of work rolls back")
+    void testNestedRollbackPropagates() throws SQLException {
+        // Arrange
+        try (UnitOfWork outer = UnitOfWork.begin(source)) {
+            outer.getConnection();
+            try (UnitOfWork inner = UnitOfWork.begin(source)) {
+                inner.rollback();
+            }
+
+            // Act & Assert
+            assertThrows(SQLException.class, outer::commit);
+        }
+        verify(mockConnection, never()).commit();
+        verify(mockConnection, atLeastOnce()).rollback();
+    }
+
+    @Test
+    @DisplayName("Should mark the transaction rollback-only when a nested unit of work closes uncommitted")
+    void testNestedCloseWithoutCommit() throws SQLException {
+        // Arrange
+        try (UnitOfWork outer = UnitOfWork.begin(source)) {
+            outer.getConnection();
+            try (UnitOfWork inner = UnitOfWork.begin(source)) {
+                inner.getConnection();
+                // Leaves without commit() or rollback(), as an exception would
+            }
+
+            // Act & Assert
+            assertThrows(SQLException.class, outer::commit);
+        }
+        verify(mockConnection, never()).commit();
+    }
+
+    @Test
+    @DisplayName("Should treat rollback() on the managed connection as rollback-only")
+    void testManagedRollbackMarksRollbackOnly() throws SQLException {
+        // Arrange
+        try (UnitOfWork uow = UnitOfWork.begin(source)) {
+            uow.getConnection().rollback();
+
+            // Act & Assert
+            assertThrows(SQLException.class, uow::commit);
+        }
+        verify(mockConnection, never()).commit();
+    }
+
+    @Test
+    @DisplayName("Should ignore transaction control on the managed connection and pass savepoints through")
+    void testManagedConnectionDelegation() throws SQLException {
+        // Arrange
+        Savepoint savepoint = mock(Savepoint.class);
+        when(mockConnection.setSavepoint()).thenReturn(savepoint);
+
+        try (UnitOfWork uow = UnitOfWork.begin(source)) {
+            Connection managed = uow.getConnection();
+
+            // Act
+            managed.setAutoCommit(true);
+            managed.commit();
+            managed.rollback(managed.setSavepoint());
+
+            // Assert
+            verify(mockConnection, never()).setAutoCommit(true);
+            verify(mockConnection, never()).commit();
+            verify(mockConnection).rollback(savepoint);
+            uow.commit();
+        }
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    @DisplayName("Should run afterCommit actions in registration order once the commit succeeded")
+    void testAfterCommitOrdering() throws SQLException {
+        // Arrange
+        List<String> actions = new ArrayList<>();
+
+        // Act
+        try (UnitOfWork outer = UnitOfWork.begin(source)) {
+            outer.getConnection();
+            outer.afterCommit(() -> actions.add("first"));
+            try (UnitOfWork inner = UnitOfWork.begin(source)) {
+                inner.afterCommit(() -> actions.add("second"));
+                inner.commit();
+                assertTrue(actions.isEmpty());
+            }
+            outer.afterCommit(() -> actions.add("third"));
+            outer.commit();
+        }
+
+        // Assert
+        assertEquals(List.of("first", "second", "third"), actions);
+        InOrder inOrder = inOrder(mockConnection);
+        inOrder.verify(mockConnection).commit();
+        inOrder.verify(mockConnection).close();
+    }
+
+    @Test
+    @DisplayName("Should skip afterCommit actions when the transaction rolls back")
+    void testAfterCommitSkippedOnRollback() throws SQLException {
+        // Arrange
+        List<String> actions = new ArrayList<>();
+
+        // Act
+        try (UnitOfWork outer = UnitOfWork.begin(source)) {
+            outer.getConnection();
+            try (UnitOfWork inner = UnitOfWork.begin(source)) {
+                inner.afterCommit(() -> actions.add("cache"));
+                inner.rollback();
+            }
+            assertThrows(SQLException.class, outer::commit);
+        }
+        try (UnitOfWork uow = UnitOfWork.begin(source)) {
+            uow.getConnection();
+            uow.afterCommit(() -> actions.add("never committed"));
+        }
+
+        // Assert
+        assertTrue(actions.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should roll back and return the connection when closed without commit")
+    void testCloseReturnsConnection() throws SQLException {
+        // Arrange & Act
+        try (UnitOfWork uow = UnitOfWork.begin(source)) {
+            uow.getConnection();
+        }
+
+        // Assert
+        InOrder inOrder = inOrder(mockConnection);
+        inOrder.verify(mockConnection).rollback();
+        inOrder.verify(mockConnection).close();
+        assertNull(UnitOfWork.currentConnection());
+    }
+
+    @Test
+    @DisplayName("Should return the connection even if the rollback on close fails")
+    void testCloseReturnsConnectionWhenRollbackFails() throws SQLException {
+        // Arrange
+        doThrow(new SQLException("connection lost")).when(mockConnection).rollback();
+
+        // Act
+        assertThrows(SQLException.class, () -> {
+            try (UnitOfWork uow = UnitOfWork.begin(source)) {
+                uow.getConnection();
+            }
+        });
+
+        // Assert
+        verify(mockConnection).close();
+    }
+}
@@ -0,0 +1,66 @@
+package app.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the log-linear latency histogram
+ */
+@DisplayName("Latency Histogram Tests")
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should report percentiles within the bucket precision")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1000), snapshot.getMaxNanos());
+        assertEquals(500.5, snapshot.getMeanNanos() / 1000, 0.001);
+        assertWithin(500_000, snapshot.getValueAtPercentile(50));
+        assertWithin(990_000, snapshot.getValueAtPercentile(99));
+        assertWithin(999_000, snapshot.getValueAtPercentile(99.9));
+        assertEquals(1_000_000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    @DisplayName("Should map values to non-decreasing buckets whose range contains them")
+    void testBucketBoundaries() {
+        int previous = -1;
+        for (long value : new long[] {0, 1, 63, 64, 65, 127, 128, 1_000, 1_000_000,
+                                      LatencyHistogram.MAX_TRACKABLE_NANOS}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index >= previous, "bucket for " + value);
+            assertTrue(index < LatencyHistogram.BUCKET_COUNT);
+            assertTrue(LatencyHistogram.highestValueIn(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueIn(index - 1) < value);
+            previous = index;
+        }
+    }
+
+    @Test
+    @DisplayName("Should clamp negative and out-of-range values and report zero when empty")
+    void testClampAndEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().getValueAtPercentile(99));
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_NANOS, snapshot.getMaxNanos());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertEquals(expected, actual, expected * 0.035, "value " + actual);
+    }
+}
@@ -0,0 +1,79 @@
+package app.metrics;
+
+import app.exception.BusinessException;
+import app.exception.DataAccessException;
+import app.exception.NotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for operation metrics and their Prometheus export
+ */
+@DisplayName("Metrics Registry Tests")
+class MetricsRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final MetricsRegistry registry = new MetricsRegistry(withoutJmx());
+
+    @Test
+    @DisplayName("Should count outcomes by exception type and time successful calls")
+    void testOutcomes() throws Exception {
+        OperationMetrics metrics = registry.operation("service.processEntry");
+        assertSame(metrics, registry.operation("service.processEntry"));
+
+        assertEquals("ok", metrics.time(() -> "ok"));
+        assertThrows(BusinessException.class, () -> metrics.time(() -> {
+            throw new BusinessException("Vehicle already has an open ticket");
+        }));
+        assertThrows(NotFoundException.class, () -> metrics.time(() -> {
+            throw new NotFoundException("Ticket not found");
+        }));
+        assertThrows(DataAccessException.class, () -> metrics.time(() -> {
+            throw new DataAccessException("Database connection error");
+        }));
+        metrics.failure(System.nanoTime(), new IllegalStateException());
+
+        assertEquals(5, metrics.getCount());
+        assertEquals(1, metrics.getSuccessCount());
+        assertEquals(2, metrics.getBusinessErrorCount());
+        assertEquals(2, metrics.getDataErrorCount());
+        assertEquals(5, metrics.getLatency().getCount());
+    }
+
+    @Test
+    @DisplayName("Should export summaries, outcome counters and gauges as Prometheus text")
+    void testPrometheusText() throws Exception {
+        OperationMetrics metrics = registry.operation("dao.ticket.close");
+        metrics.success(System.nanoTime());
+        registry.gauge("crudpark_open_tickets", "Open tickets in the index", () -> 42);
+
+        String text = registry.toPrometheusText();
+
+        assertTrue(text.contains("# TYPE crudpark_operation_duration_seconds summary\n"));
+        assertTrue(text.contains("crudpark_operation_duration_seconds{operation=\"dao.ticket.close\",quantile=\"0.99\"} "));
+        assertTrue(text.contains("crudpark_operation_duration_seconds_count{operation=\"dao.ticket.close\"} 1\n"));
+        assertTrue(text.contains("crudpark_operation_total{operation=\"dao.ticket.close\",outcome=\"success\"} 1\n"));
+        assertTrue(text.contains("crudpark_operation_total{operation=\"dao.ticket.close\",outcome=\"data_error\"} 0\n"));
+        assertTrue(text.contains("# TYPE crudpark_open_tickets gauge\ncrudpark_open_tickets 42\n"));
+
+        Path file = tempDir.resolve("metrics").resolve("metrics.prom");
+        registry.dumpTo(file);
+        assertEquals(registry.toPrometheusText(), Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    private static Properties withoutJmx() {
+        Properties config = new Properties();
+        config.setProperty("metrics.jmx", "false");
+        return config;
+    }
+}
@@ -0,0 +1,137 @@
+package app.metrics;
+
+import app.database.JdbcInstrumentation;
+import app.util.QRCodeGenerator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the Flight Recorder events
+ */
+@DisplayName("Parking Event Tests")
+class ParkingEventTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should record every DAO statement with its operation and outcome")
+    void testDaoCallEvents() throws Exception {
+        // Arrange
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(1).thenThrow(new SQLException("deadlock detected"));
+        Properties config = new Properties();
+        config.setProperty("metrics.jmx", "false");
+        Connection connection = new JdbcInstrumentation(new MetricsRegistry(config), 0).wrap(mockConnection, 0);
+
+        // Act
+        List<RecordedEvent> events = record("crudpark.DaoCall", () -> {
+            try (PreparedStatement stmt = connection.prepareStatement("UPDATE tickets SET status = 'CLOSED'")) {
+                stmt.executeUpdate();
+                assertThrows(SQLException.class, stmt::executeUpdate);
+            }
+        });
+
+        // Assert
+        assertEquals(2, events.size());
+        assertEquals("UPDATE_tickets", events.get(0).getString("operation"));
+        assertEquals("success", events.get(0).getString("outcome"));
+        assertEquals("data_error", events.get(1).getString("outcome"));
+        assertTrue(events.get(0).getEventType().getCategoryNames().contains("CrudPark"));
+        assertFalse(events.get(0).hasField("plate"));
+        assertFalse(events.get(0).hasField("ticketId"));
+    }
+
+    @Test
+    @DisplayName("Should record parking fields set on the event")
+    void testParkingFields() throws Exception {
+        // Act
+        List<RecordedEvent> events = record("crudpark.VehicleEntry", () -> {
+            VehicleEntryEvent event = new VehicleEntryEvent();
+            event.setPlate("ABC123");
+            event.setOperatorId(3);
+            event.begin();
+            event.setTicketId(42);
+            event.setVehicleType("Car");
+            event.complete(Outcome.SUCCESS);
+        });
+
+        // Assert
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals("ABC123", event.getString("plate"));
+        assertEquals(42, event.getInt("ticketId"));
+        assertEquals("Car", event.getString("vehicleType"));
+        assertEquals(3, event.getInt("operatorId"));
+        assertEquals("success", event.getString("outcome"));
+    }
+
+    @Test
+    @DisplayName("Should record generated QR codes with their size")
+    void testQRCodeEvents() throws Exception {
+        // Act
+        byte[][] png = new byte[1][];
+        List<RecordedEvent> events = record("crudpark.QRCode", () -> {
+            png[0] = QRCodeGenerator.generateQRCodeBytes("TICKET:000001|PLATE:ABC123|TS:1700000000");
+        });
+
+        // Assert
+        assertEquals(1, events.size());
+        assertEquals(png[0].length, events.get(0).getLong("bytes"));
+        assertFalse(events.get(0).getBoolean("savedToFile"));
+    }
+
+    @Test
+    @DisplayName("Should record the size of QR codes saved to a file")
+    void testSavedQRCodeEvents() throws Exception {
+        // Act
+        String[] path = new String[1];
+        List<RecordedEvent> events = record("crudpark.QRCode", () -> {
+            path[0] = QRCodeGenerator.saveQRCodeToFile("TICKET:000002|PLATE:ABC123|TS:1700000000", 2, tempDir);
+        });
+
+        // Assert
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).getBoolean("savedToFile"));
+        assertEquals(Files.size(Path.of(path[0])), events.get(0).getLong("bytes"));
+        assertEquals(2, events.get(0).getInt("ticketId"));
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private List<RecordedEvent> record(String eventName, Action action) throws Exception {
+        Path file = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                            .filter(event -> event.getEventType().getName().equals(eventName))
+                            .collect(Collectors.toList());
+    }
+}
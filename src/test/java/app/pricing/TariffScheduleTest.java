@@ -0,0 +1,143 @@
+package app.pricing;
+
+import app.model.Rate;
+import app.model.RateWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TariffSchedule
+ */
+@DisplayName("TariffSchedule Unit Tests")
+class TariffScheduleTest {
+
+    /** Monday 2024-01-01 00:00 UTC */
+    private static final long MONDAY = LocalDateTime.of(2024, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+    private static final long MINUTE = 60_000L;
+
+    private Rate rate;
+
+    @BeforeEach
+    void setUp() {
+        // Standard Car Rate: $5.00/hour, $2.50/fraction, $50.00 cap, 15 min grace
+        rate = new Rate();
+        rate.setHourlyRate(5.00);
+        rate.setFractionRate(2.50);
+        rate.setDailyCap(50.00);
+        rate.setGracePeriodMinutes(15);
+        // Night every day 22:00-06:00 at $2.00/$1.00, weekend all day at $3.00/$1.50 (wins)
+        rate.setWindows(List.of(
+            window(1, 127, 22 * 60, 6 * 60, 2.00, 1.00, 0),
+            window(2, 32 | 64, 0, 0, 3.00, 1.50, 1)));
+    }
+
+    @Test
+    @DisplayName("Should price like the flat tariff when the rate has no windows")
+    void testFlatRate() {
+        rate.setWindows(List.of());
+        TariffSchedule schedule = TariffSchedule.compile(rate);
+
+        assertTrue(schedule.isFlat());
+        assertEquals(750, schedule.costCents(MONDAY, 76, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should charge each hour block at the window in effect when it starts")
+    void testSplitAcrossWindows() {
+        TariffSchedule schedule = TariffSchedule.compile(rate);
+
+        // Monday 20:00 entry, 4h15 chargeable: blocks at 20:15, 21:15 (day), 22:15, 23:15 (night), fraction at 00:15 (night)
+        long entry = MONDAY + 20 * 60 * MINUTE;
+        assertEquals(500 + 500 + 200 + 200 + 100, schedule.costCents(entry, 15 + 4 * 60 + 15, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should let the higher priority window win where windows overlap")
+    void testPriority() {
+        TariffSchedule schedule = TariffSchedule.compile(rate);
+
+        // Saturday 23:00 is inside both the night and the weekend window
+        long saturdayNight = MONDAY + (5 * 24 * 60 + 23 * 60) * MINUTE;
+        assertEquals(300, schedule.costCents(saturdayNight, 15 + 60, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should apply the daily cap to each 24h window from entry")
+    void testCapPerDay() {
+        rate.setWindows(List.of());
+        TariffSchedule schedule = TariffSchedule.compile(rate);
+
+        assertEquals(5000, schedule.costCents(MONDAY, 24 * 60, ZoneOffset.UTC));
+        assertEquals(3 * 5000, schedule.costCents(MONDAY, 3 * 24 * 60, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should match block-by-block pricing for stays over a whole week")
+    void testMatchesBlockByBlockPricing() {
+        TariffSchedule schedule = TariffSchedule.compile(rate);
+
+        for (long entryMinute = 0; entryMinute < 7 * 24 * 60; entryMinute += 97) {
+            for (long duration = 0; duration < 9 * 24 * 60; duration += 211) {
+                long entry = MONDAY + entryMinute * MINUTE;
+                assertEquals(blockByBlock(entryMinute, duration), 
+                             schedule.costCents(entry, duration, ZoneOffset.UTC),
+                             "entry minute " + entryMinute + ", duration " + duration);
+            }
+        }
+    }
+
+    /**
+     * Reference pricing: one step per hour block
+     */
+    private long blockByBlock(long entryMinuteOfWeek, long duration) {
+        long grace = 15;
+        if (duration <= grace) {
+            return 0;
+        }
+        long total = 0;
+        long dayCents = 0;
+        long currentDay = -1;
+        for (long start = grace; start < duration; start += 60) {
+            long day = start / (24 * 60);
+            if (day != currentDay) {
+                total += Math.min(dayCents, 5000);
+                dayCents = 0;
+                currentDay = day;
+            }
+            long[] price = priceAt((entryMinuteOfWeek + start) % (7 * 24 * 60));
+            dayCents += start + 60 <= duration ? price[0] : price[1];
+        }
+        return total + Math.min(dayCents, 5000);
+    }
+
+    private long[] priceAt(long minuteOfWeek) {
+        long day = minuteOfWeek / (24 * 60);
+        long minuteOfDay = minuteOfWeek % (24 * 60);
+        if (day >= 5) {
+            return new long[] {300, 150};
+        }
+        if (minuteOfDay >= 22 * 60 || minuteOfDay < 6 * 60) {
+            return new long[] {200, 100};
+        }
+        return new long[] {500, 250};
+    }
+
+    private RateWindow window(int id, int days, int start, int end, double hourly, double fraction, int priority) {
+        RateWindow window = new RateWindow();
+        window.setId(id);
+        window.setDaysOfWeek(days);
+        window.setStartMinute(start);
+        window.setEndMinute(end);
+        window.setHourlyRate(hourly);
+        window.setFractionRate(fraction);
+        window.setPriority(priority);
+        return window;
+    }
+}
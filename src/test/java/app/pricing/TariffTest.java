@@ -0,0 +1,80 @@
+package app.pricing;
+
+import app.model.Rate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Tariff
+ */
+@DisplayName("Tariff Unit Tests")
+class TariffTest {
+
+    private Tariff tariff;
+
+    @BeforeEach
+    void setUp() {
+        // Standard Car Rate: $5.00/hour, $2.50/fraction, $50.00 cap, 15 min grace
+        Rate rate = new Rate();
+        rate.setId(1);
+        rate.setRateName("Standard Car Rate");
+        rate.setHourlyRate(5.00);
+        rate.setFractionRate(2.50);
+        rate.setDailyCap(50.00);
+        rate.setGracePeriodMinutes(15);
+        tariff = Tariff.compile(rate);
+    }
+
+    @Test
+    @DisplayName("Should compile rate amounts into exact cents")
+    void testCompile() {
+        assertEquals(500, tariff.getHourlyCents());
+        assertEquals(250, tariff.getFractionCents());
+        assertEquals(5000, tariff.getDailyCapCents());
+        assertEquals(1999, Tariff.toCents(19.99));
+        assertEquals("0.10", Tariff.toAmount(10).toPlainString());
+    }
+
+    @Test
+    @DisplayName("Should charge nothing inside the grace period")
+    void testGracePeriod() {
+        assertTrue(tariff.isWithinGracePeriod(15));
+        assertEquals(0, tariff.costCents(0));
+        assertEquals(0, tariff.costCents(15));
+    }
+
+    @Test
+    @DisplayName("Should charge whole hours plus one fraction for remaining minutes")
+    void testHoursAndFraction() {
+        // Arrange & Act & Assert: chargeable minutes are counted after the grace period
+        assertEquals(250, tariff.costCents(16));
+        assertEquals(500, tariff.costCents(75));
+        assertEquals(750, tariff.costCents(76));
+    }
+
+    @Test
+    @DisplayName("Should cap the amount at the daily cap")
+    void testDailyCap() {
+        assertEquals(5000, tariff.costCents(15 + 10 * 60));
+        assertEquals(5000, tariff.costCents(15 + 20 * 60 + 1));
+    }
+
+    @Test
+    @DisplayName("Should apply the daily cap to each 24h window from entry")
+    void testDailyCapPerDay() {
+        // Two full days capped, then 2 hours and a fraction on the third
+        assertEquals(2 * 5000 + 2 * 500 + 250, tariff.costCents(2 * 24 * 60 + 2 * 60 + 30));
+        assertEquals(2 * 5000, tariff.costCents(2 * 24 * 60));
+    }
+
+    @Test
+    @DisplayName("Should not cap when the rate has no daily cap")
+    void testNoCap() {
+        Tariff uncapped = new Tariff(2, "No cap", 500, 250, Tariff.NO_CAP, 0);
+
+        assertEquals(24 * 500, uncapped.costCents(24 * 60));
+    }
+}
@@ -0,0 +1,68 @@
+package app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExitQuoteStore
+ */
+@DisplayName("ExitQuoteStore Unit Tests")
+class ExitQuoteStoreTest {
+
+    private long nowNanos;
+    private ExitQuoteStore store;
+
+    @BeforeEach
+    void setUp() {
+        nowNanos = 0;
+        store = new ExitQuoteStore(60_000, () -> nowNanos);
+    }
+
+    @Test
+    @DisplayName("Should return a quote once for its ticket and rate version")
+    void testTakeOnce() {
+        String token = store.issue(10, 3, 95, 750, false, null);
+
+        ExitQuoteStore.ExitQuote quote = store.take(token, 10, 3);
+
+        assertNotNull(quote);
+        assertEquals(750, quote.getAmountCents());
+        assertEquals(95, quote.getDurationMinutes());
+        assertNull(store.take(token, 10, 3));
+    }
+
+    @Test
+    @DisplayName("Should reject a quote for another ticket or rate version")
+    void testMismatch() {
+        String first = store.issue(10, 3, 95, 750, false, null);
+        String second = store.issue(10, 3, 95, 750, false, null);
+
+        assertNull(store.take(first, 11, 3));
+        assertNull(store.take(second, 10, 4));
+    }
+
+    @Test
+    @DisplayName("Should reject a quote older than the staleness window")
+    void testStale() {
+        String token = store.issue(10, 3, 95, 750, false, null);
+        nowNanos += TimeUnit.SECONDS.toNanos(61);
+
+        assertNull(store.take(token, 10, 3));
+    }
+
+    @Test
+    @DisplayName("Should purge stale quotes when issuing new ones")
+    void testPurge() {
+        store.issue(10, 3, 95, 750, false, null);
+        nowNanos += TimeUnit.SECONDS.toNanos(61);
+
+        store.issue(11, 3, 20, 0, true, "Grace Period (first 15 minutes)");
+
+        assertEquals(1, store.size());
+    }
+}
@@ -0,0 +1,119 @@
+package app.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the asynchronous log appender and its ring buffer
+ */
+@DisplayName("Async Log Appender Tests")
+class AsyncLogAppenderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should write every line from concurrent callers before close completes")
+    void testConcurrentAppendAndClose() throws Exception {
+        Path file = tempDir.resolve("logs").resolve("test.log");
+        AsyncLogAppender appender = new AsyncLogAppender(file, 64, AsyncLogAppender.OverflowPolicy.BLOCK, 10);
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    appender.append("line " + thread + "-" + i, false);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(appender.close(5000));
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(2000, lines.size());
+        assertEquals(2000, new HashSet<>(lines).size());
+        assertEquals(0, appender.getDroppedCount());
+        assertFalse(appender.append("after close", true));
+    }
+
+    @Test
+    @DisplayName("Should drop entries instead of blocking while the file cannot be written, then recover")
+    void testWriteFailureDoesNotBlockCallers() throws Exception {
+        Path path = tempDir.resolve("logs").resolve("test.log");
+        AtomicBoolean failing = new AtomicBoolean(true);
+        RollingLogFile file = new RollingLogFile(path, RollingLogFile.NO_SIZE_LIMIT, false, RollingLogFile.KEEP_ALL) {
+            @Override
+            public void write(ByteBuffer bytes) throws IOException {
+                if (failing.get()) {
+                    throw new IOException("No space left on device");
+                }
+                super.write(bytes);
+            }
+        };
+        AsyncLogAppender appender = new AsyncLogAppender(file, 4, AsyncLogAppender.OverflowPolicy.BLOCK, 10);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 200; i++) {
+                appender.append("lost " + i, i % 2 == 0);
+            }
+        });
+        assertTrue(appender.getDroppedCount() > 0);
+
+        failing.set(false);
+        int[] refused = new int[1];
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (!appender.append("after recovery", true)) {
+                refused[0]++;
+                Thread.sleep(20);
+            }
+        });
+
+        assertTrue(appender.close(5000));
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        assertTrue(lines.contains("after recovery"));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("log entries dropped")));
+        // Every entry is either in the file (queued before the failure) or counted as dropped
+        long written = lines.stream().filter(line -> line.startsWith("lost ")).count();
+        assertEquals(200 + refused[0], written + appender.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("Should hand entries to the consumer in order and refuse them when full")
+    void testRingBufferBounds() {
+        LogRingBuffer<String> buffer = new LogRingBuffer<>(3);
+
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer("entry " + i));
+        }
+        assertFalse(buffer.offer("overflow"));
+
+        assertEquals("entry 0", buffer.poll());
+        assertTrue(buffer.offer("entry 4"));
+        Set<String> drained = new HashSet<>();
+        String entry;
+        while ((entry = buffer.poll()) != null) {
+            drained.add(entry);
+        }
+        assertEquals(Set.of("entry 1", "entry 2", "entry 3", "entry 4"), drained);
+        assertTrue(buffer.isEmpty());
+    }
+}
@@ -0,0 +1,80 @@
+package app.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for per-call-site log rate limiting and sampling
+ */
+@DisplayName("Log Limiter Tests")
+class LogLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    @DisplayName("Should let N lines per second through from each call site and count the rest")
+    void testRateLimit() {
+        LogLimiter limiter = LogLimiter.parse("RateDAO", "2/s", now::get);
+
+        assertNotNull(limiter.admit("Active rate found for {}"));
+        assertNotNull(limiter.admit("Active rate found for {}"));
+        assertNull(limiter.admit("Active rate found for {}"));
+        assertNull(limiter.admit("Active rate found for {}"));
+        assertNotNull(limiter.admit("Rate table v{} loaded"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        LogLimiter.Site site = limiter.admit("Active rate found for {}");
+        assertNotNull(site);
+        assertEquals(2, site.takeSuppressed("Active rate found for {}"));
+        assertEquals(0, site.takeSuppressed("Active rate found for {}"));
+    }
+
+    @Test
+    @DisplayName("Should keep one line in K when sampling")
+    void testSampling() {
+        LogLimiter limiter = LogLimiter.parse("ParkingService", "1/3", now::get);
+
+        int written = 0;
+        for (int i = 0; i < 9; i++) {
+            if (limiter.admit("Vehicle exit successful: {}") != null) {
+                written++;
+            }
+        }
+        assertEquals(3, written);
+    }
+
+    @Test
+    @DisplayName("Should report suppressed counts only for call sites that went quiet")
+    void testIdleReports() {
+        LogLimiter limiter = LogLimiter.parse("ParkingService", "1/s", now::get);
+        limiter.admit("quiet {}").takeSuppressed("quiet {}");
+        limiter.admit("quiet {}");
+        limiter.admit("quiet {}");
+
+        assertTrue(limiter.takeIdleReports(TimeUnit.SECONDS.toNanos(60)).isEmpty());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        List<LogLimiter.Report> reports = limiter.takeIdleReports(TimeUnit.SECONDS.toNanos(60));
+        assertEquals(1, reports.size());
+        assertEquals("quiet {}", reports.get(0).getMessage());
+        assertEquals(2, reports.get(0).getCount());
+        assertTrue(limiter.takeIdleReports(0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should parse rate and sample specs and reject malformed ones")
+    void testParse() {
+        assertNull(LogLimiter.parse("A", "none", now::get));
+        assertNull(LogLimiter.parse("A", " ", now::get));
+        assertThrows(IllegalArgumentException.class, () -> LogLimiter.parse("A", "10", now::get));
+        assertThrows(IllegalArgumentException.class, () -> LogLimiter.parse("A", "2/5", now::get));
+        assertThrows(IllegalArgumentException.class, () -> LogLimiter.parse("A", "0/s", now::get));
+        assertThrows(IllegalArgumentException.class, () -> LogLimiter.parse("A", "x/s", now::get));
+    }
+}
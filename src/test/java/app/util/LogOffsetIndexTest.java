@@ -0,0 +1,89 @@
+package app.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ticket/plate offset index of the log segments
+ */
+@DisplayName("Log Offset Index Tests")
+class LogOffsetIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should find every entry for a ticket or plate across rolled and compressed segments")
+    void testFindAcrossSegments() throws Exception {
+        Path file = tempDir.resolve("test.log");
+        RollingLogFile log = new RollingLogFile(file, 200, false, RollingLogFile.KEEP_ALL);
+        AsyncLogAppender appender = new AsyncLogAppender(log, 64, AsyncLogAppender.OverflowPolicy.BLOCK, 10,
+                                                         new LogOffsetIndex(file), false);
+
+        for (int i = 0; i < 30; i++) {
+            int ticketId = 100 + (i % 3);
+            appender.append("entry " + i + " for ticket " + ticketId, ticketId, i % 3 == 0 ? "ABC123" : null, false);
+            appender.append("untagged entry " + i, false);
+        }
+        assertTrue(appender.close(5000));
+        awaitCompressed(tempDir);
+
+        List<String> ticketEntries = LogOffsetIndex.findByTicket(file, 101);
+        assertEquals(10, ticketEntries.size());
+        for (int n = 0; n < ticketEntries.size(); n++) {
+            assertEquals("entry " + (3 * n + 1) + " for ticket 101", ticketEntries.get(n));
+        }
+
+        List<String> plateEntries = LogOffsetIndex.findByPlate(file, "abc123");
+        assertEquals(10, plateEntries.size());
+        assertEquals("entry 0 for ticket 100", plateEntries.get(0));
+        assertEquals("entry 27 for ticket 100", plateEntries.get(9));
+
+        assertTrue(LogOffsetIndex.findByTicket(file, 999).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return multi-line entries whole")
+    void testMultiLineEntries() throws Exception {
+        Path file = tempDir.resolve("test.log");
+        RollingLogFile log = new RollingLogFile(file, RollingLogFile.NO_SIZE_LIMIT, false, RollingLogFile.KEEP_ALL);
+        AsyncLogAppender appender = new AsyncLogAppender(log, 64, AsyncLogAppender.OverflowPolicy.BLOCK, 10,
+                                                         new LogOffsetIndex(file), false);
+        String n = System.lineSeparator();
+        String error = "[2026-10-18 10:00:00] [main] [ERROR] ParkingService - Exit failed" + n
+                     + "Exception: java.sql.SQLException: Connection reset" + n
+                     + "\tat app.dao.TicketDAO.closeTicket(TicketDAO.java:120)" + n;
+
+        appender.append("entry before", 7, null, false);
+        appender.append(error, 7, null, true);
+        appender.append("untagged entry after", false);
+        assertTrue(appender.close(5000));
+
+        List<String> entries = LogOffsetIndex.findByTicket(file, 7);
+        assertEquals(List.of("entry before", error.stripTrailing()), entries);
+    }
+
+    /**
+     * Wait for the background compressor so both .gz and the active segment are read
+     */
+    private static void awaitCompressed(Path directory) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            try (Stream<Path> files = Files.list(directory)) {
+                if (files.noneMatch(path -> path.getFileName().toString().matches("test-.*\\.log"))) {
+                    return;
+                }
+            }
+            Thread.sleep(20);
+        }
+        fail("Archives were not compressed in time");
+    }
+}
@@ -0,0 +1,78 @@
+package app.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for Logger message formatting (text and JSON lines)
+ */
+@DisplayName("Logger Formatting Tests")
+class LoggerTest {
+
+    @Test
+    @DisplayName("Should substitute placeholders in order in one pass")
+    void testAppendFormatted() {
+        assertEquals("Ticket 123456 - ABC123 (95 min)", 
+                     format("Ticket {} - {} ({} min)", 123456, "ABC123", 95L));
+        assertEquals("null and {}", format("{} and {}", (Object) null));
+        assertEquals("no placeholders", format("no placeholders", 1, 2));
+        assertEquals("plain", format("plain"));
+    }
+
+    @Test
+    @DisplayName("Should insert arguments literally, including regex and placeholder characters")
+    void testAppendFormattedLiteralArguments() {
+        assertEquals("Amount $5.00 for {} - ABC123", format("Amount {} for {} - {}", "$5.00", "{}", "ABC123"));
+        assertEquals("path C:\\qr\\ticket", format("path {}", "C:\\qr\\ticket"));
+    }
+
+    @Test
+    @DisplayName("Should write a JSON line with typed fields and escaped text")
+    void testFormatJson() {
+        LogFields fields = LogFields.ticket(42).licensePlate("abc123").operatorId(7)
+                                    .durationMinutes(95).amountCents(450);
+
+        String json = Logger.formatJson("2026-10-18 10:15:00", "main", Logger.Level.INFO, "ParkingService",
+                                        "Exit for \"ABC123\"", fields, "Exception: x\n\tat y");
+
+        assertEquals("{\"ts\":\"2026-10-18 10:15:00\",\"level\":\"INFO\",\"thread\":\"main\","
+                     + "\"logger\":\"ParkingService\",\"msg\":\"Exit for \\\"ABC123\\\"\","
+                     + "\"ticketId\":42,\"plate\":\"ABC123\",\"operatorId\":7,\"durationMinutes\":95,"
+                     + "\"amount\":4.50,\"exception\":\"Exception: x\\n\\tat y\"}", json);
+        assertEquals("{\"ts\":\"t\",\"level\":\"WARN\",\"thread\":\"main\",\"logger\":\"L\",\"msg\":\"m\"}",
+                     Logger.formatJson("t", "main", Logger.Level.WARN, "L", "m", null, null));
+    }
+
+    private static String format(String message, Object... args) {
+        StringBuilder sb = new StringBuilder();
+        Logger.appendFormatted(sb, message, args);
+        return sb.toString();
+    }
+
+    @Test
+    @DisplayName("Should not rate-limit lines tagged with a ticket ID or plate")
+    void testTaggedLinesNotLimited() {
+        Logger logger = new Logger("LoggerTest", LogLimiter.parse("LoggerTest", "1/s", () -> 0L));
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(console, true, StandardCharsets.UTF_8));
+        try {
+            for (int i = 0; i < 5; i++) {
+                logger.info(LogFields.ticket(i), "Vehicle exit successful: {}", i);
+                logger.info("Rates refreshed {}", i);
+            }
+        } finally {
+            System.setOut(stdout);
+        }
+
+        String output = console.toString(StandardCharsets.UTF_8);
+        assertEquals(5, output.lines().filter(line -> line.contains("Vehicle exit successful")).count());
+        assertEquals(1, output.lines().filter(line -> line.contains("Rates refreshed")).count());
+    }
+}
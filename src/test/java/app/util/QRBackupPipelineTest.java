@@ -0,0 +1,69 @@
+package app.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the background QR backup pipeline
+ */
+@DisplayName("QR Backup Pipeline Tests")
+class QRBackupPipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should write every queued backup before shutdown completes")
+    void testDrainOnShutdown() {
+        Path directory = tempDir.resolve("qr-codes");
+        QRBackupPipeline pipeline = new QRBackupPipeline(directory, 100, 2, 4);
+
+        for (int ticketId = 1; ticketId <= 10; ticketId++) {
+            assertTrue(pipeline.submit(String.format("TICKET:%06d|PLATE:ABC123|DATE:0", ticketId), ticketId));
+        }
+
+        assertTrue(pipeline.shutdown(10000));
+        assertEquals(0, pipeline.getQueueDepth());
+        assertEquals(10, pipeline.getWrittenCount());
+        assertEquals(0, pipeline.getFailedCount());
+        for (int ticketId = 1; ticketId <= 10; ticketId++) {
+            assertTrue(Files.exists(directory.resolve("ticket_" + ticketId + ".png")));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject backups after shutdown without blocking")
+    void testRejectAfterShutdown() {
+        QRBackupPipeline pipeline = new QRBackupPipeline(tempDir, 10, 1, 4);
+        pipeline.shutdown(1000);
+
+        assertFalse(pipeline.submit("TICKET:000001|PLATE:ABC123|DATE:0", 1));
+        assertEquals(1, pipeline.getDroppedCount());
+        assertEquals(0, pipeline.getSubmittedCount());
+    }
+
+    @Test
+    @DisplayName("Should write or count as dropped every backup submitted during shutdown")
+    void testSubmitRacingShutdown() throws InterruptedException {
+        QRBackupPipeline pipeline = new QRBackupPipeline(tempDir, 1000, 2, 4);
+        Thread producer = new Thread(() -> {
+            for (int ticketId = 1; ticketId <= 200; ticketId++) {
+                pipeline.submit("TICKET:000001|PLATE:ABC123|DATE:0", ticketId);
+            }
+        });
+
+        producer.start();
+        pipeline.shutdown(10000);
+        producer.join();
+
+        assertEquals(200, pipeline.getSubmittedCount() + pipeline.getDroppedCount());
+        assertEquals(pipeline.getSubmittedCount(), pipeline.getWrittenCount() + pipeline.getFailedCount());
+        assertEquals(0, pipeline.getQueueDepth());
+    }
+}
@@ -0,0 +1,102 @@
+package app.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for log file rotation
+ */
+@DisplayName("Rolling Log File Tests")
+class RollingLogFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should roll by size, compress the old segments and keep only the newest archives")
+    void testSizeRollingAndRetention() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        RollingLogFile log = new RollingLogFile(file, 100, false, 2);
+
+        // 10 lines of 50 bytes: two per segment, so four rolls
+        for (int i = 0; i < 10; i++) {
+            write(log, line(i));
+        }
+        log.close();
+
+        List<String> archives = archives();
+        assertEquals(2, archives.size());
+        for (String archive : archives) {
+            assertTrue(archive.matches("app-\\d{4}-\\d{2}-\\d{2}\\.\\d+\\.log\\.gz"), archive);
+        }
+        assertEquals(List.of(text(8), text(9)), Files.readAllLines(file));
+        assertEquals(text(6) + "\n" + text(7) + "\n", gunzip(tempDir.resolve(archives.get(1))));
+    }
+
+    @Test
+    @DisplayName("Should roll at midnight and name the archive after the day it covers")
+    void testDailyRolling() throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate day = LocalDate.of(2026, 10, 18);
+        AtomicLong now = new AtomicLong(day.atTime(23, 59).atZone(zone).toInstant().toEpochMilli());
+        Path file = tempDir.resolve("app.log");
+        RollingLogFile log = new RollingLogFile(file, RollingLogFile.NO_SIZE_LIMIT, true, 
+                                                RollingLogFile.KEEP_ALL, now::get);
+
+        write(log, line(1));
+        now.set(day.plusDays(1).atTime(0, 1).atZone(zone).toInstant().toEpochMilli());
+        write(log, line(2));
+        log.close();
+
+        assertEquals(List.of("app-2026-10-18.1.log.gz"), archives());
+        assertEquals(text(1) + "\n", gunzip(tempDir.resolve("app-2026-10-18.1.log.gz")));
+        assertEquals(List.of(text(2)), Files.readAllLines(file));
+    }
+
+    private static void write(RollingLogFile log, ByteBuffer bytes) throws IOException {
+        if (log.isRollDue(bytes.remaining())) {
+            log.roll();
+        }
+        log.write(bytes);
+    }
+
+    private List<String> archives() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.map(path -> path.getFileName().toString())
+                        .filter(name -> name.endsWith(".gz"))
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+
+    private static ByteBuffer line(int i) {
+        return ByteBuffer.wrap((text(i) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(int i) {
+        return String.format("line %02d %s", i, "x".repeat(40));
+    }
+
+    private static String gunzip(Path path) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}